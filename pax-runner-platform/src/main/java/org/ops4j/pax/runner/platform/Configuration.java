@@ -239,6 +239,101 @@ public interface Configuration
      */
     Boolean useAbsoluteFilePaths();
 
+    /**
+     * Returns the number of bundles that should be downloaded concurrently. A value of 1 means that bundles are
+     * downloaded one after another.
+     * Default value is "1".
+     *
+     * @return value of download threads option
+     */
+    Integer getDownloadThreads();
+
+    /**
+     * Returns the maximum number of bundles that should be downloaded concurrently from the same host (repository).
+     * Applies only when bundles are downloaded concurrently.
+     * Default value is "4".
+     *
+     * @return value of download threads per host option
+     */
+    Integer getDownloadThreadsPerHost();
+
+    /**
+     * Returns the directory of the host wide bundle store, shared between working directories - optional; if set to
+     * "true" the store will be created in ${user.home}/.pax/runner/bundles.
+     * Default value is null, meaning that the bundle store is not used.
+     *
+     * @return value of bundle store option
+     */
+    String getBundleStore();
+
+    /**
+     * Returns true if bundles that should be updated (overwritten) should be downloaded only if changed on the server.
+     * Applies only to http(s) urls, by using conditional requests (If-None-Match / If-Modified-Since).
+     * Default value is "false".
+     *
+     * @return value of revalidate option
+     */
+    Boolean isRevalidate();
+
+    /**
+     * Returns true if the platform should be started offline, without accessing the network. All bundles and system
+     * files must be available in the working directory (or in the bundle store) from a previous run, or be local files.
+     * Overwrite / update options are ignored. If any file is not available, starting fails with the list of missing
+     * files.
+     * Default value is "false".
+     *
+     * @return value of offline option
+     */
+    Boolean isOffline();
+
+    /**
+     * Returns the maximum size in bytes of the bundles downloaded in the working directory. When the size is
+     * exceeded the least recently used bundles are deleted at start up. The option value is in bytes or with a "k",
+     * "m" or "g" suffix.
+     * Default value (also for an empty option value) is null, meaning that the size is not limited.
+     *
+     * @return value of cache size option
+     */
+    Long getCacheSize();
+
+    /**
+     * Returns the mirrors of the urls bundles and system files are downloaded from, as a comma separated list of
+     * entries in the form "prefix=mirror1|mirror2". The prefix of an url (as a repository url) is replaced by the
+     * mirrors and the first one to respond is used.
+     * Default value is null, meaning that there are no mirrors.
+     *
+     * @return value of mirrors option
+     */
+    String getMirrors();
+
+    /**
+     * Returns the number of milliseconds to wait for a response from a mirror before trying the next one. A value of 0
+     * means that all mirrors are tried at once.
+     * Default value is "2000".
+     *
+     * @return value of mirror delay option
+     */
+    Integer getMirrorDelay();
+
+    /**
+     * Returns true if the platform should only download (prefetch) the bundles and system files to the working
+     * directory, without preparing and starting the platform, so a later start does not have to wait for downloads.
+     * Default value is "false".
+     *
+     * @return value of prefetch option
+     */
+    Boolean isPrefetch();
+
+    /**
+     * Returns how bundles and system files that are already available on the local file system ("file:" urls and
+     * "mvn:" urls of artifacts in the local maven repository) are provisioned to the working directory: "copy",
+     * "link" (hard link, falling back to a copy if not supported) or "reference" (used in place).
+     * Default value is "copy".
+     *
+     * @return value of local bundles option
+     */
+    String getLocalBundles();
+
     /**
      * Returns a raw configuration property by name.
      *
@@ -126,4 +126,44 @@ public interface ServiceConstants
      * Environment Options property name.
      */
     static final String CONFIG_ENVOPTIONS =  PID + ".envOptions";
+    /**
+     * Number of concurrent bundle downloads property name.
+     */
+    static final String CONFIG_DOWNLOAD_THREADS = PID + ".downloadThreads";
+    /**
+     * Number of concurrent bundle downloads from the same host property name.
+     */
+    static final String CONFIG_DOWNLOAD_THREADS_PER_HOST = PID + ".downloadThreadsPerHost";
+    /**
+     * Global bundle store directory property name.
+     */
+    static final String CONFIG_BUNDLE_STORE = PID + ".bundleStore";
+    /**
+     * Revalidate updated bundles property name.
+     */
+    static final String CONFIG_REVALIDATE = PID + ".revalidate";
+    /**
+     * Offline mode property name.
+     */
+    static final String CONFIG_OFFLINE = PID + ".offline";
+    /**
+     * Maximum size of downloaded bundles (of the working directory, not of the bundle store) property name.
+     */
+    static final String CONFIG_CACHE_SIZE = PID + ".cacheSize";
+    /**
+     * Mirrors of download urls property name.
+     */
+    static final String CONFIG_MIRRORS = PID + ".mirrors";
+    /**
+     * Delay after which the next mirror is tried property name.
+     */
+    static final String CONFIG_MIRROR_DELAY = PID + ".mirrorDelay";
+    /**
+     * Prefetch only mode property name.
+     */
+    static final String CONFIG_PREFETCH = PID + ".prefetch";
+    /**
+     * How local files are provisioned property name.
+     */
+    static final String CONFIG_LOCAL_BUNDLES = PID + ".localBundles";
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.PlatformException;
+
+/**
+ * Host wide, content addressed store of downloaded files, shared between working directories. Files are stored by
+ * the SHA-1 digest of their content as {@code <root>/<first two digest chars>/<digest>.jar} and the store keeps an
+ * index between the url the file was downloaded from and the digest, so an url already downloaded by another working
+ * directory will not be downloaded again. Working directories get a link (or a copy if links are not supported) to
+ * the stored file.
+ * The url index is read once and changes to it are saved only when the store is flushed.
+ * Stored files are never deleted by the runner (the cache size only limits working directories), so the store grows
+ * till it is deleted.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class BundleStore
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( BundleStore.class );
+    /**
+     * Name of the file containing the url to digest index.
+     */
+    private static final String INDEX_FILE_NAME = "urls.properties";
+
+    /**
+     * Store root directory.
+     */
+    private final File m_root;
+    /**
+     * Url to digest index.
+     */
+    private final DownloadIndex m_index;
+
+    /**
+     * Creates a new bundle store.
+     *
+     * @param root store root directory; mandatory
+     */
+    public BundleStore( final File root )
+    {
+        NullArgumentException.validateNotNull( root, "Store root directory" );
+        m_root = root;
+        m_index = new DownloadIndex( new File( m_root, INDEX_FILE_NAME ) );
+    }
+
+    /**
+     * Getter.
+     *
+     * @return store root directory
+     */
+    public File getRoot()
+    {
+        return m_root;
+    }
+
+    /**
+     * Looks up the stored file for an url.
+     *
+     * @param url url the file was downloaded from
+     *
+     * @return stored file or null if the url was not yet stored
+     */
+    public File lookup( final URL url )
+    {
+        NullArgumentException.validateNotNull( url, "URL" );
+        final String digest = m_index.get( url.toExternalForm() );
+        if( digest != null )
+        {
+            final File stored = getFile( digest );
+            if( stored.exists() )
+            {
+                return stored;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a downloaded file to the store and replaces the downloaded file by a link to the stored one. If a file with
+     * the same content is already stored the downloaded file is just replaced by a link to it.
+     *
+     * @param url  url the file was downloaded from; mandatory
+     * @param file downloaded file; mandatory
+     *
+     * @return stored file
+     *
+     * @throws IOException if the file cannot be stored
+     */
+    public File store( final URL url, final File file )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( file, "File" );
+        return store( url, file, digest( file ) );
+    }
+
+    /**
+     * Adds a downloaded file, whose SHA-1 digest is already known, to the store.
+     *
+     * @param url    url the file was downloaded from; mandatory
+     * @param file   downloaded file; mandatory
+     * @param digest hex encoded SHA-1 digest of the file content; mandatory
+     *
+     * @return stored file
+     *
+     * @throws IOException if the file cannot be stored
+     * @see #store(URL, File)
+     */
+    public File store( final URL url, final File file, final String digest )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( url, "URL" );
+        NullArgumentException.validateNotNull( file, "File" );
+        NullArgumentException.validateNotNull( digest, "Digest" );
+        final File stored = getFile( digest );
+        synchronized( this )
+        {
+            if( !stored.exists() )
+            {
+                stored.getParentFile().mkdirs();
+                // copy to an unique temporary file first so a failure will not leave a corrupted file in the store
+                // and runners storing the same content at the same time will not write the same file
+                final File temp = File.createTempFile( stored.getName() + ".", ".tmp", stored.getParentFile() );
+                LinkUtils.copy( file, temp );
+                if( !temp.renameTo( stored ) && !stored.exists() )
+                {
+                    temp.delete();
+                    throw new IOException( "Cannot rename " + temp + " to " + stored );
+                }
+                temp.delete();
+                LOGGER.debug( "Stored [" + url + "] as [" + stored + "]" );
+            }
+            final LinkUtils.Mode mode = LinkUtils.link( stored, file );
+            LOGGER.debug( "Linked [" + file + "] to [" + stored + "] using " + mode );
+        }
+        m_index.put( url.toExternalForm(), digest );
+        return stored;
+    }
+
+    /**
+     * Saves the changes done to the url index.
+     *
+     * @throws PlatformException if the index cannot be saved
+     */
+    public void flush()
+        throws PlatformException
+    {
+        m_index.flush();
+    }
+
+    /**
+     * Returns the file in the store corresponding to a digest.
+     *
+     * @param digest content digest
+     *
+     * @return file in store
+     */
+    File getFile( final String digest )
+    {
+        return new File( new File( m_root, digest.substring( 0, 2 ) ), digest + ".jar" );
+    }
+
+    /**
+     * Calculates the SHA-1 digest of the file content.
+     *
+     * @param file file to digest
+     *
+     * @return hex encoded digest
+     *
+     * @throws IOException re-thrown
+     */
+    static String digest( final File file )
+        throws IOException
+    {
+        return ChecksumUtils.digest( file, ChecksumUtils.SHA1 );
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    public String toString()
+    {
+        return m_root.getAbsolutePath();
+    }
+
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.PlatformException;
+
+/**
+ * Keeps the size of the downloaded bundles directory (working directory/bundles) under a maximum size by deleting the
+ * least recently used files. The last use of a file is recorded in the download index (url + "#lastUsed") each time
+ * the file is provisioned; files without such an entry (as old versions left behind when a bundle was updated) are
+ * considered used at their last modification time. Left over temporary download files are deleted as well.
+ * Eviction is done at start up, when a cache size is configured, or on demand, without starting a platform, through
+ * the runner --evictCache option or this class main method ({@code CacheEvictor <working directory> <cache size>}).
+ * Before evicting, the download index is saved and re-read while holding the cache lock, so the last uses recorded by
+ * this runner are seen by other runners and the ones saved by other runners are taken into account.
+ * The cache size does not apply to the host wide bundle store: evicting a bundle linked to the store only deletes the
+ * link from the working directory, so the store has to be cleaned separately (for example by deleting it, as it is
+ * filled again on next downloads).
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class CacheEvictor
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( CacheEvictor.class );
+    /**
+     * Suffix of the download index key under which the last use time of a downloaded url is recorded.
+     */
+    static final String LAST_USED_SUFFIX = "#lastUsed";
+    /**
+     * Age after which temporary download files are considered left over by crashed runners (one day).
+     */
+    private static final long STALE_TEMPORARY_FILE_AGE = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Directory containing the downloaded files.
+     */
+    private final File m_directory;
+    /**
+     * Maximum size in bytes of the downloaded files.
+     */
+    private final long m_maxSize;
+
+    /**
+     * Creates a new cache evictor.
+     *
+     * @param directory directory containing the downloaded files; mandatory
+     * @param maxSize   maximum size in bytes of the downloaded files
+     */
+    public CacheEvictor( final File directory, final long maxSize )
+    {
+        NullArgumentException.validateNotNull( directory, "Directory" );
+        m_directory = directory;
+        m_maxSize = maxSize;
+    }
+
+    /**
+     * Deletes least recently used files till the size of the downloaded files is under the maximum size. Files used
+     * since the specified time (as the ones provisioned by the current run) are never deleted.
+     *
+     * @param downloadIndex index of downloaded files; mandatory
+     * @param manifestIndex index of downloaded files manifest headers; mandatory
+     * @param usedSince     time since files used should be kept
+     *
+     * @return number of deleted files
+     *
+     * @throws PlatformException if the downloaded files cannot be locked or the download index cannot be saved
+     */
+    public int evict( final DownloadIndex downloadIndex,
+                      final ManifestIndex manifestIndex,
+                      final long usedSince )
+        throws PlatformException
+    {
+        NullArgumentException.validateNotNull( downloadIndex, "Download index" );
+        NullArgumentException.validateNotNull( manifestIndex, "Manifest index" );
+        final File[] files = m_directory.listFiles();
+        if( files == null )
+        {
+            return 0;
+        }
+        final CacheLock cacheLock = CacheLock.forFile( new File( m_directory, PlatformImpl.LOCK_FILE_NAME ) );
+        try
+        {
+            cacheLock.lock();
+        }
+        catch( IOException e )
+        {
+            throw new PlatformException( "Cannot lock " + cacheLock, e );
+        }
+        try
+        {
+            downloadIndex.refresh();
+            // last use and urls of downloaded files, by file name
+            final Map<String, String> entries = downloadIndex.snapshot();
+            final Map<String, Long> lastUsed = new HashMap<String, Long>();
+            final Map<String, List<String>> urls = new HashMap<String, List<String>>();
+            for( Map.Entry<String, String> entry : entries.entrySet() )
+            {
+                final String key = entry.getKey();
+                if( key.endsWith( LAST_USED_SUFFIX ) )
+                {
+                    final String fileName = entries.get( key.substring( 0, key.length() - LAST_USED_SUFFIX.length() ) );
+                    if( fileName != null )
+                    {
+                        final long time = parseTime( entry.getValue() );
+                        final Long current = lastUsed.get( fileName );
+                        lastUsed.put( fileName, current == null ? time : Math.max( current, time ) );
+                    }
+                }
+                else if( !key.endsWith( PlatformImpl.SHA1_SUFFIX ) )
+                {
+                    List<String> fileURLs = urls.get( entry.getValue() );
+                    if( fileURLs == null )
+                    {
+                        fileURLs = new ArrayList<String>();
+                        urls.put( entry.getValue(), fileURLs );
+                    }
+                    fileURLs.add( key );
+                }
+            }
+            long size = 0;
+            final List<File> cached = new ArrayList<File>();
+            final Map<File, Long> lastUse = new HashMap<File, Long>();
+            for( File file : files )
+            {
+                if( isStaleTemporaryFile( file ) )
+                {
+                    LOGGER.debug( "Deleting left over temporary file [" + file + "]" );
+                    file.delete();
+                }
+                else if( file.isFile() && file.getName().endsWith( ".jar" ) )
+                {
+                    final Long time = lastUsed.get( file.getName() );
+                    lastUse.put( file, time == null ? file.lastModified() : time );
+                    cached.add( file );
+                    size += file.length();
+                }
+            }
+            if( size <= m_maxSize )
+            {
+                return 0;
+            }
+            // least recently used first
+            Collections.sort( cached, new Comparator<File>()
+            {
+                public int compare( final File file1, final File file2 )
+                {
+                    return lastUse.get( file1 ).compareTo( lastUse.get( file2 ) );
+                }
+            }
+            );
+            int evicted = 0;
+            for( File file : cached )
+            {
+                if( size <= m_maxSize || lastUse.get( file ) >= usedSince )
+                {
+                    break;
+                }
+                final long length = file.length();
+                if( !file.delete() )
+                {
+                    LOGGER.warn( "Cannot delete [" + file + "] from cache" );
+                    continue;
+                }
+                LOGGER.debug( "Evicted [" + file + "] from cache" );
+                size -= length;
+                evicted++;
+                manifestIndex.remove( file );
+                final List<String> fileURLs = urls.get( file.getName() );
+                if( fileURLs != null )
+                {
+                    for( String url : fileURLs )
+                    {
+                        downloadIndex.remove( url );
+                        downloadIndex.remove( url + PlatformImpl.SHA1_SUFFIX );
+                        downloadIndex.remove( url + LAST_USED_SUFFIX );
+                    }
+                }
+            }
+            if( evicted > 0 )
+            {
+                LOGGER.info( "Evicted " + evicted + " bundles from cache [" + m_directory + "]" );
+            }
+            if( size > m_maxSize )
+            {
+                LOGGER.info(
+                    "Cache [" + m_directory + "] size (" + size + " bytes) is over the limit of " + m_maxSize
+                    + " bytes as all remaining bundles are in use"
+                );
+            }
+            return evicted;
+        }
+        finally
+        {
+            cacheLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes least recently used files from the downloaded bundles of a working directory till their size is under
+     * the maximum size, with the same locking and last uses as eviction at start up. As no platform is started, no
+     * files are kept for being in use.
+     *
+     * @param workDir working directory; mandatory
+     * @param maxSize maximum size in bytes of the downloaded files
+     *
+     * @return number of deleted files
+     *
+     * @throws PlatformException if the downloaded files cannot be locked or the indexes cannot be saved
+     */
+    public static int evict( final File workDir, final long maxSize )
+        throws PlatformException
+    {
+        NullArgumentException.validateNotNull( workDir, "Working directory" );
+        final DownloadIndex downloadIndex =
+            new DownloadIndex( new File( workDir, "bundles/downloaded_bundles.properties" ) );
+        final ManifestIndex manifestIndex = new ManifestIndex( new File( workDir, "bundles/manifests.properties" ) );
+        try
+        {
+            return new CacheEvictor( new File( workDir, "bundles" ), maxSize ).evict(
+                downloadIndex, manifestIndex, Long.MAX_VALUE
+            );
+        }
+        finally
+        {
+            downloadIndex.flush();
+            manifestIndex.flush();
+        }
+    }
+
+    /**
+     * Evicts least recently used files from the downloaded bundles of a working directory.
+     * Usage: {@code CacheEvictor <working directory> <cache size>}, where the cache size is specified as for the
+     * cacheSize option (as 500m).
+     *
+     * @param args working directory and cache size
+     *
+     * @throws PlatformException if the downloaded files cannot be locked or the indexes cannot be saved
+     */
+    public static void main( final String... args )
+        throws PlatformException
+    {
+        if( args == null || args.length != 2 )
+        {
+            throw new IllegalArgumentException( "Usage: CacheEvictor <working directory> <cache size>" );
+        }
+        evict( new File( args[ 0 ] ), parseSize( args[ 1 ] ) );
+    }
+
+    /**
+     * Checks if a file is a temporary download file (".part" or ".tmp") older than one day.
+     *
+     * @param file file to check
+     *
+     * @return true if the file is a left over temporary file
+     */
+    private static boolean isStaleTemporaryFile( final File file )
+    {
+        final String name = file.getName();
+        return file.isFile()
+               && ( name.endsWith( PlatformImpl.PART_FILE_SUFFIX ) || name.endsWith( ".tmp" ) )
+               && System.currentTimeMillis() - file.lastModified() > STALE_TEMPORARY_FILE_AGE;
+    }
+
+    /**
+     * Parses a recorded time.
+     *
+     * @param time time as milliseconds
+     *
+     * @return parsed time or 0 if the time is not a number
+     */
+    private static long parseTime( final String time )
+    {
+        try
+        {
+            return Long.parseLong( time );
+        }
+        catch( NumberFormatException ignore )
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses a size, specified in bytes or with a "k", "m" or "g" suffix (case insensitive) as kilobytes, megabytes
+     * or gigabytes.
+     *
+     * @param size size to be parsed; mandatory
+     *
+     * @return size in bytes
+     *
+     * @throws NumberFormatException if the size is not a number
+     */
+    public static long parseSize( final String size )
+    {
+        NullArgumentException.validateNotNull( size, "Size" );
+        String number = size.trim().toLowerCase();
+        long multiplier = 1;
+        if( number.endsWith( "k" ) )
+        {
+            multiplier = 1024L;
+        }
+        else if( number.endsWith( "m" ) )
+        {
+            multiplier = 1024L * 1024;
+        }
+        else if( number.endsWith( "g" ) )
+        {
+            multiplier = 1024L * 1024 * 1024;
+        }
+        if( multiplier > 1 )
+        {
+            number = number.substring( 0, number.length() - 1 ).trim();
+        }
+        final long value = Long.parseLong( number );
+        if( value < 0 )
+        {
+            throw new NumberFormatException( "Size cannot be negative: " + size );
+        }
+        return value * multiplier;
+    }
+
+}
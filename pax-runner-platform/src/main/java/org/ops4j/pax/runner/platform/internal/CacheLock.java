@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+
+/**
+ * Exclusive lock on a cache (working directory, bundle store) shared between threads and between runners (processes)
+ * using the same cache. Between processes the lock is a {@link FileLock} on a lock file; as file locks are held on
+ * behalf of the whole virtual machine, threads of the same virtual machine are coordinated by a reentrant lock.
+ * Locks are meant to guard short critical sections as replacing a cached file or saving an index.
+ * Usage:
+ * <pre>
+ * lock.lock();
+ * try
+ * {
+ *     ...
+ * }
+ * finally
+ * {
+ *     lock.unlock();
+ * }
+ * </pre>
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class CacheLock
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( CacheLock.class );
+    /**
+     * Locks by lock file canonical path, so all users of the same lock file in this virtual machine share the lock.
+     */
+    private static final Map<String, CacheLock> LOCKS = new HashMap<String, CacheLock>();
+
+    /**
+     * Lock file.
+     */
+    private final File m_file;
+    /**
+     * Lock between threads of this virtual machine.
+     */
+    private final ReentrantLock m_threadLock;
+    /**
+     * Lock file, while the lock is held.
+     */
+    private RandomAccessFile m_lockFile;
+    /**
+     * Lock between processes, while the lock is held.
+     */
+    private FileLock m_processLock;
+
+    /**
+     * Creates a new cache lock.
+     *
+     * @param file lock file
+     */
+    private CacheLock( final File file )
+    {
+        m_file = file;
+        m_threadLock = new ReentrantLock();
+    }
+
+    /**
+     * Returns the lock for a lock file.
+     *
+     * @param file lock file; mandatory. It will be created if it does not exist.
+     *
+     * @return cache lock
+     */
+    public static CacheLock forFile( final File file )
+    {
+        NullArgumentException.validateNotNull( file, "Lock file" );
+        String path;
+        try
+        {
+            path = file.getCanonicalPath();
+        }
+        catch( IOException e )
+        {
+            path = file.getAbsolutePath();
+        }
+        synchronized( LOCKS )
+        {
+            CacheLock lock = LOCKS.get( path );
+            if( lock == null )
+            {
+                lock = new CacheLock( new File( path ) );
+                LOCKS.put( path, lock );
+            }
+            return lock;
+        }
+    }
+
+    /**
+     * Acquires the lock, waiting for other threads or runners to release it.
+     *
+     * @throws IOException if the lock file cannot be locked
+     */
+    public void lock()
+        throws IOException
+    {
+        m_threadLock.lock();
+        if( m_threadLock.getHoldCount() > 1 )
+        {
+            // already locked by this thread
+            return;
+        }
+        try
+        {
+            m_file.getAbsoluteFile().getParentFile().mkdirs();
+            m_lockFile = new RandomAccessFile( m_file, "rw" );
+            m_processLock = m_lockFile.getChannel().lock();
+        }
+        catch( IOException e )
+        {
+            close();
+            m_threadLock.unlock();
+            throw e;
+        }
+        catch( RuntimeException e )
+        {
+            close();
+            m_threadLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the lock.
+     */
+    public void unlock()
+    {
+        if( m_threadLock.getHoldCount() == 1 )
+        {
+            close();
+        }
+        m_threadLock.unlock();
+    }
+
+    /**
+     * Releases the file lock and closes the lock file.
+     */
+    private void close()
+    {
+        try
+        {
+            if( m_processLock != null )
+            {
+                m_processLock.release();
+            }
+        }
+        catch( IOException e )
+        {
+            LOGGER.warn( "Cannot release lock " + m_file + " due to: " + e.getMessage() );
+        }
+        finally
+        {
+            m_processLock = null;
+            try
+            {
+                if( m_lockFile != null )
+                {
+                    m_lockFile.close();
+                }
+            }
+            catch( IOException ignore )
+            {
+                // ignore
+            }
+            m_lockFile = null;
+        }
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    public String toString()
+    {
+        return m_file.getAbsolutePath();
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+
+/**
+ * Checksum related utilities.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class ChecksumUtils
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( ChecksumUtils.class );
+    /**
+     * SHA-1 algorithm name.
+     */
+    public static final String SHA1 = "SHA-1";
+    /**
+     * Prefix of the response headers repository managers send checksums in (X-Checksum-SHA1).
+     */
+    private static final String CHECKSUM_HEADER_PREFIX = "X-Checksum-";
+    /**
+     * Hexadecimal digits.
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Utility class. Ment to be used via static methods.
+     */
+    private ChecksumUtils()
+    {
+        // utility class
+    }
+
+    /**
+     * Creates a message digest.
+     *
+     * @param algorithm digest algorithm (as SHA-1)
+     *
+     * @return message digest
+     *
+     * @throws IOException if the algorithm is not available
+     */
+    public static MessageDigest createDigest( final String algorithm )
+        throws IOException
+    {
+        try
+        {
+            return MessageDigest.getInstance( algorithm );
+        }
+        catch( NoSuchAlgorithmException e )
+        {
+            // should not happen for SHA-1 as it is a mandatory algorithm
+            throw new IOException( algorithm + " digest not available" );
+        }
+    }
+
+    /**
+     * Calculates the digest of the file content.
+     *
+     * @param file      file to digest; mandatory
+     * @param algorithm digest algorithm (as SHA-1)
+     *
+     * @return hex encoded digest
+     *
+     * @throws IOException re-thrown
+     */
+    public static String digest( final File file, final String algorithm )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( file, "File" );
+        final MessageDigest digest = createDigest( algorithm );
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream( file );
+            final byte[] buffer = new byte[8192];
+            int read;
+            while( ( read = in.read( buffer ) ) != -1 )
+            {
+                digest.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            if( in != null )
+            {
+                in.close();
+            }
+        }
+        return toHex( digest.digest() );
+    }
+
+    /**
+     * Hex encodes a digest.
+     *
+     * @param digest digest bytes
+     *
+     * @return hex encoded digest
+     */
+    public static String toHex( final byte[] digest )
+    {
+        final StringBuilder hex = new StringBuilder();
+        for( byte b : digest )
+        {
+            hex.append( HEX[ ( b >> 4 ) & 0xf ] ).append( HEX[ b & 0xf ] );
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Reads the checksum sent by the server in a response header, as maven repository managers do
+     * (X-Checksum-SHA1), so no separate request for a sidecar file is needed.
+     *
+     * @param connection connection the file is downloaded from; mandatory
+     * @param algorithm  digest algorithm (as SHA-1)
+     *
+     * @return lower case hex encoded checksum or null if the server did not send one
+     */
+    public static String readHeader( final URLConnection connection, final String algorithm )
+    {
+        NullArgumentException.validateNotNull( connection, "Connection" );
+        final String checksum = connection.getHeaderField( CHECKSUM_HEADER_PREFIX + algorithmSuffix( algorithm ) );
+        if( checksum == null || checksum.trim().length() == 0 )
+        {
+            return null;
+        }
+        return checksum.trim().toLowerCase();
+    }
+
+    /**
+     * Reads the checksum published next to an url as a sidecar file, as maven repositories do (url + ".sha1").
+     * Sidecars are looked up only for http(s) urls; other urls (as mvn: urls, that are resolved by the maven url
+     * handler) have no sidecar that could be looked up.
+     *
+     * @param url       url of the file the checksum is for; mandatory
+     * @param algorithm digest algorithm (as SHA-1)
+     *
+     * @return lower case hex encoded checksum or null if there is no sidecar file
+     */
+    public static String readSidecar( final URL url, final String algorithm )
+    {
+        NullArgumentException.validateNotNull( url, "URL" );
+        if( !"http".equals( url.getProtocol() ) && !"https".equals( url.getProtocol() ) )
+        {
+            return null;
+        }
+        BufferedReader reader = null;
+        try
+        {
+            final URL sidecar = new URL( url.toExternalForm() + "." + algorithmSuffix( algorithm ).toLowerCase() );
+            reader = new BufferedReader( new InputStreamReader( sidecar.openStream(), "US-ASCII" ) );
+            final String line = reader.readLine();
+            if( line == null || line.trim().length() == 0 )
+            {
+                return null;
+            }
+            // sidecar files can contain the checksum followed by the file name
+            return line.trim().split( "\\s+" )[ 0 ].toLowerCase();
+        }
+        catch( IOException e )
+        {
+            LOGGER.trace( "No " + algorithm + " sidecar for [" + url + "]: " + e.getMessage() );
+            return null;
+        }
+        finally
+        {
+            if( reader != null )
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch( IOException ignore )
+                {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the name of an algorithm as used in sidecar file extensions and checksum headers.
+     *
+     * @param algorithm digest algorithm (as SHA-1)
+     *
+     * @return algorithm name without dashes (as SHA1)
+     */
+    private static String algorithmSuffix( final String algorithm )
+    {
+        return algorithm.replace( "-", "" );
+    }
+
+}
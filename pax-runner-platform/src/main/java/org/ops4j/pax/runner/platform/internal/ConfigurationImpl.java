@@ -67,6 +67,22 @@ public class ConfigurationImpl
      * Default installed bundles start level.
      */
     private static final int DEFAULT_BUNDLE_START_LEVEL = 5;
+    /**
+     * Default number of concurrent downloads.
+     */
+    private static final int DEFAULT_DOWNLOAD_THREADS = 1;
+    /**
+     * Default number of concurrent downloads from the same host.
+     */
+    private static final int DEFAULT_DOWNLOAD_THREADS_PER_HOST = 4;
+    /**
+     * Default delay in milliseconds after which the next mirror is tried.
+     */
+    private static final int DEFAULT_MIRROR_DELAY = 2000;
+    /**
+     * Default bundle store directory, relative to user home.
+     */
+    private static final String DEFAULT_BUNDLE_STORE = ".pax/runner/bundles";
 
     /**
      * Property resolver. Cannot be null.
@@ -575,6 +591,220 @@ public class ConfigurationImpl
         return get( ServiceConstants.CONFIG_USE_ABSOLUTE_FILE_PATHS );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public Integer getDownloadThreads()
+    {
+        if( !contains( ServiceConstants.CONFIG_DOWNLOAD_THREADS ) )
+        {
+            final String downloadThreads = m_propertyResolver.get( ServiceConstants.CONFIG_DOWNLOAD_THREADS );
+            Integer downloadThreadsAsInt = DEFAULT_DOWNLOAD_THREADS;
+            if( downloadThreads != null )
+            {
+                try
+                {
+                    downloadThreadsAsInt = Math.max( Integer.valueOf( downloadThreads.trim() ), 1 );
+                }
+                catch( NumberFormatException ignore )
+                {
+                    LOGGER.warn( "Invalid number of download threads [" + downloadThreads + "], using default" );
+                }
+            }
+            return set( ServiceConstants.CONFIG_DOWNLOAD_THREADS, downloadThreadsAsInt );
+        }
+        return get( ServiceConstants.CONFIG_DOWNLOAD_THREADS );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Integer getDownloadThreadsPerHost()
+    {
+        if( !contains( ServiceConstants.CONFIG_DOWNLOAD_THREADS_PER_HOST ) )
+        {
+            final String downloadThreads = m_propertyResolver.get( ServiceConstants.CONFIG_DOWNLOAD_THREADS_PER_HOST );
+            Integer downloadThreadsAsInt = DEFAULT_DOWNLOAD_THREADS_PER_HOST;
+            if( downloadThreads != null )
+            {
+                try
+                {
+                    downloadThreadsAsInt = Math.max( Integer.valueOf( downloadThreads.trim() ), 1 );
+                }
+                catch( NumberFormatException ignore )
+                {
+                    LOGGER.warn(
+                        "Invalid number of download threads per host [" + downloadThreads + "], using default"
+                    );
+                }
+            }
+            return set( ServiceConstants.CONFIG_DOWNLOAD_THREADS_PER_HOST, downloadThreadsAsInt );
+        }
+        return get( ServiceConstants.CONFIG_DOWNLOAD_THREADS_PER_HOST );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getBundleStore()
+    {
+        if( !contains( ServiceConstants.CONFIG_BUNDLE_STORE ) )
+        {
+            String bundleStore = m_propertyResolver.get( ServiceConstants.CONFIG_BUNDLE_STORE );
+            if( bundleStore != null )
+            {
+                bundleStore = bundleStore.trim();
+                if( bundleStore.length() == 0 || Boolean.FALSE.toString().equalsIgnoreCase( bundleStore ) )
+                {
+                    bundleStore = null;
+                }
+                else if( Boolean.TRUE.toString().equalsIgnoreCase( bundleStore ) )
+                {
+                    bundleStore = new File( System.getProperty( "user.home" ), DEFAULT_BUNDLE_STORE ).getPath();
+                }
+            }
+            return set( ServiceConstants.CONFIG_BUNDLE_STORE, bundleStore );
+        }
+        return get( ServiceConstants.CONFIG_BUNDLE_STORE );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Boolean isRevalidate()
+    {
+        if( !contains( ServiceConstants.CONFIG_REVALIDATE ) )
+        {
+            return set( ServiceConstants.CONFIG_REVALIDATE,
+                        Boolean.valueOf( m_propertyResolver.get( ServiceConstants.CONFIG_REVALIDATE ) )
+            );
+        }
+        return get( ServiceConstants.CONFIG_REVALIDATE );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Boolean isOffline()
+    {
+        if( !contains( ServiceConstants.CONFIG_OFFLINE ) )
+        {
+            return set( ServiceConstants.CONFIG_OFFLINE,
+                        Boolean.valueOf( m_propertyResolver.get( ServiceConstants.CONFIG_OFFLINE ) )
+            );
+        }
+        return get( ServiceConstants.CONFIG_OFFLINE );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Long getCacheSize()
+    {
+        if( !contains( ServiceConstants.CONFIG_CACHE_SIZE ) )
+        {
+            final String cacheSize = m_propertyResolver.get( ServiceConstants.CONFIG_CACHE_SIZE );
+            Long cacheSizeAsLong = null;
+            if( cacheSize != null && cacheSize.trim().length() > 0 )
+            {
+                try
+                {
+                    cacheSizeAsLong = CacheEvictor.parseSize( cacheSize );
+                }
+                catch( NumberFormatException ignore )
+                {
+                    LOGGER.warn( "Invalid cache size [" + cacheSize + "], cache size will not be limited" );
+                }
+            }
+            return set( ServiceConstants.CONFIG_CACHE_SIZE, cacheSizeAsLong );
+        }
+        return get( ServiceConstants.CONFIG_CACHE_SIZE );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getMirrors()
+    {
+        if( !contains( ServiceConstants.CONFIG_MIRRORS ) )
+        {
+            String mirrors = m_propertyResolver.get( ServiceConstants.CONFIG_MIRRORS );
+            if( mirrors != null && mirrors.trim().length() == 0 )
+            {
+                mirrors = null;
+            }
+            return set( ServiceConstants.CONFIG_MIRRORS, mirrors );
+        }
+        return get( ServiceConstants.CONFIG_MIRRORS );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Integer getMirrorDelay()
+    {
+        if( !contains( ServiceConstants.CONFIG_MIRROR_DELAY ) )
+        {
+            final String mirrorDelay = m_propertyResolver.get( ServiceConstants.CONFIG_MIRROR_DELAY );
+            Integer mirrorDelayAsInt = DEFAULT_MIRROR_DELAY;
+            if( mirrorDelay != null )
+            {
+                try
+                {
+                    mirrorDelayAsInt = Math.max( Integer.valueOf( mirrorDelay.trim() ), 0 );
+                }
+                catch( NumberFormatException ignore )
+                {
+                    LOGGER.warn( "Invalid mirror delay [" + mirrorDelay + "], using default" );
+                }
+            }
+            return set( ServiceConstants.CONFIG_MIRROR_DELAY, mirrorDelayAsInt );
+        }
+        return get( ServiceConstants.CONFIG_MIRROR_DELAY );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Boolean isPrefetch()
+    {
+        if( !contains( ServiceConstants.CONFIG_PREFETCH ) )
+        {
+            return set( ServiceConstants.CONFIG_PREFETCH,
+                        Boolean.valueOf( m_propertyResolver.get( ServiceConstants.CONFIG_PREFETCH ) )
+            );
+        }
+        return get( ServiceConstants.CONFIG_PREFETCH );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getLocalBundles()
+    {
+        if( !contains( ServiceConstants.CONFIG_LOCAL_BUNDLES ) )
+        {
+            final String localBundles = m_propertyResolver.get( ServiceConstants.CONFIG_LOCAL_BUNDLES );
+            String mode = LocalArtifacts.COPY;
+            if( localBundles != null )
+            {
+                final String candidate = localBundles.trim().toLowerCase();
+                if( LocalArtifacts.COPY.equals( candidate )
+                    || LocalArtifacts.LINK.equals( candidate )
+                    || LocalArtifacts.REFERENCE.equals( candidate ) )
+                {
+                    mode = candidate;
+                }
+                else
+                {
+                    LOGGER.warn( "Invalid local bundles mode [" + localBundles + "], local bundles will be copied" );
+                }
+            }
+            return set( ServiceConstants.CONFIG_LOCAL_BUNDLES, mode );
+        }
+        return get( ServiceConstants.CONFIG_LOCAL_BUNDLES );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.PlatformException;
+
+/**
+ * State shared by the downloads of one platform start: the working directory, how downloads are executed, the caches
+ * and indexes downloaded files are looked up in and recorded to, and the download statistics.
+ * Optional parts (bundle store, http validators, mirror selector, local artifacts, offline mode) are not set when not
+ * configured.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+class DownloadContext
+{
+
+    /**
+     * Working directory.
+     */
+    private final File m_workDir;
+    /**
+     * Executor of downloads.
+     */
+    private final DownloadExecutor m_downloadExecutor;
+    /**
+     * Index of downloaded files.
+     */
+    private final DownloadIndex m_downloadIndex;
+    /**
+     * Index of downloaded files manifest headers.
+     */
+    private final ManifestIndex m_manifestIndex;
+    /**
+     * Counts how files were provisioned.
+     */
+    private final DownloadStatistics m_downloadStatistics;
+    /**
+     * Whether or not downloading should display fine grained progress info.
+     */
+    private boolean m_downloadFeedback;
+    /**
+     * Global bundle store. Null if not used.
+     */
+    private BundleStore m_bundleStore;
+    /**
+     * Http validators of downloaded files. Null if not revalidating.
+     */
+    private HttpValidators m_httpValidators;
+    /**
+     * Selector of mirrors to download from. Null if no mirrors are configured.
+     */
+    private MirrorSelector m_mirrorSelector;
+    /**
+     * Resolver of local files to be linked or used in place. Null if local files are copied.
+     */
+    private LocalArtifacts m_localArtifacts;
+    /**
+     * Files not available in offline mode. Null if not offline.
+     */
+    private List<URL> m_missingFiles;
+
+    /**
+     * Creates a new download context.
+     *
+     * @param workDir            working directory; mandatory
+     * @param downloadExecutor   executor of downloads; mandatory
+     * @param downloadIndex      index of downloaded files; mandatory
+     * @param manifestIndex      index of downloaded files manifest headers; mandatory
+     * @param downloadStatistics counts how files were provisioned; mandatory
+     */
+    DownloadContext( final File workDir,
+                     final DownloadExecutor downloadExecutor,
+                     final DownloadIndex downloadIndex,
+                     final ManifestIndex manifestIndex,
+                     final DownloadStatistics downloadStatistics )
+    {
+        NullArgumentException.validateNotNull( workDir, "Working directory" );
+        NullArgumentException.validateNotNull( downloadExecutor, "Download executor" );
+        NullArgumentException.validateNotNull( downloadIndex, "Download index" );
+        NullArgumentException.validateNotNull( manifestIndex, "Manifest index" );
+        NullArgumentException.validateNotNull( downloadStatistics, "Download statistics" );
+        m_workDir = workDir;
+        m_downloadExecutor = downloadExecutor;
+        m_downloadIndex = downloadIndex;
+        m_manifestIndex = manifestIndex;
+        m_downloadStatistics = downloadStatistics;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return working directory
+     */
+    File getWorkDir()
+    {
+        return m_workDir;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return executor of downloads
+     */
+    DownloadExecutor getDownloadExecutor()
+    {
+        return m_downloadExecutor;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return index of downloaded files
+     */
+    DownloadIndex getDownloadIndex()
+    {
+        return m_downloadIndex;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return index of downloaded files manifest headers
+     */
+    ManifestIndex getManifestIndex()
+    {
+        return m_manifestIndex;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return download statistics
+     */
+    DownloadStatistics getDownloadStatistics()
+    {
+        return m_downloadStatistics;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return true if downloading should display fine grained progress info
+     */
+    boolean isDownloadFeedback()
+    {
+        return m_downloadFeedback;
+    }
+
+    /**
+     * Setter.
+     *
+     * @param downloadFeedback if downloading should display fine grained progress info
+     */
+    void setDownloadFeedback( final boolean downloadFeedback )
+    {
+        m_downloadFeedback = downloadFeedback;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return global bundle store; null if not used
+     */
+    BundleStore getBundleStore()
+    {
+        return m_bundleStore;
+    }
+
+    /**
+     * Setter.
+     *
+     * @param bundleStore global bundle store; null if not used
+     */
+    void setBundleStore( final BundleStore bundleStore )
+    {
+        m_bundleStore = bundleStore;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return http validators of downloaded files; null if not revalidating
+     */
+    HttpValidators getHttpValidators()
+    {
+        return m_httpValidators;
+    }
+
+    /**
+     * Setter.
+     *
+     * @param httpValidators http validators of downloaded files; null if not revalidating
+     */
+    void setHttpValidators( final HttpValidators httpValidators )
+    {
+        m_httpValidators = httpValidators;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return selector of mirrors to download from; null if no mirrors are configured
+     */
+    MirrorSelector getMirrorSelector()
+    {
+        return m_mirrorSelector;
+    }
+
+    /**
+     * Setter.
+     *
+     * @param mirrorSelector selector of mirrors to download from; null if no mirrors are configured
+     */
+    void setMirrorSelector( final MirrorSelector mirrorSelector )
+    {
+        m_mirrorSelector = mirrorSelector;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return resolver of local files to be linked or used in place; null if local files are copied
+     */
+    LocalArtifacts getLocalArtifacts()
+    {
+        return m_localArtifacts;
+    }
+
+    /**
+     * Setter.
+     *
+     * @param localArtifacts resolver of local files to be linked or used in place; null if local files are copied
+     */
+    void setLocalArtifacts( final LocalArtifacts localArtifacts )
+    {
+        m_localArtifacts = localArtifacts;
+    }
+
+    /**
+     * Switches to offline mode, in which files not available in the cache are collected instead of being downloaded.
+     */
+    void setOffline()
+    {
+        m_missingFiles = Collections.synchronizedList( new ArrayList<URL>() );
+    }
+
+    /**
+     * Getter.
+     *
+     * @return true if in offline mode
+     */
+    boolean isOffline()
+    {
+        return m_missingFiles != null;
+    }
+
+    /**
+     * Records a file not available in offline mode.
+     *
+     * @param url url of the file
+     */
+    void missing( final URL url )
+    {
+        m_missingFiles.add( url );
+    }
+
+    /**
+     * Checks if a file was recorded as not available in offline mode.
+     *
+     * @param url url of the file
+     *
+     * @return true if the file is not available offline
+     */
+    boolean isMissing( final URL url )
+    {
+        return m_missingFiles != null && m_missingFiles.contains( url );
+    }
+
+    /**
+     * Getter.
+     *
+     * @return files not available in offline mode; empty if not offline
+     */
+    List<URL> getMissingFiles()
+    {
+        if( m_missingFiles == null )
+        {
+            return Collections.emptyList();
+        }
+        synchronized( m_missingFiles )
+        {
+            return new ArrayList<URL>( m_missingFiles );
+        }
+    }
+
+    /**
+     * Saves the indexes, so files already downloaded will not be downloaded again.
+     *
+     * @throws PlatformException if the bundle store index cannot be saved
+     */
+    void flush()
+        throws PlatformException
+    {
+        m_downloadIndex.flush();
+        m_manifestIndex.flush();
+        if( m_httpValidators != null )
+        {
+            m_httpValidators.flush();
+        }
+        if( m_mirrorSelector != null )
+        {
+            m_mirrorSelector.flush();
+        }
+        if( m_bundleStore != null )
+        {
+            m_bundleStore.flush();
+        }
+    }
+
+    /**
+     * Releases the threads used by downloads that are not bound to a single download run.
+     */
+    void shutdown()
+    {
+        if( m_mirrorSelector != null )
+        {
+            m_mirrorSelector.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,544 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.PlatformException;
+
+/**
+ * Executes downloads either one after another or, if more then one download thread is configured, by a bounded pool
+ * of download threads. Results are always returned in the order of the submitted downloads.
+ * Downloads wrapped as {@link Download} are scheduled by priority (lower first, as bundles start level), downloads
+ * with the same priority keep the submit order. On failure the exception of the first failed download in this
+ * execution order is re-thrown, so the outcome is the same as for the sequential execution.
+ * When executed concurrently, no more then the configured number of downloads per host are executed at the same time,
+ * so a slow host does not use all download threads and a single host is not overwhelmed. Downloads from the same host
+ * reuse the http keep-alive connections.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class DownloadExecutor
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( DownloadExecutor.class );
+
+    /**
+     * Maximum number of concurrent downloads.
+     */
+    private final int m_downloadThreads;
+    /**
+     * Maximum number of concurrent downloads from the same host.
+     */
+    private final int m_downloadThreadsPerHost;
+
+    /**
+     * Creates a new download executor, without a limit of downloads per host.
+     *
+     * @param downloadThreads maximum number of concurrent downloads. Values lower then 1 are considered as 1.
+     */
+    public DownloadExecutor( final int downloadThreads )
+    {
+        this( downloadThreads, downloadThreads );
+    }
+
+    /**
+     * Creates a new download executor.
+     *
+     * @param downloadThreads        maximum number of concurrent downloads. Values lower then 1 are considered as 1.
+     * @param downloadThreadsPerHost maximum number of concurrent downloads from the same host. Values lower then 1
+     *                               are considered as 1.
+     */
+    public DownloadExecutor( final int downloadThreads, final int downloadThreadsPerHost )
+    {
+        m_downloadThreads = Math.max( downloadThreads, 1 );
+        m_downloadThreadsPerHost = Math.max( downloadThreadsPerHost, 1 );
+    }
+
+    /**
+     * Returns true if downloads will be executed concurrently.
+     *
+     * @return true if downloads will be executed concurrently
+     */
+    public boolean isConcurrent()
+    {
+        return m_downloadThreads > 1;
+    }
+
+    /**
+     * Executes the downloads.
+     *
+     * @param downloads downloads to be executed; mandatory
+     *
+     * @return list of download results, in the same order as the downloads
+     *
+     * @throws PlatformException re-thrown from the first failed download, in execution order
+     */
+    public <T> List<T> execute( final List<? extends Callable<T>> downloads )
+        throws PlatformException
+    {
+        NullArgumentException.validateNotNull( downloads, "Downloads" );
+        final List<Integer> scheduled = schedule( downloads );
+        if( !isConcurrent() || downloads.size() <= 1 )
+        {
+            final Object[] results = new Object[downloads.size()];
+            for( Integer index : scheduled )
+            {
+                try
+                {
+                    results[ index ] = downloads.get( index ).call();
+                }
+                catch( Exception e )
+                {
+                    throw rethrow( e );
+                }
+            }
+            return asList( results );
+        }
+        final int threads = Math.min( m_downloadThreads, downloads.size() );
+        LOGGER.debug(
+            "Downloading using [" + threads + "] concurrent threads, maximum [" + m_downloadThreadsPerHost
+            + "] per host"
+        );
+        final Scheduler<T> scheduler = new Scheduler<T>( downloads, scheduled, m_downloadThreadsPerHost );
+        final ExecutorService executor = Executors.newFixedThreadPool( threads, new DownloadThreadFactory() );
+        try
+        {
+            for( int i = 0; i < threads; i++ )
+            {
+                executor.execute( scheduler );
+            }
+            scheduler.await();
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new PlatformException( "Downloading has been interrupted", e );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        for( Integer index : scheduled )
+        {
+            final Throwable failure = scheduler.m_failures[ index ];
+            if( failure != null )
+            {
+                throw rethrow( failure );
+            }
+        }
+        return asList( scheduler.m_results );
+    }
+
+    /**
+     * Orders the downloads by priority. Downloads with the same priority keep the submit order.
+     *
+     * @param downloads downloads to be scheduled
+     *
+     * @return indexes of downloads in execution order
+     */
+    private static List<Integer> schedule( final List<? extends Callable<?>> downloads )
+    {
+        final List<Integer> scheduled = new ArrayList<Integer>();
+        for( int i = 0; i < downloads.size(); i++ )
+        {
+            scheduled.add( i );
+        }
+        // sort is stable so same priority downloads are kept in submit order
+        Collections.sort( scheduled, new Comparator<Integer>()
+        {
+            public int compare( final Integer index1, final Integer index2 )
+            {
+                final int priority1 = priority( downloads.get( index1 ) );
+                final int priority2 = priority( downloads.get( index2 ) );
+                return priority1 < priority2 ? -1 : ( priority1 == priority2 ? 0 : 1 );
+            }
+        }
+        );
+        return scheduled;
+    }
+
+    /**
+     * Returns the priority of a download.
+     *
+     * @param download download
+     *
+     * @return download priority or {@link Integer#MAX_VALUE} if download is not a {@link Download}
+     */
+    private static int priority( final Callable<?> download )
+    {
+        return download instanceof Download ? ( (Download<?>) download ).getPriority() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the host of a download.
+     *
+     * @param download download
+     *
+     * @return download host or null if download is not a {@link Download} or is not downloaded from a host
+     */
+    private static String host( final Callable<?> download )
+    {
+        return download instanceof Download ? ( (Download<?>) download ).getHost() : null;
+    }
+
+    /**
+     * Converts an array of results to a list.
+     *
+     * @param results results
+     *
+     * @return list of results
+     */
+    @SuppressWarnings( "unchecked" )
+    private static <T> List<T> asList( final Object[] results )
+    {
+        final List<T> list = new ArrayList<T>();
+        for( Object result : results )
+        {
+            list.add( (T) result );
+        }
+        return list;
+    }
+
+    /**
+     * Converts a download failure to a platform exception. Runtime exceptions and errors are re-thrown as they are.
+     *
+     * @param cause download failure
+     *
+     * @return platform exception to be thrown
+     */
+    private static PlatformException rethrow( final Throwable cause )
+    {
+        if( cause instanceof PlatformException )
+        {
+            return (PlatformException) cause;
+        }
+        if( cause instanceof RuntimeException )
+        {
+            throw (RuntimeException) cause;
+        }
+        if( cause instanceof Error )
+        {
+            throw (Error) cause;
+        }
+        return new PlatformException( "Download failed", cause );
+    }
+
+    /**
+     * A download with a priority and the host it downloads from.
+     */
+    public static class Download<T>
+        implements Callable<T>
+    {
+
+        /**
+         * Actual download.
+         */
+        private final Callable<T> m_download;
+        /**
+         * Host downloaded from, null if not downloaded from a host.
+         */
+        private final String m_host;
+        /**
+         * Download priority.
+         */
+        private final int m_priority;
+
+        /**
+         * Creates a new download.
+         *
+         * @param download   actual download; mandatory
+         * @param url        url to be downloaded; can be null if the download does not access an url
+         * @param startLevel start level of the downloaded bundle, used as priority; can be null, in which case the
+         *                   download is scheduled after the ones that have a start level
+         */
+        public Download( final Callable<T> download, final URL url, final Integer startLevel )
+        {
+            NullArgumentException.validateNotNull( download, "Download" );
+            m_download = download;
+            m_host = url == null ? null : hostOf( url );
+            m_priority = startLevel == null ? Integer.MAX_VALUE : startLevel;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return host downloaded from, null if not downloaded from a host
+         */
+        public String getHost()
+        {
+            return m_host;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return download priority
+         */
+        public int getPriority()
+        {
+            return m_priority;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public T call()
+            throws Exception
+        {
+            return m_download.call();
+        }
+
+        /**
+         * Returns the host an url is downloaded from. For urls that wrap other urls (as "wrap:http://...") the host of
+         * the wrapped url is used. Urls that do not name a host, as "mvn:" urls resolved by the handler from the
+         * configured repositories, are not considered downloaded from a host, as the repository that will be used is
+         * not known in advance, so they are only limited by the number of download threads. Local files are not
+         * downloaded from a host.
+         *
+         * @param url url
+         *
+         * @return host or null if url is a local file or does not name a host
+         */
+        static String hostOf( final URL url )
+        {
+            if( "file".equals( url.getProtocol() ) )
+            {
+                return null;
+            }
+            if( url.getHost() != null && url.getHost().length() > 0 )
+            {
+                return url.getProtocol() + "://" + url.getHost() + ":" + url.getPort();
+            }
+            final String externalForm = url.toExternalForm();
+            final int schemeEnd = externalForm.indexOf( "://" );
+            if( schemeEnd > 0 )
+            {
+                final int hostStart = schemeEnd + 3;
+                int hostEnd = externalForm.indexOf( '/', hostStart );
+                if( hostEnd < 0 )
+                {
+                    hostEnd = externalForm.length();
+                }
+                final String scheme = externalForm.substring( externalForm.lastIndexOf( ':', schemeEnd - 1 ) + 1,
+                                                              schemeEnd
+                );
+                if( "file".equals( scheme ) )
+                {
+                    return null;
+                }
+                return scheme + "://" + externalForm.substring( hostStart, hostEnd );
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * Hands out scheduled downloads to download threads, respecting the limit of downloads per host, and collects the
+     * results. On first failure no more downloads are handed out.
+     */
+    private static class Scheduler<T>
+        implements Runnable
+    {
+
+        /**
+         * Downloads.
+         */
+        private final List<? extends Callable<T>> m_downloads;
+        /**
+         * Indexes of downloads not yet started, in execution order.
+         */
+        private final List<Integer> m_pending;
+        /**
+         * Maximum number of concurrent downloads from the same host.
+         */
+        private final int m_downloadThreadsPerHost;
+        /**
+         * Number of running downloads per host.
+         */
+        private final Map<String, Integer> m_running;
+        /**
+         * Download results, by download index.
+         */
+        private final Object[] m_results;
+        /**
+         * Download failures, by download index.
+         */
+        private final Throwable[] m_failures;
+        /**
+         * Total number of running downloads.
+         */
+        private int m_runningCount;
+        /**
+         * True if a download failed.
+         */
+        private boolean m_failed;
+
+        Scheduler( final List<? extends Callable<T>> downloads,
+                   final List<Integer> scheduled,
+                   final int downloadThreadsPerHost )
+        {
+            m_downloads = downloads;
+            m_pending = new ArrayList<Integer>( scheduled );
+            m_downloadThreadsPerHost = downloadThreadsPerHost;
+            m_running = new HashMap<String, Integer>();
+            m_results = new Object[downloads.size()];
+            m_failures = new Throwable[downloads.size()];
+        }
+
+        /**
+         * Executes downloads till there are no more downloads to execute.
+         */
+        public void run()
+        {
+            Integer index;
+            while( ( index = next() ) != null )
+            {
+                final Callable<T> download = m_downloads.get( index );
+                Throwable failure = null;
+                try
+                {
+                    m_results[ index ] = download.call();
+                }
+                catch( Throwable e )
+                {
+                    failure = e;
+                }
+                done( index, failure );
+            }
+        }
+
+        /**
+         * Returns the next download to be executed, waiting if all pending downloads are from hosts that reached the
+         * maximum number of concurrent downloads.
+         *
+         * @return index of download to be executed or null if there is nothing more to execute
+         */
+        private synchronized Integer next()
+        {
+            while( !m_failed && !m_pending.isEmpty() )
+            {
+                final Iterator<Integer> pending = m_pending.iterator();
+                while( pending.hasNext() )
+                {
+                    final Integer index = pending.next();
+                    final String host = host( m_downloads.get( index ) );
+                    final Integer running = host == null ? null : m_running.get( host );
+                    if( running == null || running < m_downloadThreadsPerHost )
+                    {
+                        pending.remove();
+                        if( host != null )
+                        {
+                            m_running.put( host, running == null ? 1 : running + 1 );
+                        }
+                        m_runningCount++;
+                        return index;
+                    }
+                }
+                try
+                {
+                    wait();
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Marks a download as done.
+         *
+         * @param index   index of download
+         * @param failure download failure, null if download succeeded
+         */
+        private synchronized void done( final int index, final Throwable failure )
+        {
+            final String host = host( m_downloads.get( index ) );
+            if( host != null )
+            {
+                m_running.put( host, m_running.get( host ) - 1 );
+            }
+            m_runningCount--;
+            if( failure != null )
+            {
+                m_failures[ index ] = failure;
+                // on failure there is no reason to continue with the rest of downloads
+                m_failed = true;
+            }
+            notifyAll();
+        }
+
+        /**
+         * Waits for all downloads to be executed or, on failure, for the running downloads to finish.
+         *
+         * @throws InterruptedException if interrupted while waiting
+         */
+        synchronized void await()
+            throws InterruptedException
+        {
+            while( m_runningCount > 0 || ( !m_failed && !m_pending.isEmpty() ) )
+            {
+                wait();
+            }
+        }
+
+    }
+
+    /**
+     * Creates daemon download threads, so a pending download will not stop the runner from exiting.
+     */
+    private static class DownloadThreadFactory
+        implements ThreadFactory
+    {
+
+        /**
+         * Thread counter used for thread names.
+         */
+        private final AtomicInteger m_counter = new AtomicInteger();
+
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, "Pax Runner download #" + m_counter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.PlatformException;
+
+/**
+ * In memory index backed by a properties file, as the index between downloaded urls and file names in the working
+ * directory. The file is read once, on first access, and all changes are kept in memory until the index is flushed.
+ * On flush the file is re-read and the changes are applied on top of it (so changes done in the mean time by other
+ * runners are not lost) and then written to a temporary file that is renamed over the index file, so the index file
+ * is never left half written. While flushing the index is locked via a lock file (index file name + ".lock"), so
+ * runners sharing the same index do not overwrite each other changes.
+ * The index is safe to be used by concurrent downloads.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class DownloadIndex
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( DownloadIndex.class );
+
+    /**
+     * Index file.
+     */
+    private final File m_file;
+    /**
+     * Index entries. Lazy loaded.
+     */
+    private Properties m_entries;
+    /**
+     * Changes since last flush. A null value marks a removed entry.
+     */
+    private final Map<String, String> m_changes;
+
+    /**
+     * Creates a new index.
+     *
+     * @param file index file; mandatory
+     */
+    public DownloadIndex( final File file )
+    {
+        NullArgumentException.validateNotNull( file, "Index file" );
+        m_file = file;
+        m_changes = new HashMap<String, String>();
+    }
+
+    /**
+     * Getter.
+     *
+     * @return index file
+     */
+    public File getFile()
+    {
+        return m_file;
+    }
+
+    /**
+     * Returns the value of an entry.
+     *
+     * @param key entry key
+     *
+     * @return entry value or null if there is no such entry
+     */
+    public synchronized String get( final String key )
+    {
+        return entries().getProperty( key );
+    }
+
+    /**
+     * Sets the value of an entry. The change is persisted only on flush.
+     *
+     * @param key   entry key; mandatory
+     * @param value entry value; if null the entry is removed
+     */
+    public synchronized void put( final String key, final String value )
+    {
+        NullArgumentException.validateNotNull( key, "Key" );
+        final String current = entries().getProperty( key );
+        if( value == null ? current == null : value.equals( current ) )
+        {
+            return;
+        }
+        if( value == null )
+        {
+            entries().remove( key );
+        }
+        else
+        {
+            entries().setProperty( key, value );
+        }
+        m_changes.put( key, value );
+    }
+
+    /**
+     * Removes an entry. The change is persisted only on flush.
+     *
+     * @param key entry key
+     */
+    public void remove( final String key )
+    {
+        put( key, null );
+    }
+
+    /**
+     * Returns a snapshot of the index entries.
+     *
+     * @return snapshot of index entries
+     */
+    public synchronized Map<String, String> snapshot()
+    {
+        final Map<String, String> snapshot = new HashMap<String, String>();
+        for( String key : entries().stringPropertyNames() )
+        {
+            snapshot.put( key, entries().getProperty( key ) );
+        }
+        return snapshot;
+    }
+
+    /**
+     * Persists the changes, if any.
+     *
+     * @throws PlatformException if the index cannot be saved
+     */
+    public synchronized void flush()
+        throws PlatformException
+    {
+        if( m_changes.isEmpty() )
+        {
+            return;
+        }
+        final CacheLock lock = CacheLock.forFile( new File( m_file.getPath() + ".lock" ) );
+        try
+        {
+            lock.lock();
+        }
+        catch( IOException e )
+        {
+            throw new PlatformException( "Cannot lock " + lock, e );
+        }
+        try
+        {
+            final Properties merged = load( m_file );
+            for( Map.Entry<String, String> change : m_changes.entrySet() )
+            {
+                if( change.getValue() == null )
+                {
+                    merged.remove( change.getKey() );
+                }
+                else
+                {
+                    merged.setProperty( change.getKey(), change.getValue() );
+                }
+            }
+            store( merged, m_file );
+            m_entries = merged;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        m_changes.clear();
+        LOGGER.debug( "Saved index [" + m_file + "]" );
+    }
+
+    /**
+     * Persists the changes, if any, and re-reads the entries, so entries saved by other runners in the mean time are
+     * seen.
+     *
+     * @throws PlatformException if the index cannot be saved
+     */
+    public synchronized void refresh()
+        throws PlatformException
+    {
+        if( m_changes.isEmpty() )
+        {
+            // the index file is replaced by a rename, so it can be read without locking
+            m_entries = load( m_file );
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Lazy loads the entries.
+     *
+     * @return entries
+     */
+    private Properties entries()
+    {
+        if( m_entries == null )
+        {
+            m_entries = load( m_file );
+        }
+        return m_entries;
+    }
+
+    /**
+     * Loads a properties file. If the file does not exist or cannot be read an empty set of properties is returned.
+     *
+     * @param file properties file
+     *
+     * @return loaded properties
+     */
+    static Properties load( final File file )
+    {
+        final Properties properties = new Properties();
+        if( !file.exists() )
+        {
+            return properties;
+        }
+        FileInputStream in = null;
+        try
+        {
+            in = new FileInputStream( file );
+            properties.load( in );
+        }
+        catch( IOException e )
+        {
+            LOGGER.warn( "Cannot read " + file + " due to: " + e.getMessage() );
+        }
+        finally
+        {
+            if( in != null )
+            {
+                try
+                {
+                    in.close();
+                }
+                catch( IOException ignore )
+                {
+                    // ignore
+                }
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Stores a properties file by writing first to a temporary file that is then renamed to the target file.
+     *
+     * @param properties properties to store
+     * @param file       properties file
+     *
+     * @throws PlatformException if the file cannot be written
+     */
+    static void store( final Properties properties, final File file )
+        throws PlatformException
+    {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        final File temp = new File( file.getPath() + ".tmp" );
+        FileOutputStream os = null;
+        try
+        {
+            os = new FileOutputStream( temp );
+            properties.store( os, "" );
+            os.getFD().sync();
+        }
+        catch( IOException e )
+        {
+            throw new PlatformException( "Cannot store properties " + file, e );
+        }
+        finally
+        {
+            if( os != null )
+            {
+                try
+                {
+                    os.close();
+                }
+                catch( IOException ignore )
+                {
+                    // ignore
+                }
+            }
+        }
+        if( !temp.renameTo( file ) )
+        {
+            // on some platforms (windows) rename does not replace an existing file
+            if( !file.delete() || !temp.renameTo( file ) )
+            {
+                temp.delete();
+                throw new PlatformException( "Cannot rename " + temp + " to " + file );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how bundles and system files were provisioned to the working directory: from the working directory cache,
+ * from the bundle store, linked or used in place from local files, revalidated as not modified or downloaded. Safe to
+ * be used by concurrent downloads.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class DownloadStatistics
+{
+
+    /**
+     * Files already available in the working directory.
+     */
+    private final AtomicInteger m_cached = new AtomicInteger();
+    /**
+     * Files linked from the bundle store.
+     */
+    private final AtomicInteger m_stored = new AtomicInteger();
+    /**
+     * Local files linked to the working directory or used in place.
+     */
+    private final AtomicInteger m_local = new AtomicInteger();
+    /**
+     * Files available in the working directory, revalidated as not modified.
+     */
+    private final AtomicInteger m_notModified = new AtomicInteger();
+    /**
+     * Files downloaded.
+     */
+    private final AtomicInteger m_downloaded = new AtomicInteger();
+    /**
+     * Total number of bytes downloaded.
+     */
+    private final AtomicLong m_downloadedBytes = new AtomicLong();
+
+    /**
+     * Counts a file already available in the working directory.
+     */
+    public void cached()
+    {
+        m_cached.incrementAndGet();
+    }
+
+    /**
+     * Counts a file linked from the bundle store.
+     */
+    public void stored()
+    {
+        m_stored.incrementAndGet();
+    }
+
+    /**
+     * Counts a local file linked to the working directory or used in place.
+     */
+    public void local()
+    {
+        m_local.incrementAndGet();
+    }
+
+    /**
+     * Counts a file revalidated as not modified.
+     */
+    public void notModified()
+    {
+        m_notModified.incrementAndGet();
+    }
+
+    /**
+     * Counts a downloaded file.
+     *
+     * @param bytes size of downloaded file
+     */
+    public void downloaded( final long bytes )
+    {
+        m_downloaded.incrementAndGet();
+        m_downloadedBytes.addAndGet( bytes );
+    }
+
+    /**
+     * Returns the number of files that did not have to be downloaded.
+     *
+     * @return number of cache hits
+     */
+    public int getHits()
+    {
+        return m_cached.get() + m_stored.get() + m_local.get() + m_notModified.get();
+    }
+
+    /**
+     * Returns the number of files that had to be downloaded.
+     *
+     * @return number of cache misses
+     */
+    public int getMisses()
+    {
+        return m_downloaded.get();
+    }
+
+    /**
+     * @see Object#toString()
+     */
+    public String toString()
+    {
+        return new StringBuilder()
+            .append( getHits() ).append( " cache hits (" )
+            .append( m_cached.get() ).append( " in working directory, " )
+            .append( m_stored.get() ).append( " from bundle store, " )
+            .append( m_local.get() ).append( " local, " )
+            .append( m_notModified.get() ).append( " not modified), " )
+            .append( getMisses() ).append( " cache misses (" )
+            .append( m_downloadedBytes.get() ).append( " bytes downloaded)" )
+            .toString();
+    }
+
+}
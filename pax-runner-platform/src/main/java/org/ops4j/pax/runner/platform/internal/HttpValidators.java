@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.PlatformException;
+
+/**
+ * Keeps the ETag and Last-Modified values returned by the server for downloaded http(s) urls, so a file that has to
+ * be updated can be revalidated with a conditional request (If-None-Match / If-Modified-Since) instead of being
+ * downloaded again. Urls using other protocols are downloaded as usual.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class HttpValidators
+{
+
+    /**
+     * Suffix of the key under which the ETag of an url is indexed.
+     */
+    private static final String ETAG = ".etag";
+    /**
+     * Suffix of the key under which the Last-Modified of an url is indexed.
+     */
+    private static final String LAST_MODIFIED = ".lastModified";
+
+    /**
+     * Underlying index.
+     */
+    private final DownloadIndex m_index;
+
+    /**
+     * Creates a new validators index.
+     *
+     * @param file index file; mandatory
+     */
+    public HttpValidators( final File file )
+    {
+        m_index = new DownloadIndex( file );
+    }
+
+    /**
+     * Opens a connection to an url. If the connection is conditional and there are validators known for the url the
+     * connection will be set up as a conditional request.
+     *
+     * @param url         url to connect to; mandatory
+     * @param conditional if the request should be conditional (there is a valid cached file for the url)
+     *
+     * @return opened connection (not yet connected)
+     *
+     * @throws IOException re-thrown
+     */
+    public URLConnection openConnection( final URL url, final boolean conditional )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( url, "URL" );
+        final URLConnection connection = url.openConnection();
+        if( conditional && connection instanceof HttpURLConnection )
+        {
+            final String key = url.toExternalForm();
+            final String etag = m_index.get( key + ETAG );
+            if( etag != null )
+            {
+                connection.setRequestProperty( "If-None-Match", etag );
+            }
+            final String lastModified = m_index.get( key + LAST_MODIFIED );
+            if( lastModified != null )
+            {
+                try
+                {
+                    connection.setIfModifiedSince( Long.parseLong( lastModified ) );
+                }
+                catch( NumberFormatException ignore )
+                {
+                    // just ignore, request will not be conditional
+                }
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Returns true if the server answered that the file did not change (HTTP 304).
+     *
+     * @param connection connection opened via {@link #openConnection(URL, boolean)}; mandatory
+     *
+     * @return true if the cached file is still valid
+     *
+     * @throws IOException re-thrown
+     */
+    public boolean isNotModified( final URLConnection connection )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( connection, "Connection" );
+        if( connection instanceof HttpURLConnection
+            && ( connection.getRequestProperty( "If-None-Match" ) != null || connection.getIfModifiedSince() > 0 ) )
+        {
+            final HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            if( httpConnection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED )
+            {
+                // close the (empty) response instead of disconnecting, so the connection can be kept alive
+                httpConnection.getInputStream().close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the validators returned by the server for a downloaded url.
+     *
+     * @param url        downloaded url; mandatory
+     * @param connection connection used for download; mandatory
+     */
+    public void update( final URL url, final URLConnection connection )
+    {
+        NullArgumentException.validateNotNull( url, "URL" );
+        NullArgumentException.validateNotNull( connection, "Connection" );
+        if( connection instanceof HttpURLConnection )
+        {
+            final String key = url.toExternalForm();
+            m_index.put( key + ETAG, connection.getHeaderField( "ETag" ) );
+            final long lastModified = connection.getLastModified();
+            m_index.put( key + LAST_MODIFIED, lastModified > 0 ? String.valueOf( lastModified ) : null );
+        }
+    }
+
+    /**
+     * Saves the changes done to the index.
+     *
+     * @throws PlatformException if the index cannot be saved
+     */
+    public void flush()
+        throws PlatformException
+    {
+        m_index.flush();
+    }
+
+}
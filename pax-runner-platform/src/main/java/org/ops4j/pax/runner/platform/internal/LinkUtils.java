@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+
+/**
+ * File linking related utilities. Hard and symbolic links are only available starting with Java 7 (java.nio.file)
+ * so they are used via reflection. On older Java versions, or if links are not supported by the file system, files
+ * are copied.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class LinkUtils
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( LinkUtils.class );
+
+    /**
+     * Way a file was made available at the target location.
+     */
+    public static enum Mode
+    {
+        HARD_LINK, SYMBOLIC_LINK, COPY
+    }
+
+    /**
+     * Utility class. Ment to be used via static methods.
+     */
+    private LinkUtils()
+    {
+        // utility class
+    }
+
+    /**
+     * Makes the source file available at the target location by trying, in order, a hard link, a symbolic link and
+     * a copy. If the target exists it will be replaced.
+     *
+     * @param source file to be linked; mandatory
+     * @param target link to be created; mandatory
+     *
+     * @return the way the file was made available
+     *
+     * @throws IOException if the file could not be linked or copied
+     */
+    public static Mode link( final File source, final File target )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( source, "Source" );
+        NullArgumentException.validateNotNull( target, "Target" );
+        if( target.exists() && !target.delete() )
+        {
+            throw new IOException( "Cannot delete " + target );
+        }
+        target.getAbsoluteFile().getParentFile().mkdirs();
+        if( invokeFiles( "createLink", target, source ) )
+        {
+            return Mode.HARD_LINK;
+        }
+        if( invokeFiles( "createSymbolicLink", target, source.getAbsoluteFile() ) )
+        {
+            return Mode.SYMBOLIC_LINK;
+        }
+        copy( source, target );
+        return Mode.COPY;
+    }
+
+    /**
+     * Copies a file.
+     *
+     * @param source file to copy from; mandatory
+     * @param target file to copy to; mandatory
+     *
+     * @throws IOException re-thrown
+     */
+    public static void copy( final File source, final File target )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( source, "Source" );
+        NullArgumentException.validateNotNull( target, "Target" );
+        FileInputStream in = null;
+        FileOutputStream out = null;
+        try
+        {
+            in = new FileInputStream( source );
+            out = new FileOutputStream( target );
+            final FileChannel inChannel = in.getChannel();
+            final FileChannel outChannel = out.getChannel();
+            final long size = inChannel.size();
+            long position = 0;
+            while( position < size )
+            {
+                position += inChannel.transferTo( position, size - position, outChannel );
+            }
+        }
+        finally
+        {
+            if( in != null )
+            {
+                in.close();
+            }
+            if( out != null )
+            {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Invokes a java.nio.file.Files link creation method as createLink(link, existing) or
+     * createSymbolicLink(link, target).
+     *
+     * @param methodName name of the method to be invoked
+     * @param link       link to be created
+     * @param existing   existing file
+     *
+     * @return true if the link was created, false if not supported
+     */
+    private static boolean invokeFiles( final String methodName, final File link, final File existing )
+    {
+        try
+        {
+            final Method toPath = File.class.getMethod( "toPath" );
+            final Class<?> pathClass = Class.forName( "java.nio.file.Path" );
+            final Class<?> files = Class.forName( "java.nio.file.Files" );
+            final Class<?> attributeClass = Class.forName( "java.nio.file.attribute.FileAttribute" );
+            if( "createLink".equals( methodName ) )
+            {
+                files.getMethod( methodName, pathClass, pathClass )
+                    .invoke( null, toPath.invoke( link ), toPath.invoke( existing ) );
+            }
+            else
+            {
+                final Object noAttributes = Array.newInstance( attributeClass, 0 );
+                files.getMethod( methodName, pathClass, pathClass, noAttributes.getClass() )
+                    .invoke( null, toPath.invoke( link ), toPath.invoke( existing ), noAttributes );
+            }
+            return true;
+        }
+        catch( Exception e )
+        {
+            // not supported by java version or by the file system
+            LOGGER.trace( "Cannot " + methodName + " [" + link + "] to [" + existing + "]: " + e );
+            return false;
+        }
+    }
+
+}
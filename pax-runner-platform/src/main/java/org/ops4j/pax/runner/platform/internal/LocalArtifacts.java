@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import org.ops4j.lang.NullArgumentException;
+
+/**
+ * Resolves urls of files that are already available on the local file system: "file:" urls and "mvn:" urls of
+ * artifacts available in the local maven repository. Such files do not have to be copied to the working directory,
+ * they can be linked or used in place.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class LocalArtifacts
+{
+
+    /**
+     * Local files are copied to the working directory (as any other file).
+     */
+    public static final String COPY = "copy";
+    /**
+     * Local files are linked to the working directory, falling back to a copy if links are not supported.
+     */
+    public static final String LINK = "link";
+    /**
+     * Local files are used in place.
+     */
+    public static final String REFERENCE = "reference";
+
+    /**
+     * Maven url protocol.
+     */
+    private static final String MVN_PROTOCOL = "mvn";
+    /**
+     * Separator between repository and artifact in a maven url.
+     */
+    private static final String REPOSITORY_SEPARATOR = "!";
+
+    /**
+     * True if local files should be used in place, false if they should be linked.
+     */
+    private final boolean m_inPlace;
+    /**
+     * Local maven repository directory.
+     */
+    private final File m_localRepository;
+
+    /**
+     * Creates a new local artifacts resolver.
+     *
+     * @param mode            one of {@link #LINK} or {@link #REFERENCE}
+     * @param localRepository local maven repository directory; null if maven artifacts should not be resolved
+     */
+    public LocalArtifacts( final String mode, final File localRepository )
+    {
+        NullArgumentException.validateNotEmpty( mode, "Mode" );
+        m_inPlace = REFERENCE.equals( mode );
+        m_localRepository = localRepository;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return true if local files should be used in place, false if they should be linked to the working directory
+     */
+    public boolean isInPlace()
+    {
+        return m_inPlace;
+    }
+
+    /**
+     * Resolves the local file of an url.
+     *
+     * @param url url to resolve; mandatory
+     *
+     * @return local file or null if the url is not available as a local file
+     */
+    public File resolve( final URL url )
+    {
+        NullArgumentException.validateNotNull( url, "URL" );
+        File file = null;
+        if( "file".equals( url.getProtocol() ) )
+        {
+            try
+            {
+                file = new File( url.toURI() );
+            }
+            catch( URISyntaxException e )
+            {
+                file = new File( url.getPath() );
+            }
+            catch( IllegalArgumentException e )
+            {
+                // not an hierarchical file url, e.g. file:relative/path
+                file = new File( url.getPath() );
+            }
+        }
+        else if( MVN_PROTOCOL.equals( url.getProtocol() ) && m_localRepository != null )
+        {
+            final String path = repositoryPath( url.getPath() );
+            if( path != null )
+            {
+                file = new File( m_localRepository, path );
+            }
+        }
+        return file != null && file.isFile() ? file : null;
+    }
+
+    /**
+     * Returns the path of an artifact in a maven repository, from a maven url path in the form of
+     * groupId/artifactId/version[/type[/classifier]]. Only urls that do not specify a repository and specify an exact
+     * version (not LATEST or a range) can be resolved.
+     *
+     * @param mvnPath maven url path
+     *
+     * @return path in maven repository or null if the url cannot be resolved locally
+     */
+    public static String repositoryPath( final String mvnPath )
+    {
+        if( mvnPath == null || mvnPath.contains( REPOSITORY_SEPARATOR ) )
+        {
+            return null;
+        }
+        final String[] segments = mvnPath.split( "/" );
+        if( segments.length < 3 || segments.length > 5 )
+        {
+            return null;
+        }
+        final String groupId = segments[ 0 ].trim();
+        final String artifactId = segments[ 1 ].trim();
+        final String version = segments[ 2 ].trim();
+        if( groupId.length() == 0 || artifactId.length() == 0 || version.length() == 0
+            || "LATEST".equals( version ) || version.startsWith( "[" ) || version.startsWith( "(" ) )
+        {
+            return null;
+        }
+        String type = "jar";
+        if( segments.length > 3 && segments[ 3 ].trim().length() > 0 )
+        {
+            type = segments[ 3 ].trim();
+        }
+        final StringBuilder path = new StringBuilder()
+            .append( groupId.replace( '.', '/' ) ).append( '/' )
+            .append( artifactId ).append( '/' )
+            .append( version ).append( '/' )
+            .append( artifactId ).append( '-' ).append( version );
+        if( segments.length > 4 && segments[ 4 ].trim().length() > 0 )
+        {
+            path.append( '-' ).append( segments[ 4 ].trim() );
+        }
+        return path.append( '.' ).append( type ).toString();
+    }
+
+    /**
+     * Returns the local maven repository directory from a configured location (a path or a file url), defaulting to
+     * the repository in the user home.
+     *
+     * @param location configured location; can be null
+     *
+     * @return local maven repository directory
+     */
+    public static File localRepository( final String location )
+    {
+        if( location != null && location.trim().length() > 0 )
+        {
+            final String trimmed = location.trim();
+            if( trimmed.startsWith( "file:" ) )
+            {
+                try
+                {
+                    return new File( new URL( trimmed ).toURI() );
+                }
+                catch( Exception e )
+                {
+                    return new File( trimmed.substring( "file:".length() ) );
+                }
+            }
+            return new File( trimmed );
+        }
+        return new File( System.getProperty( "user.home" ), ".m2/repository" );
+    }
+
+}
@@ -91,6 +91,16 @@ public class LocalBundleReference
         }
     }
 
+    /**
+     * Getter.
+     *
+     * @return local file
+     */
+    public File getFile()
+    {
+        return m_file;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -104,7 +114,12 @@ public class LocalBundleReference
      */
     public Boolean shouldStart()
     {
-        return m_bundleReference.shouldStart() && !this.isFragment();
+        final Boolean shouldStart = m_bundleReference.shouldStart();
+        if( shouldStart == null )
+        {
+            return null;
+        }
+        return shouldStart && !this.isFragment();
     }
 
     private boolean isFragment() {
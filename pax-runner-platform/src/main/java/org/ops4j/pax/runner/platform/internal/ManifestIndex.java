@@ -0,0 +1,275 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.PlatformException;
+import org.osgi.framework.Constants;
+
+/**
+ * Persistent index of the manifest headers of the files in a directory, so the jars do not have to be opened on
+ * every start. Entries are keyed by file name and are used only as long as the file size and last modification time
+ * did not change, otherwise the jar is read again.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class ManifestIndex
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( ManifestIndex.class );
+
+    /**
+     * Suffixes of the keys under which the attributes of a file are indexed.
+     */
+    private static final String SIZE = ".size";
+    private static final String LAST_MODIFIED = ".lastModified";
+    private static final String MANIFEST = ".manifest";
+    private static final String SYMBOLIC_NAME = ".symbolicName";
+    private static final String VERSION = ".version";
+    private static final String NAME = ".name";
+
+    /**
+     * Underlying index.
+     */
+    private final DownloadIndex m_index;
+
+    /**
+     * Creates a new manifest index.
+     *
+     * @param file index file; mandatory
+     */
+    public ManifestIndex( final File file )
+    {
+        m_index = new DownloadIndex( file );
+    }
+
+    /**
+     * Returns the manifest headers of a file, from the index if the file did not change since indexed or by reading
+     * the file otherwise.
+     *
+     * @param file file to get the manifest headers for; mandatory
+     *
+     * @return manifest headers
+     */
+    public Entry get( final File file )
+    {
+        NullArgumentException.validateNotNull( file, "File" );
+        final String key = file.getName();
+        final String size = String.valueOf( file.length() );
+        final String lastModified = String.valueOf( file.lastModified() );
+        synchronized( this )
+        {
+            if( size.equals( m_index.get( key + SIZE ) ) && lastModified.equals( m_index.get( key + LAST_MODIFIED ) ) )
+            {
+                return new Entry(
+                    Boolean.valueOf( m_index.get( key + MANIFEST ) ),
+                    m_index.get( key + SYMBOLIC_NAME ),
+                    m_index.get( key + VERSION ),
+                    m_index.get( key + NAME )
+                );
+            }
+        }
+        final Entry entry = read( file );
+        synchronized( this )
+        {
+            m_index.put( key + SIZE, size );
+            m_index.put( key + LAST_MODIFIED, lastModified );
+            m_index.put( key + MANIFEST, String.valueOf( entry.hasManifest() ) );
+            m_index.put( key + SYMBOLIC_NAME, entry.getSymbolicName() );
+            m_index.put( key + VERSION, entry.getVersion() );
+            m_index.put( key + NAME, entry.getName() );
+        }
+        return entry;
+    }
+
+    /**
+     * Moves the index entry of a renamed file.
+     *
+     * @param from file before renaming; mandatory
+     * @param to   file after renaming; mandatory
+     */
+    public synchronized void rename( final File from, final File to )
+    {
+        NullArgumentException.validateNotNull( from, "From" );
+        NullArgumentException.validateNotNull( to, "To" );
+        final String fromKey = from.getName();
+        final String toKey = to.getName();
+        for( String attribute : new String[]{ SIZE, LAST_MODIFIED, MANIFEST, SYMBOLIC_NAME, VERSION, NAME } )
+        {
+            m_index.put( toKey + attribute, m_index.get( fromKey + attribute ) );
+            m_index.remove( fromKey + attribute );
+        }
+    }
+
+    /**
+     * Removes the index entry of a deleted file.
+     *
+     * @param file deleted file; mandatory
+     */
+    public synchronized void remove( final File file )
+    {
+        NullArgumentException.validateNotNull( file, "File" );
+        final String key = file.getName();
+        for( String attribute : new String[]{ SIZE, LAST_MODIFIED, MANIFEST, SYMBOLIC_NAME, VERSION, NAME } )
+        {
+            m_index.remove( key + attribute );
+        }
+    }
+
+    /**
+     * Saves the changes done to the index.
+     *
+     * @throws PlatformException if the index cannot be saved
+     */
+    public void flush()
+        throws PlatformException
+    {
+        m_index.flush();
+    }
+
+    /**
+     * Reads the manifest headers of a file by opening it as a jar.
+     *
+     * @param file file to read; mandatory
+     *
+     * @return manifest headers
+     */
+    public static Entry read( final File file )
+    {
+        NullArgumentException.validateNotNull( file, "File" );
+        JarFile jar = null;
+        try
+        {
+            // verify that is a valid jar. Do not verify that is signed (the false param).
+            jar = new JarFile( file, false );
+            final Manifest manifest = jar.getManifest();
+            if( manifest == null )
+            {
+                return new Entry( false, null, null, null );
+            }
+            return new Entry(
+                true,
+                manifest.getMainAttributes().getValue( Constants.BUNDLE_SYMBOLICNAME ),
+                manifest.getMainAttributes().getValue( Constants.BUNDLE_VERSION ),
+                manifest.getMainAttributes().getValue( Constants.BUNDLE_NAME )
+            );
+        }
+        catch( IOException e )
+        {
+            LOGGER.trace( "Cannot read manifest of [" + file + "]: " + e.getMessage() );
+            return new Entry( false, null, null, null );
+        }
+        finally
+        {
+            if( jar != null )
+            {
+                try
+                {
+                    jar.close();
+                }
+                catch( IOException ignore )
+                {
+                    // just ignore as this is less probably to happen.
+                }
+            }
+        }
+    }
+
+    /**
+     * Manifest headers of an indexed file.
+     */
+    public static class Entry
+    {
+
+        /**
+         * True if the file is a readable jar that has a manifest.
+         */
+        private final boolean m_manifest;
+        /**
+         * Bundle-SymbolicName header. Can be null.
+         */
+        private final String m_symbolicName;
+        /**
+         * Bundle-Version header. Can be null.
+         */
+        private final String m_version;
+        /**
+         * Bundle-Name header. Can be null.
+         */
+        private final String m_name;
+
+        Entry( final boolean manifest, final String symbolicName, final String version, final String name )
+        {
+            m_manifest = manifest;
+            m_symbolicName = symbolicName;
+            m_version = version;
+            m_name = name;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return true if the file is a readable jar that has a manifest
+         */
+        public boolean hasManifest()
+        {
+            return m_manifest;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return Bundle-SymbolicName header or null if not set
+         */
+        public String getSymbolicName()
+        {
+            return m_symbolicName;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return Bundle-Version header or null if not set
+         */
+        public String getVersion()
+        {
+            return m_version;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return Bundle-Name header or null if not set
+         */
+        public String getName()
+        {
+            return m_name;
+        }
+
+    }
+
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.PlatformException;
+
+/**
+ * Connects to the fastest responding mirror of an url. Mirrors are configured per url prefix (a repository or a
+ * single artifact) as a comma separated list of entries in the form "prefix=mirror1|mirror2", where the prefix of an
+ * url is replaced by each of the mirrors. The original url is always a candidate.
+ * Candidates are connected one after another, starting with the one that was the fastest on a previous run; if a
+ * candidate does not respond (with the first bytes of the content) in the configured delay or fails, the next one is
+ * connected as well, and the first one to respond is used. A delay of 0 races all candidates at once.
+ * The fastest mirror per prefix is recorded in an index, so next run starts with it.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class MirrorSelector
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( MirrorSelector.class );
+    /**
+     * Separator of mirror entries.
+     */
+    private static final String ENTRY_SEPARATOR = ",";
+    /**
+     * Separator of mirrors of the same prefix.
+     */
+    private static final String MIRROR_SEPARATOR = "|";
+
+    /**
+     * Mirrors by url prefix, in configured order.
+     */
+    private final Map<String, List<String>> m_mirrors;
+    /**
+     * Delay in milliseconds after which the next candidate is connected.
+     */
+    private final long m_delay;
+    /**
+     * Index of fastest mirror per prefix.
+     */
+    private final DownloadIndex m_fastest;
+    /**
+     * Executor of connection attempts.
+     */
+    private final ExecutorService m_executor;
+
+    /**
+     * Creates a new mirror selector.
+     *
+     * @param mirrors mirrors specification; mandatory
+     * @param delay   delay in milliseconds after which the next candidate is connected
+     * @param file    index file of fastest mirrors; mandatory
+     */
+    public MirrorSelector( final String mirrors, final long delay, final File file )
+    {
+        NullArgumentException.validateNotNull( mirrors, "Mirrors" );
+        m_mirrors = parse( mirrors );
+        m_delay = Math.max( delay, 0 );
+        m_fastest = new DownloadIndex( file );
+        m_executor = Executors.newCachedThreadPool( new ThreadFactory()
+        {
+            public Thread newThread( final Runnable runnable )
+            {
+                final Thread thread = new Thread( runnable, "Pax Runner mirror connection" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        }
+        );
+    }
+
+    /**
+     * Returns the candidate urls an url can be downloaded from: the original url and its mirrors, starting with the
+     * one recorded as fastest.
+     *
+     * @param url url; mandatory
+     *
+     * @return list of candidate urls, containing at least the original url
+     */
+    public List<URL> candidates( final URL url )
+    {
+        NullArgumentException.validateNotNull( url, "URL" );
+        final List<URL> candidates = new ArrayList<URL>();
+        candidates.add( url );
+        final String externalForm = url.toExternalForm();
+        final String prefix = prefixOf( externalForm );
+        if( prefix == null )
+        {
+            return candidates;
+        }
+        final String suffix = externalForm.substring( prefix.length() );
+        for( String mirror : m_mirrors.get( prefix ) )
+        {
+            try
+            {
+                candidates.add( new URL( mirror + suffix ) );
+            }
+            catch( MalformedURLException e )
+            {
+                LOGGER.warn( "Invalid mirror [" + mirror + "] of [" + prefix + "] due to: " + e.getMessage() );
+            }
+        }
+        final String fastest = m_fastest.get( prefix );
+        if( fastest != null )
+        {
+            for( int i = 1; i < candidates.size(); i++ )
+            {
+                if( candidates.get( i ).toExternalForm().equals( fastest + suffix ) )
+                {
+                    candidates.add( 0, candidates.remove( i ) );
+                    break;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Connects to the fastest responding candidate of an url.
+     *
+     * @param url url to connect to; mandatory
+     *
+     * @return connection; if there are mirrors for the url, the connection is already connected (input stream was
+     *         requested)
+     *
+     * @throws IOException if none of the candidates can be connected
+     */
+    public Connection connect( final URL url )
+        throws IOException
+    {
+        final List<URL> candidates = candidates( url );
+        if( candidates.size() == 1 )
+        {
+            return new Connection( url, url.openConnection() );
+        }
+        final Attempts attempts = new Attempts();
+        final CompletionService<Connection> completion = new ExecutorCompletionService<Connection>( m_executor );
+        int started = 0;
+        int failed = 0;
+        IOException lastFailure = null;
+        try
+        {
+            completion.submit( attempts.attempt( candidates.get( started++ ) ) );
+            while( true )
+            {
+                final Future<Connection> future = started < candidates.size()
+                                                  ? completion.poll( m_delay, TimeUnit.MILLISECONDS )
+                                                  : completion.take();
+                if( future == null )
+                {
+                    LOGGER.debug( "No response in " + m_delay + "ms, trying [" + candidates.get( started ) + "]" );
+                    completion.submit( attempts.attempt( candidates.get( started++ ) ) );
+                    continue;
+                }
+                try
+                {
+                    final Connection connection = future.get();
+                    attempts.done( connection );
+                    recordFastest( url, connection.getSource() );
+                    return connection;
+                }
+                catch( ExecutionException e )
+                {
+                    failed++;
+                    lastFailure = e.getCause() instanceof IOException
+                                  ? (IOException) e.getCause()
+                                  : new IOException( String.valueOf( e.getCause() ) );
+                    LOGGER.debug( "Mirror connection failed due to: " + e.getCause() );
+                    if( failed == candidates.size() )
+                    {
+                        throw lastFailure;
+                    }
+                    if( started < candidates.size() )
+                    {
+                        completion.submit( attempts.attempt( candidates.get( started++ ) ) );
+                    }
+                }
+            }
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            attempts.done( null );
+            throw new IOException( "Interrupted while connecting to [" + url + "]" );
+        }
+    }
+
+    /**
+     * Saves the fastest mirrors.
+     *
+     * @throws PlatformException if the index cannot be saved
+     */
+    public void flush()
+        throws PlatformException
+    {
+        m_fastest.flush();
+    }
+
+    /**
+     * Stops the threads of connection attempts. Attempts still running are finished, but urls that have mirrors can
+     * no longer be connected (connecting is rejected).
+     */
+    public void shutdown()
+    {
+        m_executor.shutdown();
+    }
+
+    /**
+     * Records the mirror the url was downloaded from as the fastest one for its prefix.
+     *
+     * @param url    original url
+     * @param source url downloaded from
+     */
+    private void recordFastest( final URL url, final URL source )
+    {
+        final String externalForm = url.toExternalForm();
+        final String prefix = prefixOf( externalForm );
+        if( prefix == null )
+        {
+            return;
+        }
+        final String suffix = externalForm.substring( prefix.length() );
+        final String sourceForm = source.toExternalForm();
+        if( sourceForm.endsWith( suffix ) )
+        {
+            m_fastest.put( prefix, sourceForm.substring( 0, sourceForm.length() - suffix.length() ) );
+        }
+    }
+
+    /**
+     * Returns the longest configured prefix of an url.
+     *
+     * @param externalForm url external form
+     *
+     * @return longest prefix or null if there are no mirrors for the url
+     */
+    private String prefixOf( final String externalForm )
+    {
+        String prefix = null;
+        for( String candidate : m_mirrors.keySet() )
+        {
+            if( externalForm.startsWith( candidate ) && ( prefix == null || candidate.length() > prefix.length() ) )
+            {
+                prefix = candidate;
+            }
+        }
+        return prefix;
+    }
+
+    /**
+     * Parses the mirrors specification.
+     *
+     * @param mirrors mirrors specification
+     *
+     * @return mirrors by prefix
+     */
+    static Map<String, List<String>> parse( final String mirrors )
+    {
+        final Map<String, List<String>> parsed = new LinkedHashMap<String, List<String>>();
+        for( String entry : mirrors.split( ENTRY_SEPARATOR ) )
+        {
+            final int separator = entry.indexOf( '=' );
+            if( separator <= 0 )
+            {
+                if( entry.trim().length() > 0 )
+                {
+                    LOGGER.warn( "Invalid mirror entry [" + entry + "], expected prefix=mirror1|mirror2" );
+                }
+                continue;
+            }
+            final String prefix = entry.substring( 0, separator ).trim();
+            List<String> prefixMirrors = parsed.get( prefix );
+            if( prefixMirrors == null )
+            {
+                prefixMirrors = new ArrayList<String>();
+                parsed.put( prefix, prefixMirrors );
+            }
+            for( String mirror : entry.substring( separator + 1 ).split( "\\" + MIRROR_SEPARATOR ) )
+            {
+                if( mirror.trim().length() > 0 )
+                {
+                    prefixMirrors.add( mirror.trim() );
+                }
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Closes the input stream of a connection not used.
+     *
+     * @param connection connection to close
+     */
+    private static void close( final Connection connection )
+    {
+        try
+        {
+            connection.getConnection().getInputStream().close();
+        }
+        catch( IOException ignore )
+        {
+            // ignore
+        }
+    }
+
+    /**
+     * A connection and the url it was opened from.
+     */
+    public static class Connection
+    {
+
+        /**
+         * Url connected to.
+         */
+        private final URL m_source;
+        /**
+         * Connection.
+         */
+        private final URLConnection m_connection;
+
+        Connection( final URL source, final URLConnection connection )
+        {
+            m_source = source;
+            m_connection = connection;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return url connected to (original url or a mirror)
+         */
+        public URL getSource()
+        {
+            return m_source;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return connection
+         */
+        public URLConnection getConnection()
+        {
+            return m_connection;
+        }
+
+    }
+
+    /**
+     * Connection attempts to the candidates of one url. Connections that respond after a connection was chosen are
+     * closed.
+     */
+    private static class Attempts
+    {
+
+        /**
+         * Connections that responded.
+         */
+        private final List<Connection> m_connected = new ArrayList<Connection>();
+        /**
+         * True when a connection was chosen (or connecting was abandoned).
+         */
+        private boolean m_done;
+
+        /**
+         * Creates an attempt to connect to a candidate.
+         *
+         * @param candidate candidate url
+         *
+         * @return connection attempt
+         */
+        Callable<Connection> attempt( final URL candidate )
+        {
+            return new Callable<Connection>()
+            {
+                public Connection call()
+                    throws IOException
+                {
+                    final URLConnection urlConnection = candidate.openConnection();
+                    // wait for the first bytes of the content
+                    urlConnection.getInputStream();
+                    final Connection connection = new Connection( candidate, urlConnection );
+                    synchronized( Attempts.this )
+                    {
+                        if( m_done )
+                        {
+                            close( connection );
+                        }
+                        else
+                        {
+                            m_connected.add( connection );
+                        }
+                    }
+                    return connection;
+                }
+            };
+        }
+
+        /**
+         * Marks the connection to be used and closes all others that responded.
+         *
+         * @param chosen chosen connection, null if none
+         */
+        synchronized void done( final Connection chosen )
+        {
+            m_done = true;
+            for( Connection connection : m_connected )
+            {
+                if( connection != chosen )
+                {
+                    close( connection );
+                }
+            }
+            m_connected.clear();
+        }
+
+    }
+
+}
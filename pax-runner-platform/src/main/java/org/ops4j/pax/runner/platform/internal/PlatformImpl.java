@@ -23,17 +23,19 @@ import org.ops4j.lang.NullArgumentException;
 import org.ops4j.pax.runner.platform.*;
 import org.ops4j.util.property.DictionaryPropertyResolver;
 import org.ops4j.util.property.PropertyResolver;
-import org.osgi.framework.Constants;
+import org.osgi.framework.Version;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.channels.FileChannel;
+import java.net.URLConnection;
+import java.security.MessageDigest;
 import java.util.*;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 /**
  * Handles the workflow of creating the platform. Concrete platforms should implement only the PlatformBuilder
@@ -51,6 +53,30 @@ public class PlatformImpl
      * Logger.
      */
     private static final Log LOGGER = LogFactory.getLog( PlatformImpl.class );
+    /**
+     * Maximum number of times an interrupted http download is resumed.
+     */
+    private static final int RESUME_ATTEMPTS = 3;
+    /**
+     * Suffix of the download index key under which the SHA-1 digest of a downloaded url is recorded.
+     */
+    static final String SHA1_SUFFIX = "#sha1";
+    /**
+     * Name of the lock file guarding changes to the downloaded files.
+     */
+    static final String LOCK_FILE_NAME = ".lock";
+    /**
+     * Suffix of temporary files used while downloading.
+     */
+    static final String PART_FILE_SUFFIX = ".part";
+    /**
+     * Minimum number of concurrent downloads while prefetching.
+     */
+    private static final int PREFETCH_DOWNLOAD_THREADS = 4;
+    /**
+     * Local maven repository property name (of Pax URL mvn handler).
+     */
+    private static final String MVN_LOCAL_REPOSITORY = "org.ops4j.pax.url.mvn.localRepository";
     /**
      * Concrete platform builder as equinox, felix, kf.
      */
@@ -131,48 +157,151 @@ public class PlatformImpl
         final Boolean overwriteUserBundles = configuration.isOverwriteUserBundles();
         final Boolean overwriteSystemBundles = configuration.isOverwriteSystemBundles();
         final Boolean downloadFeeback = configuration.isDownloadFeedback();
+        final boolean prefetch = configuration.isPrefetch();
+        // prefetching has nothing else to do so it downloads concurrently even if not configured to
+        final DownloadExecutor downloadExecutor = new DownloadExecutor(
+            prefetch
+            ? Math.max( configuration.getDownloadThreads(), PREFETCH_DOWNLOAD_THREADS )
+            : configuration.getDownloadThreads(),
+            configuration.getDownloadThreadsPerHost()
+        );
+        final DownloadContext downloadContext = new DownloadContext(
+            workDir,
+            downloadExecutor,
+            // index of downloaded files is loaded once and saved once, at the end of downloading
+            new DownloadIndex( new File( workDir, "bundles/downloaded_bundles.properties" ) ),
+            // manifest headers of downloaded files, so already downloaded jars do not have to be opened again
+            new ManifestIndex( new File( workDir, "bundles/manifests.properties" ) ),
+            new DownloadStatistics()
+        );
+        downloadContext.setDownloadFeedback( downloadFeeback );
+        downloadContext.setBundleStore( createBundleStore( configuration.getBundleStore() ) );
+        // validators (etag, last modified) of downloaded files, used to revalidate files that have to be updated
+        final boolean offline = configuration.isOffline();
+        if ( configuration.isRevalidate() && !offline )
+        {
+            downloadContext.setHttpValidators(
+                new HttpValidators( new File( workDir, "bundles/http_validators.properties" ) )
+            );
+        }
+        // mirrors of the repositories bundles are downloaded from
+        if ( configuration.getMirrors() != null && !offline )
+        {
+            downloadContext.setMirrorSelector(
+                new MirrorSelector(
+                    configuration.getMirrors(),
+                    configuration.getMirrorDelay(),
+                    new File( workDir, "bundles/mirrors.properties" )
+                )
+            );
+        }
+        // local files are linked to the working directory or used in place instead of being copied
+        if ( !LocalArtifacts.COPY.equals( configuration.getLocalBundles() ) )
+        {
+            downloadContext.setLocalArtifacts(
+                new LocalArtifacts(
+                    configuration.getLocalBundles(),
+                    LocalArtifacts.localRepository( configuration.getProperty( MVN_LOCAL_REPOSITORY ) )
+                )
+            );
+        }
+        // in offline mode the files that are not cached are collected, so all of them can be reported at once
+        if ( offline )
+        {
+            LOGGER.info( "Running offline, only cached bundles will be used" );
+            downloadContext.setOffline();
+        }
 
-        LOGGER.info( "Downloading bundles..." );
+        final Long cacheSize = configuration.getCacheSize();
+        final long startTime = System.currentTimeMillis();
 
-        // download system package
-        LOGGER.debug( "Download system package" );
-        final File systemFile = downloadSystemFile(
-            workDir, definition, overwriteBundles || overwriteSystemBundles, downloadFeeback
-        );
+        // the execution environment does not depend on downloaded files, so its profiles are read while downloading
+        FutureTask<ExecutionEnvironment> executionEnvironment = null;
+        if ( !prefetch )
+        {
+            executionEnvironment = resolveExecutionEnvironment( configuration.getExecutionEnvironment() );
+        }
 
-        LOGGER.debug( "Download additional system libraries" );
-        final List<LocalSystemFile> localSystemFiles = downloadSystemFiles(
-            workDir, systemFiles, overwriteBundles || overwriteSystemBundles, downloadFeeback
-        );
-        // download the rest of the bundles
+        LOGGER.info( "Downloading bundles..." );
+
+        final File systemFile;
+        final List<LocalSystemFile> localSystemFiles;
         final List<BundleReference> bundlesToInstall = new ArrayList<BundleReference>();
-        LOGGER.debug( "Download platform bundles" );
-        bundlesToInstall.addAll(
-            downloadPlatformBundles(
-                workDir,
-                definition,
-                context,
-                overwriteBundles || overwriteSystemBundles,
-                downloadFeeback,
-                configuration.validateBundles(),
-                configuration.skipInvalidBundles()
-            )
-        );
-        LOGGER.debug( "Download bundles" );
-        bundlesToInstall.addAll(
-            downloadBundles(
-                workDir,
+        try
+        {
+            // download system package
+            LOGGER.debug( "Download system package" );
+            systemFile = downloadSystemFile(
+                definition, overwriteBundles || overwriteSystemBundles, downloadContext
+            );
+
+            LOGGER.debug( "Download additional system libraries" );
+            localSystemFiles = downloadSystemFiles(
+                systemFiles, overwriteBundles || overwriteSystemBundles, downloadContext
+            );
+            // download the rest of the bundles
+            LOGGER.debug( "Download platform bundles" );
+            bundlesToInstall.addAll(
+                downloadPlatformBundles(
+                    definition,
+                    context,
+                    overwriteBundles || overwriteSystemBundles,
+                    configuration.validateBundles(),
+                    configuration.skipInvalidBundles(),
+                    downloadContext
+                )
+            );
+            LOGGER.debug( "Download bundles" );
+            final List<BundleReference> userBundles = downloadBundles(
                 bundles,
                 overwriteBundles || overwriteUserBundles,
-                downloadFeeback,
                 configuration.isAutoWrap(),
                 configuration.keepOriginalUrls(),
                 configuration.validateBundles(),
-                configuration.skipInvalidBundles()
-            )
-        );
+                configuration.skipInvalidBundles(),
+                downloadContext
+            );
+            // platform bundles are not compared, so user bundles are never dropped in favour of a platform bundle
+            removeDuplicateBundles( userBundles, downloadContext.getManifestIndex() );
+            bundlesToInstall.addAll( userBundles );
+            // keep downloaded bundles under the cache size, without deleting the ones used by this run
+            if ( cacheSize != null )
+            {
+                new CacheEvictor( new File( workDir, "bundles" ), cacheSize ).evict(
+                    downloadContext.getDownloadIndex(), downloadContext.getManifestIndex(), startTime
+                );
+            }
+        }
+        finally
+        {
+            try
+            {
+                // save the indexes even if downloading failed, so files already downloaded will not be downloaded again
+                downloadContext.flush();
+            }
+            finally
+            {
+                downloadContext.shutdown();
+            }
+        }
+        final List<URL> missingFiles = downloadContext.getMissingFiles();
+        if ( !missingFiles.isEmpty() )
+        {
+            final StringBuilder message = new StringBuilder( "Cannot start offline, files not available in cache:" );
+            for ( URL missingFile : missingFiles )
+            {
+                message.append( "\n    " ).append( missingFile );
+            }
+            throw new PlatformException( message.toString() );
+        }
+        if ( prefetch )
+        {
+            LOGGER.info( "Prefetched bundles: " + downloadContext.getDownloadStatistics() );
+            return;
+        }
+        LOGGER.debug( "Downloaded bundles: " + downloadContext.getDownloadStatistics() );
         context.setBundles( bundlesToInstall );
-        final ExecutionEnvironment ee = new ExecutionEnvironment( configuration.getExecutionEnvironment() );
+        final ExecutionEnvironment ee = getExecutionEnvironment( executionEnvironment );
         context.setSystemPackages(
             createPackageList( ee.getSystemPackages(), configuration.getSystemPackages(), definition.getPackages() )
         );
@@ -298,34 +427,35 @@ public class PlatformImpl
      * Downloads the bundles that will be installed to the working directory.
      *
      * @param bundles            url of bundles to be installed
-     * @param workDir            the directory where to download bundles
      * @param overwrite          if the bundles should be overwritten
-     * @param downloadFeeback    whether or not downloading process should display fne grained progres info
      * @param autoWrap           wheather or not auto wrapping should take place
      * @param keepOriginalUrls   if the provisioned bundles should be cached or not
      * @param validateBundles    if downloaded bundles osgi headers should be checked
      * @param skipInvalidBundles if invalid bundles (failing validation) should be skipped
+     * @param downloadContext    executor, caches and indexes of downloads
      *
      * @return a list of downloaded files
      *
      * @throws PlatformException re-thrown
      */
-    private List<BundleReference> downloadBundles( final File workDir,
-                                                   final List<BundleReference> bundles,
+    private List<BundleReference> downloadBundles( final List<BundleReference> bundles,
                                                    final Boolean overwrite,
-                                                   final boolean downloadFeeback,
                                                    final boolean autoWrap,
                                                    final boolean keepOriginalUrls,
                                                    final boolean validateBundles,
-                                                   final boolean skipInvalidBundles )
+                                                   final boolean skipInvalidBundles,
+                                                   final DownloadContext downloadContext )
         throws PlatformException
     {
         // TODO Is there an intelligent but easy way to avoid hardcoding "wrap:"
         // and "reference:" for special case handling?
-        final List<BundleReference> localBundles = new ArrayList<BundleReference>();
+        final List<Callable<BundleReference>> downloads = new ArrayList<Callable<BundleReference>>();
         if ( bundles != null )
         {
-            for ( BundleReference reference : bundles )
+            // fine grained feedback rewrites the current console line so it cannot be used by concurrent downloads
+            final boolean fineGrainedFeedback = downloadContext.isDownloadFeedback()
+                                                && !downloadContext.getDownloadExecutor().isConcurrent();
+            for ( final BundleReference reference : bundles )
             {
                 URL url = reference.getURL();
                 if ( url == null )
@@ -350,55 +480,85 @@ public class PlatformImpl
                 // "reference:" bundles shall not be downloaded, they are provisioned in place.
                 if ( keepOriginalUrls || url.getProtocol().equals( "reference" ) )
                 {
-                    localBundles.add( reference );
+                    downloads.add( new Callable<BundleReference>()
+                    {
+                        public BundleReference call()
+                        {
+                            return reference;
+                        }
+                    }
+                    );
                 }
                 else
                 {
-                    final File bundleFile = download(
-                        workDir,
-                        url,
-                        reference.getName(),
-                        overwrite || reference.shouldUpdate(),
-                        validateBundles,
-                        !skipInvalidBundles,
-                        downloadFeeback
-                    );
-                    if ( bundleFile != null )
-                    {
-                        localBundles.add( new LocalBundleReference( reference, bundleFile ) );
-                    }
-                    else
+                    final URL downloadURL = url;
+                    final Callable<BundleReference> download = new Callable<BundleReference>()
                     {
-                        LOGGER.info( "Bundle [" + url + "] skipped from provisioning as it is invalid" );
-                    }
+                        public BundleReference call()
+                            throws PlatformException
+                        {
+                            final File bundleFile = download(
+                                downloadURL,
+                                reference.getName(),
+                                overwrite || reference.shouldUpdate(),
+                                validateBundles,
+                                !skipInvalidBundles,
+                                fineGrainedFeedback,
+                                downloadContext
+                            );
+                            if ( bundleFile == null )
+                            {
+                                if ( !downloadContext.isMissing( downloadURL ) )
+                                {
+                                    LOGGER.info(
+                                        "Bundle [" + downloadURL + "] skipped from provisioning as it is invalid"
+                                    );
+                                }
+                                return null;
+                            }
+                            return new LocalBundleReference( reference, bundleFile );
+                        }
+                    };
+                    // bundles with lower start levels are the first ones needed by the framework
+                    downloads.add(
+                        new DownloadExecutor.Download<BundleReference>(
+                            download, downloadURL, reference.getStartLevel()
+                        )
+                    );
                 }
             }
         }
+        final List<BundleReference> localBundles = new ArrayList<BundleReference>();
+        for ( BundleReference localBundle : downloadContext.getDownloadExecutor().execute( downloads ) )
+        {
+            if ( localBundle != null )
+            {
+                localBundles.add( localBundle );
+            }
+        }
         return localBundles;
     }
 
     /**
      * Downsloads platform bundles to working dir.
      *
-     * @param workDir            the directory where to download bundles
      * @param definition         to take the system package
      * @param platformContext    current platform context
      * @param overwrite          if the bundles should be overwritten
-     * @param downloadFeeback    whether or not downloading process should display fine grained progres info
      * @param validateBundles    if downloaded bundles osgi headers should be checked
      * @param skipInvalidBundles if invalid bundles (failing validation) should be skipped
+     * @param downloadContext    executor, caches and indexes of downloads
      *
      * @return a list of downloaded files
      *
      * @throws PlatformException re-thrown
      */
-    private List<BundleReference> downloadPlatformBundles( final File workDir,
-                                                           final PlatformDefinition definition,
+    private List<BundleReference> downloadPlatformBundles( final PlatformDefinition definition,
                                                            final PlatformContext platformContext,
                                                            final Boolean overwrite,
-                                                           final boolean downloadFeeback,
                                                            final boolean validateBundles,
-                                                           final boolean skipInvalidBundles )
+                                                           final boolean skipInvalidBundles,
+                                                           final DownloadContext downloadContext )
         throws PlatformException
     {
         final StringBuilder profiles = new StringBuilder();
@@ -417,62 +577,57 @@ public class PlatformImpl
             profiles.append( builderProfile );
         }
         return downloadBundles(
-            workDir,
             definition.getPlatformBundles( profiles.toString() ),
             overwrite,
-            downloadFeeback,
             false, // do not autowrap, as framework related bundles are mostly alreay bundles,
             false, // framework bundles are always downloaded
             validateBundles,
-            skipInvalidBundles
+            skipInvalidBundles,
+            downloadContext
         );
     }
 
     /**
      * Downloads the system file.
      *
-     * @param workDir         the directory where to download bundles
-     * @param definition      to take the system package
-     * @param overwrite       if the bundles should be overwritten
-     * @param downloadFeeback whether or not downloading process should display fne grained progres info
+     * @param definition         to take the system package
+     * @param overwrite          if the bundles should be overwritten
+     * @param downloadContext    executor, caches and indexes of downloads
      *
      * @return the system file
      *
      * @throws PlatformException re-thrown
      */
-    private File downloadSystemFile( final File workDir,
-                                     final PlatformDefinition definition,
+    private File downloadSystemFile( final PlatformDefinition definition,
                                      final Boolean overwrite,
-                                     final boolean downloadFeeback )
+                                     final DownloadContext downloadContext )
         throws PlatformException
     {
         return download(
-            workDir,
             definition.getSystemPackage(),
             definition.getSystemPackageName(),
             overwrite,
             false, // do not validate as osgi bundle
             true,  // fail on validation
-            downloadFeeback
+            downloadContext.isDownloadFeedback(),
+            downloadContext
         );
     }
 
     /**
      * Downloads additional system files that will be added to the classpath.
      *
-     * @param workDir         the directory where to download bundles
-     * @param systemFiles     list of system files references
-     * @param overwrite       if the systemFiles should be overwritten
-     * @param downloadFeeback whether or not downloading process should display fne grained progres info
+     * @param systemFiles        list of system files references
+     * @param overwrite          if the systemFiles should be overwritten
+     * @param downloadContext    executor, caches and indexes of downloads
      *
      * @return the system file
      *
      * @throws PlatformException re-thrown
      */
-    private List<LocalSystemFile> downloadSystemFiles( final File workDir,
-                                                       final List<SystemFileReference> systemFiles,
+    private List<LocalSystemFile> downloadSystemFiles( final List<SystemFileReference> systemFiles,
                                                        final Boolean overwrite,
-                                                       final boolean downloadFeeback )
+                                                       final DownloadContext downloadContext )
         throws PlatformException
     {
         final List<LocalSystemFile> downloaded = new ArrayList<LocalSystemFile>();
@@ -480,20 +635,20 @@ public class PlatformImpl
         {
             for ( SystemFileReference reference : systemFiles )
             {
-                downloaded.add(
-                    new LocalSystemFileImpl(
-                        reference,
-                        download(
-                            workDir,
-                            reference.getURL(),
-                            reference.getName(),
-                            overwrite,
-                            false, // do not validate as osgi bundle
-                            true,  // fail on validation
-                            downloadFeeback
-                        )
-                    )
+                final File file = download(
+                    reference.getURL(),
+                    reference.getName(),
+                    overwrite,
+                    false, // do not validate as osgi bundle
+                    true,  // fail on validation
+                    downloadContext.isDownloadFeedback(),
+                    downloadContext
                 );
+                // null only if not available offline
+                if ( file != null )
+                {
+                    downloaded.add( new LocalSystemFileImpl( reference, file ) );
+                }
             }
         }
         return downloaded;
@@ -502,32 +657,52 @@ public class PlatformImpl
     /**
      * Downloads files from urls.
      *
-     * @param workDir          the directory where to download bundles
-     * @param url              of the file to be downloaded
-     * @param displayName      to be shown during download
-     * @param overwrite        if the bundles should be overwritten
-     * @param checkAttributes  whether or not to check attributes in the manifest
-     * @param failOnValidation if validation fails should or not fail with an exception (or just return null)
-     * @param downloadFeeback  whether or not downloading process should display fine grained progres info
+     * @param url                of the file to be downloaded
+     * @param displayName        to be shown during download
+     * @param overwrite          if the bundles should be overwritten
+     * @param checkAttributes    whether or not to check attributes in the manifest
+     * @param failOnValidation   if validation fails should or not fail with an exception (or just return null)
+     * @param downloadFeeback    whether or not downloading process should display fine grained progres info
+     * @param downloadContext    executor, caches and indexes of downloads
      *
-     * @return the File corresponding to the downloaded file, or null if the bundle is invalid (not an osgi bundle)
+     * @return the File corresponding to the downloaded file, or null if the bundle is invalid (not an osgi bundle) or
+     *         it is not available offline
      *
      * @throws PlatformException if the url could not be downloaded
      */
-    private File download( final File workDir,
-                           final URL url,
+    private File download( final URL url,
                            final String displayName,
                            final Boolean overwrite,
                            final boolean checkAttributes,
                            final boolean failOnValidation,
-                           final boolean downloadFeeback )
+                           final boolean downloadFeeback,
+                           final DownloadContext downloadContext )
         throws PlatformException
     {
         LOGGER.debug( "Downloading [" + url + "]" );
-        File downloadedBundlesFile = new File( workDir, "bundles/downloaded_bundles.properties" );
-        Properties fileNamesForUrls = loadProperties( downloadedBundlesFile );
 
-        String downloadedFileName = fileNamesForUrls.getProperty( url.toExternalForm() );
+        final DownloadIndex downloadIndex = downloadContext.getDownloadIndex();
+        final ManifestIndex manifestIndex = downloadContext.getManifestIndex();
+        final DownloadStatistics downloadStatistics = downloadContext.getDownloadStatistics();
+        final BundleStore bundleStore = downloadContext.getBundleStore();
+        final HttpValidators httpValidators = downloadContext.getHttpValidators();
+        final MirrorSelector mirrorSelector = downloadContext.getMirrorSelector();
+        final LocalArtifacts localArtifacts = downloadContext.getLocalArtifacts();
+
+        // a local file used in place is only validated
+        final File localFile = localArtifacts != null ? localArtifacts.resolve( url ) : null;
+        if ( localFile != null && localArtifacts.isInPlace() )
+        {
+            LOGGER.debug( "Using [" + url + "] in place [" + localFile + "]" );
+            downloadStatistics.local();
+            if ( checkAttributes && !isValid( url, manifestIndex.get( localFile ), failOnValidation ) )
+            {
+                return null;
+            }
+            return localFile;
+        }
+
+        String downloadedFileName = downloadIndex.get( url.toExternalForm() );
         String hashFileName = "" + url.toExternalForm().hashCode();
         if ( downloadedFileName == null )
         {
@@ -535,162 +710,428 @@ public class PlatformImpl
             downloadedFileName = hashFileName + ".jar";
 
         }
-        File destination = new File( workDir, "bundles/" + downloadedFileName );
+        File destination = new File( downloadContext.getWorkDir(), "bundles/" + downloadedFileName );
 
         // download the bundle only if is a forced overwrite or the file does not exist or the file is there but is
-        // invalid
-        boolean forceOverwrite = overwrite || !destination.exists();
-        if ( !forceOverwrite )
+        // invalid. In offline mode cached files are never overwritten. A linked local file is cached only as long as
+        // the local file was not changed (e.g. rebuilt).
+        final boolean offline = downloadContext.isOffline();
+        final boolean cached = destination.exists()
+                               && destination.getName().equals(
+                                   determineCachingName( manifestIndex.get( destination ), hashFileName )
+                               )
+                               && ( localFile == null
+                                    || ( localFile.length() == destination.length()
+                                         && localFile.lastModified() == destination.lastModified() ) );
+        boolean forceOverwrite = ( overwrite && !offline ) || !cached;
+        // when not forced to overwrite, the file could be already available in the bundle store
+        final File storedFile = forceOverwrite && ( offline || !overwrite ) && bundleStore != null && localFile == null
+                                ? bundleStore.lookup( url )
+                                : null;
+        // files in the working directory are replaced only while holding the cache lock, as the working directory
+        // can be shared with other runners
+        final CacheLock cacheLock = CacheLock.forFile( new File( destination.getParentFile(), LOCK_FILE_NAME ) );
+        boolean locked = false;
+        try
         {
-            try
+            if ( forceOverwrite && localFile != null )
             {
-                String cachingName = determineCachingName( destination, hashFileName );
-                if ( !destination.getName().equals( cachingName ) )
+                try
+                {
+                    LOGGER.debug( "Linking [" + url + "] from local file [" + localFile + "]" );
+                    cacheLock.lock();
+                    locked = true;
+                    if ( LinkUtils.link( localFile, destination ) == LinkUtils.Mode.COPY )
+                    {
+                        // so the copy is recognized as up to date next time
+                        destination.setLastModified( localFile.lastModified() );
+                    }
+                    downloadStatistics.local();
+                }
+                catch ( IOException e )
                 {
-                    throw new PlatformException( "File " + destination + " should have name " + cachingName );
+                    throw new PlatformException( "[" + url + "] could not be linked from local file", e );
                 }
             }
-            catch ( PlatformException ignore )
+            else if ( storedFile != null )
             {
-                forceOverwrite = true;
+                try
+                {
+                    LOGGER.debug( "Linking [" + url + "] from bundle store [" + storedFile + "]" );
+                    cacheLock.lock();
+                    locked = true;
+                    LinkUtils.link( storedFile, destination );
+                    downloadStatistics.stored();
+                }
+                catch ( IOException e )
+                {
+                    throw new PlatformException( "[" + url + "] could not be linked from bundle store", e );
+                }
             }
-        }
-        if ( forceOverwrite )
-        {
-            try
+            else if ( forceOverwrite )
             {
-                LOGGER.debug( "Creating new file at destination: " + destination.getAbsolutePath() );
-                destination.getParentFile().mkdirs();
-                destination.createNewFile();
-                FileOutputStream os = null;
+                // in offline mode only local files can be copied to the working directory
+                if ( offline && !"file".equals( url.getProtocol() ) )
+                {
+                    LOGGER.debug( "[" + url + "] is not available offline" );
+                    downloadContext.missing( url );
+                    return null;
+                }
                 try
                 {
-                    os = new FileOutputStream(destination);
-                    FileChannel fileChannel = os.getChannel();
-                    StreamUtils.ProgressBar progressBar = null;
-                    if ( LOGGER.isInfoEnabled() )
+                    // a cached file that should be updated is revalidated against the original url, as validators
+                    // are specific to a server
+                    final MirrorSelector.Connection mirrored = mirrorSelector != null
+                                                               && !( cached && httpValidators != null )
+                                                               ? mirrorSelector.connect( url )
+                                                               : null;
+                    final URL source = mirrored != null ? mirrored.getSource() : url;
+                    final URLConnection connection;
+                    if ( mirrored != null )
                     {
-                        if ( downloadFeeback )
+                        connection = mirrored.getConnection();
+                    }
+                    else
+                    {
+                        connection = httpValidators != null
+                                     ? httpValidators.openConnection( url, cached )
+                                     : url.openConnection();
+                    }
+                    // a cached file that should be updated is downloaded again only if changed on the server
+                    if ( cached && httpValidators != null && httpValidators.isNotModified( connection ) )
+                    {
+                        LOGGER.debug( "[" + url + "] not modified, using cached file [" + destination + "]" );
+                        downloadStatistics.notModified();
+                    }
+                    else
+                    {
+                        destination.getParentFile().mkdirs();
+                        // download to an unique temporary file, so concurrent runners do not write the same file
+                        final File partFile = File.createTempFile(
+                            destination.getName() + ".", PART_FILE_SUFFIX, destination.getParentFile()
+                        );
+                        try
                         {
-                            progressBar = new StreamUtils.FineGrainedProgressBar( displayName );
+                            final String digest = downloadFile(
+                                source, connection, partFile, displayName, downloadFeeback
+                            );
+                            cacheLock.lock();
+                            locked = true;
+                            downloadStatistics.downloaded( partFile.length() );
+                            replaceFile( partFile, destination );
+                            LOGGER.debug( "Succesfully downloaded to [" + destination + "]" );
+                            downloadIndex.put( url.toExternalForm() + SHA1_SUFFIX, digest );
+                            if ( httpValidators != null && source.toExternalForm().equals( url.toExternalForm() ) )
+                            {
+                                httpValidators.update( url, connection );
+                            }
+                            if ( bundleStore != null )
+                            {
+                                bundleStore.store( url, destination, digest );
+                            }
                         }
-                        else
+                        finally
                         {
-                            progressBar = new StreamUtils.CoarseGrainedProgressBar( displayName );
+                            partFile.delete();
                         }
                     }
-                    StreamUtils.streamCopy( url, fileChannel, progressBar );
-                    fileChannel.close();
-                    LOGGER.debug( "Succesfully downloaded to [" + destination + "]" );
                 }
-                finally
+                catch ( IOException e )
                 {
-                    if ( os != null )
-                    {
-                        os.close();
-                    }
+                    throw new PlatformException( "[" + url + "] could not be downloaded", e );
                 }
             }
-            catch ( IOException e )
+            else
             {
-                throw new PlatformException( "[" + url + "] could not be downloaded", e );
+                downloadStatistics.cached();
             }
+            if ( checkAttributes && !isValid( url, manifestIndex.get( destination ), failOnValidation ) )
+            {
+                return null;
+            }
+            String cachingName = determineCachingName( manifestIndex.get( destination ), hashFileName );
+            File newDestination = new File( destination.getParentFile(), cachingName );
+            if ( !cachingName.equals( destination.getName() ) )
+            {
+                if ( !locked )
+                {
+                    try
+                    {
+                        cacheLock.lock();
+                        locked = true;
+                    }
+                    catch ( IOException e )
+                    {
+                        throw new PlatformException( "Cannot lock " + cacheLock, e );
+                    }
+                }
+                replaceFile( destination, newDestination );
+                manifestIndex.rename( destination, newDestination );
+                downloadIndex.put( url.toExternalForm(), cachingName );
+            }
+            downloadIndex.put(
+                url.toExternalForm() + CacheEvictor.LAST_USED_SUFFIX, String.valueOf( System.currentTimeMillis() )
+            );
+            return newDestination;
         }
-        if ( checkAttributes )
+        finally
         {
-            try
+            if ( locked )
             {
-                validateBundle( url, destination );
+                cacheLock.unlock();
             }
-            catch ( PlatformException e )
+        }
+    }
+
+    /**
+     * Starts resolving an execution environment in the background.
+     *
+     * @param ee comma separated list of execution environments names
+     *
+     * @return execution environment being resolved
+     */
+    private static FutureTask<ExecutionEnvironment> resolveExecutionEnvironment( final String ee )
+    {
+        final FutureTask<ExecutionEnvironment> task = new FutureTask<ExecutionEnvironment>(
+            new Callable<ExecutionEnvironment>()
             {
-                if ( failOnValidation )
+                public ExecutionEnvironment call()
+                    throws PlatformException
                 {
-                    throw e;
+                    return new ExecutionEnvironment( ee );
                 }
-                return null;
             }
+        );
+        final Thread thread = new Thread( task, "Pax Runner execution environment" );
+        thread.setDaemon( true );
+        thread.start();
+        return task;
+    }
+
+    /**
+     * Waits for an execution environment being resolved in the background.
+     *
+     * @param task execution environment being resolved
+     *
+     * @return resolved execution environment
+     *
+     * @throws PlatformException if the execution environment could not be resolved
+     */
+    private static ExecutionEnvironment getExecutionEnvironment( final FutureTask<ExecutionEnvironment> task )
+        throws PlatformException
+    {
+        try
+        {
+            return task.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new PlatformException( "Interrupted while resolving execution environment" );
         }
-        String cachingName = determineCachingName( destination, hashFileName );
-        File newDestination = new File( destination.getParentFile(), cachingName );
-        if ( !cachingName.equals( destination.getName() ) )
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof PlatformException )
+            {
+                throw (PlatformException) e.getCause();
+            }
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PlatformException( "Could not resolve execution environment", e.getCause() );
+        }
+    }
+
+    /**
+     * Removes user bundles that are provisioned more then once, under different urls, with the same symbolic name and
+     * version. The first one wins, with its options, and a warning names the kept bundle and the removed one. Bundles
+     * that do not declare a version are not compared, as they are usually bundles under development. Warns about
+     * bundles provisioned in more then one version.
+     *
+     * @param bundles       user bundles to install
+     * @param manifestIndex index of downloaded files manifest headers
+     */
+    private static void removeDuplicateBundles( final List<BundleReference> bundles,
+                                                final ManifestIndex manifestIndex )
+    {
+        final Map<String, BundleReference> byIdentity = new HashMap<String, BundleReference>();
+        final Map<String, Set<Version>> versions = new LinkedHashMap<String, Set<Version>>();
+        final Iterator<BundleReference> iterator = bundles.iterator();
+        while ( iterator.hasNext() )
         {
-            if ( newDestination.exists() )
+            final BundleReference bundle = iterator.next();
+            if ( !( bundle instanceof LocalBundleReference ) )
+            {
+                continue;
+            }
+            final File file = ( (LocalBundleReference) bundle ).getFile();
+            final ManifestIndex.Entry manifest = manifestIndex.get( file );
+            if ( manifest.getSymbolicName() == null || manifest.getVersion() == null )
+            {
+                continue;
+            }
+            final String symbolicName = manifest.getSymbolicName().split( ";" )[ 0 ].trim();
+            final Version version;
+            try
+            {
+                version = Version.parseVersion( manifest.getVersion() );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // invalid versions will be reported by the framework
+                continue;
+            }
+            final BundleReference kept = byIdentity.get( symbolicName + "/" + version );
+            if ( kept == null )
             {
-                if ( !newDestination.delete() )
+                byIdentity.put( symbolicName + "/" + version, bundle );
+                Set<Version> bundleVersions = versions.get( symbolicName );
+                if ( bundleVersions == null )
                 {
-                    throw new PlatformException( "Cannot delete " + newDestination );
+                    bundleVersions = new TreeSet<Version>();
+                    versions.put( symbolicName, bundleVersions );
                 }
+                bundleVersions.add( version );
+                continue;
             }
-            if ( !destination.renameTo( newDestination ) )
+            LOGGER.warn(
+                "Skipped bundle " + describe( bundle ) + " as it is the same as the already provisioned bundle "
+                + describe( kept )
+            );
+            iterator.remove();
+        }
+        for ( Map.Entry<String, Set<Version>> entry : versions.entrySet() )
+        {
+            if ( entry.getValue().size() > 1 )
             {
-                throw new PlatformException( "Cannot rename " + destination + " to " + newDestination );
+                LOGGER.warn( "Bundle [" + entry.getKey() + "] is provisioned in more versions: " + entry.getValue() );
             }
-            fileNamesForUrls.setProperty( url.toExternalForm(), cachingName );
-            saveProperties( fileNamesForUrls, downloadedBundlesFile );
         }
+    }
 
-        return newDestination;
+    /**
+     * Describes a bundle by its url and options, for logging.
+     *
+     * @param bundle bundle to describe
+     *
+     * @return description
+     */
+    private static String describe( final BundleReference bundle )
+    {
+        return "[" + bundle.getURL() + "] (start level: " + bundle.getStartLevel()
+               + ", start: " + bundle.shouldStart()
+               + ", update: " + bundle.shouldUpdate() + ")";
     }
 
-    private Properties loadProperties( File file )
+    /**
+     * Validates that a downloaded file is an osgi bundle.
+     *
+     * @param url              url of the file
+     * @param entry            manifest headers of the file
+     * @param failOnValidation if validation fails should or not fail with an exception (or just return false)
+     *
+     * @return true if the file is a valid bundle
+     *
+     * @throws PlatformException if the file is not valid and should fail on validation
+     */
+    private boolean isValid( final URL url, final ManifestIndex.Entry entry, final boolean failOnValidation )
+        throws PlatformException
     {
-        Properties properties = new Properties();
-        FileInputStream in = null;
         try
         {
-            in = new FileInputStream( file );
-            properties.load( in );
-            return properties;
+            validateBundle( url, entry );
+            return true;
         }
-        catch ( IOException e )
+        catch ( PlatformException e )
         {
-            return properties;
-        }
-        finally
-        {
-            if ( in != null )
+            if ( failOnValidation )
             {
-                try
-                {
-                    in.close();
-                }
-                catch ( IOException e )
-                {
-                    // ignore
-                }
+                throw e;
             }
+            return false;
         }
     }
 
-    private void saveProperties( Properties properties, File file )
+    /**
+     * Replaces a file by renaming another file to it. On platforms where rename does not replace an existing file the
+     * target is deleted first.
+     *
+     * @param source file to be renamed
+     * @param target file to be replaced
+     *
+     * @throws PlatformException if the file cannot be replaced
+     */
+    private static void replaceFile( final File source, final File target )
         throws PlatformException
     {
-        FileOutputStream os = null;
-        try
+        if ( source.renameTo( target ) )
         {
-            os = new FileOutputStream( file );
-            properties.store( os, "" );
+            return;
         }
-        catch ( IOException e )
+        if ( target.exists() && !target.delete() )
         {
-            throw new PlatformException( "Cannot store properties " + file, e );
+            throw new PlatformException( "Cannot delete " + target );
         }
-        finally
+        if ( !source.renameTo( target ) )
+        {
+            throw new PlatformException( "Cannot rename " + source + " to " + target );
+        }
+    }
+
+    /**
+     * Downloads the content of an url connection to a file.
+     * While downloading the SHA-1 digest of the content is calculated and verified against the checksum the server
+     * sent in a response header or, if none was sent, against the ".sha1" sidecar file of the url (as files in maven
+     * repositories have). Only http(s) urls can be verified; for other urls, as mvn: urls, the digest is only recorded.
+     *
+     * @param url             url being downloaded (original url or a mirror)
+     * @param connection      connection to download from
+     * @param file            file to download to
+     * @param displayName     to be shown during download
+     * @param downloadFeeback whether or not downloading process should display fine grained progres info
+     *
+     * @return hex encoded SHA-1 digest of the downloaded content
+     *
+     * @throws IOException       re-thrown
+     * @throws PlatformException if the checksum does not match
+     */
+    private String downloadFile( final URL url,
+                                 final URLConnection connection,
+                                 final File file,
+                                 final String displayName,
+                                 final boolean downloadFeeback )
+        throws IOException, PlatformException
+    {
+        LOGGER.debug( "Downloading to temporary file: " + file.getAbsolutePath() );
+        StreamUtils.ProgressBar progressBar = null;
+        if ( LOGGER.isInfoEnabled() )
         {
-            if ( os != null )
+            if ( downloadFeeback )
             {
-                try
-                {
-                    os.close();
-                }
-                catch ( IOException e )
-                {
-                    // ignore
-                }
+                progressBar = new StreamUtils.FineGrainedProgressBar( displayName );
+            }
+            else
+            {
+                progressBar = new StreamUtils.CoarseGrainedProgressBar( displayName );
             }
-
         }
+        final MessageDigest messageDigest = ChecksumUtils.createDigest( ChecksumUtils.SHA1 );
+        StreamUtils.streamCopy( connection, file, progressBar, RESUME_ATTEMPTS, messageDigest );
+        final String digest = ChecksumUtils.toHex( messageDigest.digest() );
+        // the checksum header avoids a second request for the sidecar file
+        String expectedDigest = ChecksumUtils.readHeader( connection, ChecksumUtils.SHA1 );
+        if ( expectedDigest == null )
+        {
+            expectedDigest = ChecksumUtils.readSidecar( url, ChecksumUtils.SHA1 );
+        }
+        if ( expectedDigest != null && !expectedDigest.equals( digest ) )
+        {
+            throw new PlatformException(
+                "[" + url + "] checksum mismatch. Expected SHA-1 " + expectedDigest + " but was " + digest
+            );
+        }
+        return digest;
     }
 
     /**
@@ -707,40 +1148,23 @@ public class PlatformImpl
                          final File file )
         throws PlatformException
     {
-        String bundleSymbolicName = null;
-        String bundleName = null;
-        JarFile jar = null;
-        try
-        {
-            // verify that is a valid jar. Do not verify that is signed (the false param).
-            jar = new JarFile( file, false );
-            final Manifest manifest = jar.getManifest();
-            if ( manifest == null )
-            {
-                throw new PlatformException( "[" + url + "] is not a valid bundle" );
-            }
-            bundleSymbolicName = manifest.getMainAttributes().getValue( Constants.BUNDLE_SYMBOLICNAME );
-            bundleName = manifest.getMainAttributes().getValue( Constants.BUNDLE_NAME );
-        }
-        catch ( IOException e )
-        {
-            throw new PlatformException( "[" + url + "] is not a valid bundle", e );
-        }
-        finally
-        {
-            if ( jar != null )
-            {
-                try
-                {
-                    jar.close();
-                }
-                catch ( IOException ignore )
-                {
-                    // just ignore as this is less probably to happen.
-                }
-            }
-        }
-        if ( bundleSymbolicName == null && bundleName == null )
+        validateBundle( url, ManifestIndex.read( file ) );
+    }
+
+    /**
+     * Validate that the manifest headers are the ones of a valid bundle.
+     *
+     * @param url      original url from where the bundle was created.
+     * @param manifest manifest headers of the file to be validated
+     *
+     * @throws PlatformException if the jar is not a valid bundle
+     * @see #validateBundle(URL, File)
+     */
+    void validateBundle( final URL url,
+                         final ManifestIndex.Entry manifest )
+        throws PlatformException
+    {
+        if ( !manifest.hasManifest() || ( manifest.getSymbolicName() == null && manifest.getName() == null ) )
         {
             throw new PlatformException( "[" + url + "] is not a valid bundle" );
         }
@@ -758,38 +1182,23 @@ public class PlatformImpl
     String determineCachingName( final File file,
                                  final String defaultBundleSymbolicName )
     {
-        String bundleSymbolicName = null;
-        String bundleVersion = null;
-        JarFile jar = null;
-        try
-        {
-            // verify that is a valid jar. Do not verify that is signed (the false param).
-            jar = new JarFile( file, false );
-            final Manifest manifest = jar.getManifest();
-            if ( manifest != null )
-            {
-                bundleSymbolicName = manifest.getMainAttributes().getValue( Constants.BUNDLE_SYMBOLICNAME );
-                bundleVersion = manifest.getMainAttributes().getValue( Constants.BUNDLE_VERSION );
-            }
-        }
-        catch ( IOException ignore )
-        {
-            // just ignore
-        }
-        finally
-        {
-            if ( jar != null )
-            {
-                try
-                {
-                    jar.close();
-                }
-                catch ( IOException ignore )
-                {
-                    // just ignore as this is less probably to happen.
-                }
-            }
-        }
+        return determineCachingName( ManifestIndex.read( file ), defaultBundleSymbolicName );
+    }
+
+    /**
+     * Determine name to be used for caching on local file system.
+     *
+     * @param manifest                  manifest headers of the file
+     * @param defaultBundleSymbolicName default bundle symbolic name to be used if manifest does not have a bundle
+     *                                  symbolic name
+     *
+     * @return file name based on bundle symbolic name and version
+     */
+    String determineCachingName( final ManifestIndex.Entry manifest,
+                                 final String defaultBundleSymbolicName )
+    {
+        String bundleSymbolicName = manifest.getSymbolicName();
+        String bundleVersion = manifest.getVersion();
         if ( bundleSymbolicName == null )
         {
             bundleSymbolicName = defaultBundleSymbolicName;
@@ -810,6 +1219,24 @@ public class PlatformImpl
         return bundleSymbolicName + "_" + bundleVersion + ".jar";
     }
 
+    /**
+     * Bundle store factory method.
+     *
+     * @param path path to bundle store directory, can be null
+     *
+     * @return a bundle store or null if path is null
+     */
+    BundleStore createBundleStore( final String path )
+    {
+        if ( path == null )
+        {
+            return null;
+        }
+        final BundleStore bundleStore = new BundleStore( new File( path ) );
+        LOGGER.debug( "Using bundle store [" + bundleStore + "]" );
+        return bundleStore;
+    }
+
     /**
      * Creates a working directory.
      *
@@ -22,12 +22,20 @@ import org.apache.commons.logging.LogFactory;
 import org.ops4j.lang.NullArgumentException;
 import org.ops4j.pax.runner.commons.Info;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
 
 /**
  * Stream related utilities.
@@ -43,6 +51,14 @@ public class StreamUtils
      * Logger.
      */
     private static final Log LOGGER = LogFactory.getLog( StreamUtils.class );
+    /**
+     * Size of the chunks used to copy streams.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+    /**
+     * Minimum interval in milliseconds between two progress feedbacks.
+     */
+    private static final long PROGRESS_INTERVAL = 200;
 
     /**
      * Utility class. Ment to be used via static methods.
@@ -53,7 +69,8 @@ public class StreamUtils
     }
 
     /**
-     * Copy a stream to a destination. It does not close the streams.
+     * Copy a stream to a destination, starting at the current position of the destination. It does not close the
+     * streams.
      *
      * @param in          the stream to copy from
      * @param out         the stream to copy to
@@ -66,24 +83,71 @@ public class StreamUtils
     {
         NullArgumentException.validateNotNull( in, "Input stream" );
         NullArgumentException.validateNotNull( out, "Output stream" );
-        final long start = System.currentTimeMillis();
-        long bytes = 0;
-        ProgressBar feedbackBar = progressBar;
-        if( feedbackBar == null )
+        final ProgressBar feedbackBar = progressBar == null ? new NullProgressBar() : progressBar;
+        try
         {
-            feedbackBar = new NullProgressBar();
+            copy( in, out, feedbackBar, 0, null );
         }
+        finally
+        {
+            feedbackBar.stop();
+        }
+    }
+
+    /**
+     * Copies a stream to a destination in chunks, reporting the progress after each chunk (but not more often then
+     * each {@link #PROGRESS_INTERVAL} milliseconds) and at the end. Does not close the streams and does not stop the
+     * progress bar.
+     *
+     * @param in          the stream to copy from
+     * @param out         the stream to copy to
+     * @param progressBar download progress feedback
+     * @param offset      number of bytes already downloaded, used for progress feedback
+     * @param digest      digest to be updated with the copied bytes. Can be null.
+     *
+     * @return number of copied bytes
+     *
+     * @throws IOException re-thrown
+     */
+    private static long copy( final InputStream in,
+                              final FileChannel out,
+                              final ProgressBar progressBar,
+                              final long offset,
+                              final MessageDigest digest )
+        throws IOException
+    {
+        final long start = System.currentTimeMillis();
+        long lastProgress = start;
+        long bytes = 0;
         try
         {
-            ReadableByteChannel inChannel = Channels.newChannel(in);
-            bytes = out.transferFrom(inChannel, 0, Integer.MAX_VALUE);
-            inChannel.close();
+            final ReadableByteChannel inChannel = Channels.newChannel( in );
+            final ByteBuffer buffer = ByteBuffer.allocate( CHUNK_SIZE );
+            while( inChannel.read( buffer ) != -1 )
+            {
+                buffer.flip();
+                if( digest != null )
+                {
+                    digest.update( buffer.array(), 0, buffer.limit() );
+                }
+                while( buffer.hasRemaining() )
+                {
+                    bytes += out.write( buffer );
+                }
+                buffer.clear();
+                final long now = System.currentTimeMillis();
+                if( now - lastProgress >= PROGRESS_INTERVAL )
+                {
+                    lastProgress = now;
+                    progressBar.increment( offset + bytes, bytes / Math.max( now - start, 1 ) );
+                }
+            }
         }
         finally
         {
-            feedbackBar.increment( bytes, bytes / Math.max( System.currentTimeMillis() - start, 1 ) );
-            feedbackBar.stop();
+            progressBar.increment( offset + bytes, bytes / Math.max( System.currentTimeMillis() - start, 1 ) );
         }
+        return bytes;
     }
 
     /**
@@ -99,10 +163,28 @@ public class StreamUtils
         throws IOException
     {
         NullArgumentException.validateNotNull( url, "URL" );
+        streamCopy( url.openConnection(), out, progressBar );
+    }
+
+    /**
+     * Copy a stream from an url connection to a destination.
+     *
+     * @param connection  the connection to copy from
+     * @param out         the stream to copy to
+     * @param progressBar download progress feedback. Can be null.
+     *
+     * @throws IOException re-thrown
+     */
+    public static void streamCopy( final URLConnection connection,
+                                   final FileChannel out,
+                                   final ProgressBar progressBar )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( connection, "Connection" );
         InputStream is = null;
         try
         {
-            is = url.openStream();
+            is = connection.getInputStream();
             streamCopy( is, out, progressBar );
         }
         finally
@@ -115,6 +197,192 @@ public class StreamUtils
 
     }
 
+    /**
+     * Copy a stream from an url connection to a file. If the connection is an http connection and the transfer fails
+     * after some bytes were copied, the transfer is resumed from the length of the file using an http range request.
+     * If the server does not support range requests the transfer is restarted.
+     *
+     * @param connection     the connection to copy from
+     * @param file           the file to copy to. If the file exists it will be overwritten.
+     * @param progressBar    download progress feedback. Can be null.
+     * @param resumeAttempts maximum number of times a failed transfer is resumed
+     *
+     * @throws IOException re-thrown from the last transfer attempt
+     */
+    public static void streamCopy( final URLConnection connection,
+                                   final File file,
+                                   final ProgressBar progressBar,
+                                   final int resumeAttempts )
+        throws IOException
+    {
+        streamCopy( connection, file, progressBar, resumeAttempts, null );
+    }
+
+    /**
+     * Copy a stream from an url connection to a file, while calculating the digest of the file content (so the file
+     * does not have to be read again to calculate it).
+     *
+     * @param connection     the connection to copy from
+     * @param file           the file to copy to. If the file exists it will be overwritten.
+     * @param progressBar    download progress feedback. Can be null.
+     * @param resumeAttempts maximum number of times a failed transfer is resumed
+     * @param digest         digest to be updated with the file content. Can be null.
+     *
+     * @throws IOException re-thrown from the last transfer attempt
+     * @see #streamCopy(URLConnection, File, ProgressBar, int)
+     */
+    public static void streamCopy( final URLConnection connection,
+                                   final File file,
+                                   final ProgressBar progressBar,
+                                   final int resumeAttempts,
+                                   final MessageDigest digest )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( connection, "Connection" );
+        NullArgumentException.validateNotNull( file, "File" );
+        final ProgressBar feedbackBar = progressBar == null ? new NullProgressBar() : progressBar;
+        try
+        {
+            URLConnection current = connection;
+            boolean append = false;
+            int attempt = 0;
+            while( true )
+            {
+                final long offset = append ? file.length() : 0;
+                if( digest != null )
+                {
+                    // on resume digest again what was already downloaded, as the failed attempt could have been
+                    // interrupted in between digesting and writing a chunk
+                    digest.reset();
+                    if( append )
+                    {
+                        digest( file, digest );
+                    }
+                }
+                InputStream is = null;
+                FileOutputStream os = null;
+                try
+                {
+                    is = current.getInputStream();
+                    os = new FileOutputStream( file, append );
+                    final long bytes = copy( is, os.getChannel(), feedbackBar, offset, digest );
+                    final long expected = getContentLength( current );
+                    if( expected >= 0 && bytes < expected )
+                    {
+                        throw new IOException( "Premature end of stream (" + bytes + " of " + expected + " bytes)" );
+                    }
+                    return;
+                }
+                catch( IOException e )
+                {
+                    if( !( current instanceof HttpURLConnection ) || attempt >= resumeAttempts || os == null )
+                    {
+                        throw e;
+                    }
+                    attempt++;
+                    LOGGER.warn(
+                        "Transfer of [" + current.getURL() + "] failed after " + file.length() + " bytes due to: "
+                        + e.getMessage() + ". Resuming (" + attempt + "/" + resumeAttempts + ")..."
+                    );
+                }
+                finally
+                {
+                    close( is );
+                    close( os );
+                }
+                // if the content changed in the mean time the server will answer with the full content (If-Range)
+                String validator = current.getHeaderField( "ETag" );
+                if( validator == null )
+                {
+                    validator = current.getHeaderField( "Last-Modified" );
+                }
+                current = current.getURL().openConnection();
+                current.setRequestProperty( "Range", "bytes=" + file.length() + "-" );
+                if( validator != null )
+                {
+                    current.setRequestProperty( "If-Range", validator );
+                }
+                // a server that does not support ranges will answer with the full content (200)
+                append = ( (HttpURLConnection) current ).getResponseCode() == HttpURLConnection.HTTP_PARTIAL;
+            }
+        }
+        finally
+        {
+            feedbackBar.stop();
+        }
+    }
+
+    /**
+     * Updates a digest with the content of a file.
+     *
+     * @param file   file to digest
+     * @param digest digest to update
+     *
+     * @throws IOException re-thrown
+     */
+    private static void digest( final File file, final MessageDigest digest )
+        throws IOException
+    {
+        final InputStream in = new FileInputStream( file );
+        try
+        {
+            final byte[] buffer = new byte[CHUNK_SIZE];
+            int read;
+            while( ( read = in.read( buffer ) ) != -1 )
+            {
+                digest.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            close( in );
+        }
+    }
+
+    /**
+     * Returns the content length of an url connection as a long (so it works also for contents over 2 GB).
+     *
+     * @param connection connection to get the content length for
+     *
+     * @return content length or -1 if not known
+     */
+    private static long getContentLength( final URLConnection connection )
+    {
+        final String contentLength = connection.getHeaderField( "Content-Length" );
+        if( contentLength != null )
+        {
+            try
+            {
+                return Long.parseLong( contentLength.trim() );
+            }
+            catch( NumberFormatException ignore )
+            {
+                // fall through
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Closes a stream ignoring exceptions.
+     *
+     * @param closeable stream to be closed. Can be null.
+     */
+    private static void close( final Closeable closeable )
+    {
+        if( closeable != null )
+        {
+            try
+            {
+                closeable.close();
+            }
+            catch( IOException ignore )
+            {
+                // ignore
+            }
+        }
+    }
+
     /**
      * Feddback for downloading process.
      */
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class BundleStoreTest
+{
+
+    private File m_workDir;
+    private BundleStore m_store;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+        m_store = new BundleStore( new File( m_workDir, "store" ) );
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that an url that was not stored is not found
+    @Test
+    public void lookupNotStored()
+        throws Exception
+    {
+        assertNull( "Stored file", m_store.lookup( new URL( "file:bundle.jar" ) ) );
+    }
+
+    // test that a stored file can be looked up by url and that the downloaded file is kept in place
+    @Test
+    public void storeAndLookup()
+        throws Exception
+    {
+        final File bundle = FileUtils.getFileFromClasspath( "platform/bundle1.jar" );
+        final File downloaded = new File( m_workDir, "bundles/downloaded.jar" );
+        downloaded.getParentFile().mkdirs();
+        LinkUtils.copy( bundle, downloaded );
+        final URL url = bundle.toURL();
+
+        final File stored = m_store.store( url, downloaded );
+        assertEquals( "Stored file", stored, m_store.lookup( url ) );
+        assertEquals( "Stored file name", BundleStore.digest( bundle ) + ".jar", stored.getName() );
+        assertTrue( "Downloaded file exists", downloaded.exists() );
+        assertEquals( "Downloaded content", BundleStore.digest( bundle ), BundleStore.digest( downloaded ) );
+    }
+
+    // test that the same content downloaded from different urls is stored once
+    @Test
+    public void storeSameContentFromDifferentURLs()
+        throws Exception
+    {
+        final File bundle = FileUtils.getFileFromClasspath( "platform/bundle1.jar" );
+        final File first = new File( m_workDir, "first.jar" );
+        final File second = new File( m_workDir, "second.jar" );
+        LinkUtils.copy( bundle, first );
+        LinkUtils.copy( bundle, second );
+
+        final File firstStored = m_store.store( new URL( "file:first.jar" ), first );
+        final File secondStored = m_store.store( new URL( "file:second.jar" ), second );
+        assertEquals( "Stored file", firstStored, secondStored );
+        assertEquals( "Stored file", firstStored, m_store.lookup( new URL( "file:second.jar" ) ) );
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class CacheEvictorTest
+{
+
+    private File m_workDir;
+    private File m_bundles;
+    private DownloadIndex m_downloadIndex;
+    private ManifestIndex m_manifestIndex;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_bundles = new File( m_workDir, "bundles" );
+        m_bundles.mkdirs();
+        m_downloadIndex = new DownloadIndex( new File( m_bundles, "downloaded_bundles.properties" ) );
+        m_manifestIndex = new ManifestIndex( new File( m_bundles, "manifests.properties" ) );
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that least recently used bundles are evicted till the cache is under the maximum size
+    @Test
+    public void evictLeastRecentlyUsed()
+        throws Exception
+    {
+        final File oldest = createBundle( "http://repo/oldest.jar", "oldest_1.0.0.jar", 1000 );
+        final File older = createBundle( "http://repo/older.jar", "older_1.0.0.jar", 2000 );
+        final File recent = createBundle( "http://repo/recent.jar", "recent_1.0.0.jar", 3000 );
+
+        assertEquals(
+            "Evicted", 2, new CacheEvictor( m_bundles, 150 ).evict( m_downloadIndex, m_manifestIndex, 5000 )
+        );
+        assertFalse( "Oldest evicted", oldest.exists() );
+        assertFalse( "Older evicted", older.exists() );
+        assertTrue( "Recent kept", recent.exists() );
+        assertNull( "Index entry", m_downloadIndex.get( "http://repo/oldest.jar" ) );
+        assertNull( "Index entry", m_downloadIndex.get( "http://repo/oldest.jar" + CacheEvictor.LAST_USED_SUFFIX ) );
+        assertEquals( "Index entry", "recent_1.0.0.jar", m_downloadIndex.get( "http://repo/recent.jar" ) );
+    }
+
+    // test that bundles used since the given time are not evicted even if the cache is over the maximum size
+    @Test
+    public void evictKeepsBundlesInUse()
+        throws Exception
+    {
+        final File old = createBundle( "http://repo/old.jar", "old_1.0.0.jar", 1000 );
+        final File used = createBundle( "http://repo/used.jar", "used_1.0.0.jar", 3000 );
+
+        assertEquals( "Evicted", 1, new CacheEvictor( m_bundles, 0 ).evict( m_downloadIndex, m_manifestIndex, 2000 ) );
+        assertFalse( "Old evicted", old.exists() );
+        assertTrue( "Used kept", used.exists() );
+    }
+
+    // test that last uses saved by other runners are taken into account and own ones are saved before evicting
+    @Test
+    public void evictKeepsBundlesUsedByOtherRunners()
+        throws Exception
+    {
+        final File old = createBundle( "http://repo/old.jar", "old_1.0.0.jar", 1000 );
+        final File usedByOther = createBundle( "http://repo/other.jar", "other_1.0.0.jar", 1000 );
+        m_downloadIndex.flush();
+        final File used = createBundle( "http://repo/used.jar", "used_1.0.0.jar", 2500 );
+
+        final DownloadIndex otherRunner = new DownloadIndex( m_downloadIndex.getFile() );
+        otherRunner.put( "http://repo/other.jar" + CacheEvictor.LAST_USED_SUFFIX, "3000" );
+        otherRunner.flush();
+
+        assertEquals( "Evicted", 1, new CacheEvictor( m_bundles, 0 ).evict( m_downloadIndex, m_manifestIndex, 2000 ) );
+        assertFalse( "Old evicted", old.exists() );
+        assertTrue( "Used by other runner kept", usedByOther.exists() );
+        assertTrue( "Used kept", used.exists() );
+        assertEquals(
+            "Saved last use",
+            "2500",
+            DownloadIndex.load( m_downloadIndex.getFile() )
+                .getProperty( "http://repo/used.jar" + CacheEvictor.LAST_USED_SUFFIX )
+        );
+    }
+
+    // test that nothing is evicted when under the maximum size but left over temporary files are deleted
+    @Test
+    public void evictUnderMaximumSize()
+        throws Exception
+    {
+        final File bundle = createBundle( "http://repo/bundle.jar", "bundle_1.0.0.jar", 1000 );
+        final File stale = createFile( "bundle_1.0.0.jar.123.part", 10 );
+        stale.setLastModified( System.currentTimeMillis() - 2 * 24 * 60 * 60 * 1000L );
+        final File inProgress = createFile( "bundle_1.0.0.jar.456.part", 10 );
+
+        assertEquals(
+            "Evicted", 0, new CacheEvictor( m_bundles, 1000 ).evict( m_downloadIndex, m_manifestIndex, Long.MAX_VALUE )
+        );
+        assertTrue( "Bundle kept", bundle.exists() );
+        assertFalse( "Stale temporary file deleted", stale.exists() );
+        assertTrue( "Temporary file in progress kept", inProgress.exists() );
+    }
+
+    // test that bundles not in the index (as older versions) are evicted based on last modification time
+    @Test
+    public void evictNotIndexed()
+        throws Exception
+    {
+        final File orphan = createFile( "bundle_1.0.0.jar", 100 );
+        orphan.setLastModified( 1000000000000L );
+        final File current = createBundle( "http://repo/bundle.jar", "bundle_1.1.0.jar", System.currentTimeMillis() );
+
+        assertEquals(
+            "Evicted", 1, new CacheEvictor( m_bundles, 150 ).evict( m_downloadIndex, m_manifestIndex, Long.MAX_VALUE )
+        );
+        assertFalse( "Orphan evicted", orphan.exists() );
+        assertTrue( "Current kept", current.exists() );
+    }
+
+    // test that the standalone eviction of a working directory evicts by the saved last uses and saves the index
+    @Test
+    public void evictWorkingDirectory()
+        throws Exception
+    {
+        final File old = createBundle( "http://repo/old.jar", "old_1.0.0.jar", 1000 );
+        final File recent = createBundle( "http://repo/recent.jar", "recent_1.0.0.jar", 2000 );
+        m_downloadIndex.flush();
+
+        CacheEvictor.main( m_workDir.getAbsolutePath(), "150" );
+        assertFalse( "Old evicted", old.exists() );
+        assertTrue( "Recent kept", recent.exists() );
+        assertNull(
+            "Saved index entry",
+            DownloadIndex.load( m_downloadIndex.getFile() ).getProperty( "http://repo/old.jar" )
+        );
+    }
+
+    // test parsing of sizes
+    @Test
+    public void parseSize()
+    {
+        assertEquals( "Bytes", 100, CacheEvictor.parseSize( "100" ) );
+        assertEquals( "Kilobytes", 2048, CacheEvictor.parseSize( "2k" ) );
+        assertEquals( "Megabytes", 3L * 1024 * 1024, CacheEvictor.parseSize( " 3 M " ) );
+        assertEquals( "Gigabytes", 4L * 1024 * 1024 * 1024, CacheEvictor.parseSize( "4g" ) );
+    }
+
+    // expected to fail as size is not a number
+    @Test( expected = NumberFormatException.class )
+    public void parseInvalidSize()
+    {
+        CacheEvictor.parseSize( "many" );
+    }
+
+    private File createBundle( final String url, final String name, final long lastUsed )
+        throws IOException
+    {
+        m_downloadIndex.put( url, name );
+        m_downloadIndex.put( url + CacheEvictor.LAST_USED_SUFFIX, String.valueOf( lastUsed ) );
+        return createFile( name, 100 );
+    }
+
+    private File createFile( final String name, final int size )
+        throws IOException
+    {
+        final File file = new File( m_bundles, name );
+        final FileOutputStream out = new FileOutputStream( file );
+        out.write( new byte[size] );
+        out.close();
+        return file;
+    }
+
+}
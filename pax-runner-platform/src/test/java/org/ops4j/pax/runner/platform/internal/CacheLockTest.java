@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class CacheLockTest
+{
+
+    private File m_workDir;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that the same lock file results in the same lock
+    @Test
+    public void forFile()
+    {
+        assertSame(
+            "Lock",
+            CacheLock.forFile( new File( m_workDir, "bundles/.lock" ) ),
+            CacheLock.forFile( new File( new File( m_workDir, "bundles" ), "../bundles/.lock" ) )
+        );
+    }
+
+    // test that the lock can be acquired again by the thread holding it
+    @Test
+    public void reentrant()
+        throws Exception
+    {
+        final CacheLock lock = CacheLock.forFile( new File( m_workDir, ".lock" ) );
+        lock.lock();
+        try
+        {
+            lock.lock();
+            lock.unlock();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        assertTrue( "Lock file created", new File( m_workDir, ".lock" ).exists() );
+    }
+
+    // test that a thread waits for the lock to be released by another thread
+    @Test
+    public void exclusive()
+        throws Exception
+    {
+        final CacheLock lock = CacheLock.forFile( new File( m_workDir, ".lock" ) );
+        final CountDownLatch acquired = new CountDownLatch( 1 );
+        final AtomicBoolean released = new AtomicBoolean();
+        lock.lock();
+        final Thread other = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    lock.lock();
+                    try
+                    {
+                        assertTrue( "Released before acquired", released.get() );
+                        acquired.countDown();
+                    }
+                    finally
+                    {
+                        lock.unlock();
+                    }
+                }
+                catch( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        };
+        other.start();
+        assertFalse( "Acquired while locked", acquired.await( 200, TimeUnit.MILLISECONDS ) );
+        released.set( true );
+        lock.unlock();
+        assertTrue( "Acquired after release", acquired.await( 5, TimeUnit.SECONDS ) );
+        other.join();
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLConnection;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class ChecksumUtilsTest
+{
+
+    private static final String CHECKSUM = "0123456789abcdef0123456789abcdef01234567";
+
+    // test hex encoding
+    @Test
+    public void toHex()
+    {
+        assertEquals( "Hex", "00ff10", ChecksumUtils.toHex( new byte[]{ 0, (byte) 0xff, 0x10 } ) );
+    }
+
+    // test that the digest of a file is the same as the one used by the bundle store
+    @Test
+    public void digest()
+        throws Exception
+    {
+        assertEquals(
+            "Digest",
+            40,
+            ChecksumUtils.digest( FileUtils.getFileFromClasspath( "platform/bundle1.jar" ), ChecksumUtils.SHA1 )
+                .length()
+        );
+    }
+
+    // test that sidecars are not looked up for non http urls
+    @Test
+    public void readSidecarOfFileURL()
+        throws Exception
+    {
+        assertNull(
+            "Checksum",
+            ChecksumUtils.readSidecar(
+                FileUtils.getFileFromClasspath( "platform/bundle1.jar" ).toURL(), ChecksumUtils.SHA1
+            )
+        );
+    }
+
+    // test reading of a sidecar that contains also the file name and of a missing sidecar
+    @Test
+    public void readSidecar()
+        throws Exception
+    {
+        final HttpServer server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+        server.createContext( "/bundle.jar.sha1", new HttpHandler()
+        {
+            public void handle( final HttpExchange exchange )
+                throws IOException
+            {
+                final byte[] content = ( CHECKSUM.toUpperCase() + "  bundle.jar\n" ).getBytes( "US-ASCII" );
+                exchange.sendResponseHeaders( 200, content.length );
+                final OutputStream out = exchange.getResponseBody();
+                out.write( content );
+                out.close();
+                exchange.close();
+            }
+        }
+        );
+        server.start();
+        try
+        {
+            final String base = "http://localhost:" + server.getAddress().getPort();
+            assertEquals(
+                "Checksum", CHECKSUM, ChecksumUtils.readSidecar( new URL( base + "/bundle.jar" ), ChecksumUtils.SHA1 )
+            );
+            assertNull( "Checksum", ChecksumUtils.readSidecar( new URL( base + "/other.jar" ), ChecksumUtils.SHA1 ) );
+        }
+        finally
+        {
+            server.stop( 0 );
+        }
+    }
+
+    // test reading of the checksum header sent by repository managers and of a missing header
+    @Test
+    public void readHeader()
+        throws Exception
+    {
+        final HttpServer server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+        server.createContext( "/bundle.jar", new HttpHandler()
+        {
+            public void handle( final HttpExchange exchange )
+                throws IOException
+            {
+                if( exchange.getRequestURI().getPath().equals( "/bundle.jar" ) )
+                {
+                    exchange.getResponseHeaders().add( "X-Checksum-Sha1", CHECKSUM.toUpperCase() );
+                }
+                exchange.sendResponseHeaders( 200, -1 );
+                exchange.close();
+            }
+        }
+        );
+        server.start();
+        try
+        {
+            final String base = "http://localhost:" + server.getAddress().getPort();
+            final URLConnection connection = new URL( base + "/bundle.jar" ).openConnection();
+            connection.getInputStream().close();
+            assertEquals( "Checksum", CHECKSUM, ChecksumUtils.readHeader( connection, ChecksumUtils.SHA1 ) );
+            final URLConnection other = new URL( base + "/bundle.jar.other" ).openConnection();
+            other.getInputStream().close();
+            assertNull( "Checksum", ChecksumUtils.readHeader( other, ChecksumUtils.SHA1 ) );
+        }
+        finally
+        {
+            server.stop( 0 );
+        }
+    }
+
+}
@@ -17,6 +17,7 @@
  */
 package org.ops4j.pax.runner.platform.internal;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import static org.easymock.EasyMock.*;
@@ -786,4 +787,294 @@ public class ConfigurationImplTest
         verify( propertyResolver );
     }
 
+    // normal flow
+    @Test
+    public void getDownloadThreads()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.downloadThreads" ) ).andReturn( "4" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Download threads", Integer.valueOf( 4 ), config.getDownloadThreads() );
+        verify( propertyResolver );
+    }
+
+    // test that an invalid value will not cause problems and will return the default
+    @Test
+    public void getDownloadThreadsWithInvalidValue()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.downloadThreads" ) ).andReturn( "many" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Download threads", Integer.valueOf( 1 ), config.getDownloadThreads() );
+        verify( propertyResolver );
+    }
+
+    // normal flow
+    @Test
+    public void getDownloadThreadsPerHost()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.downloadThreadsPerHost" ) ).andReturn( "2" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Download threads per host", Integer.valueOf( 2 ), config.getDownloadThreadsPerHost() );
+        verify( propertyResolver );
+    }
+
+    // default value should be 4
+    @Test
+    public void getDownloadThreadsPerHostDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.downloadThreadsPerHost" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Download threads per host", Integer.valueOf( 4 ), config.getDownloadThreadsPerHost() );
+        verify( propertyResolver );
+    }
+
+    // default value should be 1
+    @Test
+    public void getDownloadThreadsDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.downloadThreads" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Download threads", Integer.valueOf( 1 ), config.getDownloadThreads() );
+        verify( propertyResolver );
+    }
+
+    // normal flow
+    @Test
+    public void getBundleStore()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.bundleStore" ) ).andReturn( "myStore" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Bundle store", "myStore", config.getBundleStore() );
+        verify( propertyResolver );
+    }
+
+    // test that "true" will use the default store from user home
+    @Test
+    public void getBundleStoreWithTrue()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.bundleStore" ) ).andReturn( "true" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals(
+            "Bundle store",
+            new File( System.getProperty( "user.home" ), ".pax/runner/bundles" ).getPath(),
+            config.getBundleStore()
+        );
+        verify( propertyResolver );
+    }
+
+    // default value should be null (no store)
+    @Test
+    public void getBundleStoreDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.bundleStore" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertNull( "Bundle store", config.getBundleStore() );
+        verify( propertyResolver );
+    }
+
+    // normal flow
+    @Test
+    public void isRevalidate()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.revalidate" ) ).andReturn( "true" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Revalidate", true, config.isRevalidate() );
+        verify( propertyResolver );
+    }
+
+    // default value should be false
+    @Test
+    public void isRevalidateDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.revalidate" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Revalidate", false, config.isRevalidate() );
+        verify( propertyResolver );
+    }
+
+    // normal flow
+    @Test
+    public void isPrefetch()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.prefetch" ) ).andReturn( "true" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Prefetch", true, config.isPrefetch() );
+        verify( propertyResolver );
+    }
+
+    // default value should be false
+    @Test
+    public void isPrefetchDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.prefetch" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Prefetch", false, config.isPrefetch() );
+        verify( propertyResolver );
+    }
+
+    // normal flow
+    @Test
+    public void getLocalBundles()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.localBundles" ) ).andReturn( "Link" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Local bundles", "link", config.getLocalBundles() );
+        verify( propertyResolver );
+    }
+
+    // default value should be copy
+    @Test
+    public void getLocalBundlesDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.localBundles" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Local bundles", "copy", config.getLocalBundles() );
+        verify( propertyResolver );
+    }
+
+    // an invalid value should fall back to copy
+    @Test
+    public void getLocalBundlesInvalid()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.localBundles" ) ).andReturn( "move" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Local bundles", "copy", config.getLocalBundles() );
+        verify( propertyResolver );
+    }
+
+    // normal flow
+    @Test
+    public void isOffline()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.offline" ) ).andReturn( "true" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Offline", true, config.isOffline() );
+        verify( propertyResolver );
+    }
+
+    // default value should be false
+    @Test
+    public void isOfflineDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.offline" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Offline", false, config.isOffline() );
+        verify( propertyResolver );
+    }
+
+    // normal flow
+    @Test
+    public void getMirrorDelay()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.mirrorDelay" ) ).andReturn( "500" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Mirror delay", Integer.valueOf( 500 ), config.getMirrorDelay() );
+        verify( propertyResolver );
+    }
+
+    // default value should be 2000
+    @Test
+    public void getMirrorDelayDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.mirrorDelay" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Mirror delay", Integer.valueOf( 2000 ), config.getMirrorDelay() );
+        verify( propertyResolver );
+    }
+
+    // normal flow
+    @Test
+    public void getCacheSize()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.cacheSize" ) ).andReturn( "500m" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertEquals( "Cache size", Long.valueOf( 500L * 1024 * 1024 ), config.getCacheSize() );
+        verify( propertyResolver );
+    }
+
+    // default value should be null (not limited)
+    @Test
+    public void getCacheSizeDefault()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.cacheSize" ) ).andReturn( null );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertNull( "Cache size", config.getCacheSize() );
+        verify( propertyResolver );
+    }
+
+    // an empty value should be null (not limited)
+    @Test
+    public void getCacheSizeEmpty()
+    {
+        PropertyResolver propertyResolver = createMock( PropertyResolver.class );
+        expect( propertyResolver.get( "org.ops4j.pax.runner.platform.cacheSize" ) ).andReturn( "" );
+
+        replay( propertyResolver );
+        Configuration config = new ConfigurationImpl( propertyResolver );
+        assertNull( "Cache size", config.getCacheSize() );
+        verify( propertyResolver );
+    }
+
 }
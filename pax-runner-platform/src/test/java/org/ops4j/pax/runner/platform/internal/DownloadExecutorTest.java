@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.ops4j.pax.runner.platform.PlatformException;
+
+public class DownloadExecutorTest
+{
+
+    // test that results are returned in the order of downloads even if later downloads finish first
+    @Test
+    public void executeConcurrentlyKeepsOrder()
+        throws Exception
+    {
+        final List<Callable<Integer>> downloads = new ArrayList<Callable<Integer>>();
+        for( int i = 0; i < 10; i++ )
+        {
+            downloads.add( new SleepingDownload( i, 10 - i ) );
+        }
+        final List<Integer> results = new DownloadExecutor( 4 ).execute( downloads );
+        assertEquals( "Number of results", 10, results.size() );
+        for( int i = 0; i < 10; i++ )
+        {
+            assertEquals( "Result", Integer.valueOf( i ), results.get( i ) );
+        }
+    }
+
+    // test that the first failing download (in order) is the one reported
+    @Test
+    public void executeConcurrentlyRethrowsFirstFailure()
+        throws Exception
+    {
+        final List<Callable<Integer>> downloads = new ArrayList<Callable<Integer>>();
+        downloads.add( new SleepingDownload( 0, 0 ) );
+        downloads.add( new FailingDownload( "first", 50 ) );
+        downloads.add( new FailingDownload( "second", 0 ) );
+        try
+        {
+            new DownloadExecutor( 3 ).execute( downloads );
+            fail( "Expected a PlatformException" );
+        }
+        catch( PlatformException e )
+        {
+            assertEquals( "Failure", "first", e.getMessage() );
+        }
+    }
+
+    // test that with one thread the downloads are executed sequentially
+    @Test
+    public void executeSequentially()
+        throws Exception
+    {
+        final List<Callable<Integer>> downloads = new ArrayList<Callable<Integer>>();
+        downloads.add( new SleepingDownload( 1, 0 ) );
+        downloads.add( new SleepingDownload( 2, 0 ) );
+        final DownloadExecutor executor = new DownloadExecutor( 0 );
+        assertFalse( "Concurrent", executor.isConcurrent() );
+        final List<Integer> results = executor.execute( downloads );
+        assertEquals( "Result", Integer.valueOf( 1 ), results.get( 0 ) );
+        assertEquals( "Result", Integer.valueOf( 2 ), results.get( 1 ) );
+    }
+
+    // test that downloads are executed in start level order but results are returned in submit order
+    @Test
+    public void executeByStartLevel()
+        throws Exception
+    {
+        final List<Integer> executed = Collections.synchronizedList( new ArrayList<Integer>() );
+        final List<Callable<Integer>> downloads = new ArrayList<Callable<Integer>>();
+        downloads.add( new DownloadExecutor.Download<Integer>( new RecordingDownload( 0, executed ), null, null ) );
+        downloads.add( new DownloadExecutor.Download<Integer>( new RecordingDownload( 1, executed ), null, 5 ) );
+        downloads.add( new DownloadExecutor.Download<Integer>( new RecordingDownload( 2, executed ), null, 1 ) );
+        downloads.add( new DownloadExecutor.Download<Integer>( new RecordingDownload( 3, executed ), null, 5 ) );
+        final List<Integer> results = new DownloadExecutor( 1 ).execute( downloads );
+        assertEquals( "Execution order", Arrays.asList( 2, 1, 3, 0 ), executed );
+        assertEquals( "Results order", Arrays.asList( 0, 1, 2, 3 ), results );
+    }
+
+    // test that no more then the configured number of downloads are executed concurrently from the same host
+    @Test
+    public void executeConcurrentlyLimitedPerHost()
+        throws Exception
+    {
+        final HostCounter counter = new HostCounter();
+        final List<Callable<Integer>> downloads = new ArrayList<Callable<Integer>>();
+        for( int i = 0; i < 12; i++ )
+        {
+            final URL url = new URL( "http://host" + ( i % 2 ) + "/bundle" + i + ".jar" );
+            downloads.add(
+                new DownloadExecutor.Download<Integer>(
+                    new CountingDownload( i, DownloadExecutor.Download.hostOf( url ), counter ), url, null
+                )
+            );
+        }
+        final List<Integer> results = new DownloadExecutor( 8, 2 ).execute( downloads );
+        assertEquals( "Number of results", 12, results.size() );
+        assertEquals( "Maximum per host", 2, counter.m_maximum );
+    }
+
+    // test that urls that do not name a host (as mvn:) are not limited per host but only by the download threads
+    @Test
+    public void executeConcurrentlyNotLimitedWithoutHost()
+        throws Exception
+    {
+        final int count = 8;
+        final CountDownLatch started = new CountDownLatch( count );
+        final List<Callable<Boolean>> downloads = new ArrayList<Callable<Boolean>>();
+        for( int i = 0; i < count; i++ )
+        {
+            downloads.add(
+                new DownloadExecutor.Download<Boolean>(
+                    new Callable<Boolean>()
+                    {
+                        public Boolean call()
+                            throws Exception
+                        {
+                            started.countDown();
+                            return started.await( 10, TimeUnit.SECONDS );
+                        }
+                    },
+                    mvnURL( "mvn:org.ops4j.pax/bundle" + i + "/1.0" ), 5
+                )
+            );
+        }
+        final List<Boolean> results = new DownloadExecutor( count, 4 ).execute( downloads );
+        assertFalse( "All downloads running at the same time", results.contains( Boolean.FALSE ) );
+    }
+
+    // test that on failure the first failed download in execution (start level) order is reported
+    @Test
+    public void executeConcurrentlyRethrowsFirstFailureByStartLevel()
+        throws Exception
+    {
+        final List<Callable<Integer>> downloads = new ArrayList<Callable<Integer>>();
+        downloads.add( new DownloadExecutor.Download<Integer>( new FailingDownload( "late", 0 ), null, 5 ) );
+        downloads.add( new DownloadExecutor.Download<Integer>( new FailingDownload( "early", 50 ), null, 1 ) );
+        try
+        {
+            new DownloadExecutor( 2 ).execute( downloads );
+            fail( "Expected a PlatformException" );
+        }
+        catch( PlatformException e )
+        {
+            assertEquals( "Failure", "early", e.getMessage() );
+        }
+    }
+
+    // test hosts of urls
+    @Test
+    public void hostOf()
+        throws Exception
+    {
+        assertEquals(
+            "Http", "http://repo:-1", DownloadExecutor.Download.hostOf( new URL( "http://repo/a.jar" ) )
+        );
+        assertNull( "File", DownloadExecutor.Download.hostOf( new URL( "file:/a.jar" ) ) );
+        assertNull( "Mvn", DownloadExecutor.Download.hostOf( mvnURL( "mvn:org.ops4j.pax/bundle/1.0" ) ) );
+        assertEquals(
+            "Mvn with repository", "http://repo",
+            DownloadExecutor.Download.hostOf( mvnURL( "mvn:http://repo/maven2!org.ops4j.pax/bundle/1.0" ) )
+        );
+    }
+
+    private static URL mvnURL( final String spec )
+        throws Exception
+    {
+        return new URL( null, spec, new URLStreamHandler()
+        {
+            @Override
+            protected URLConnection openConnection( final URL url )
+                throws IOException
+            {
+                throw new IOException( "Not expected to be opened" );
+            }
+        }
+        );
+    }
+
+    private static class SleepingDownload
+        implements Callable<Integer>
+    {
+
+        private final int m_result;
+        private final long m_sleep;
+
+        SleepingDownload( final int result, final long sleep )
+        {
+            m_result = result;
+            m_sleep = sleep;
+        }
+
+        public Integer call()
+            throws Exception
+        {
+            Thread.sleep( m_sleep );
+            return m_result;
+        }
+
+    }
+
+    private static class RecordingDownload
+        implements Callable<Integer>
+    {
+
+        private final int m_result;
+        private final List<Integer> m_executed;
+
+        RecordingDownload( final int result, final List<Integer> executed )
+        {
+            m_result = result;
+            m_executed = executed;
+        }
+
+        public Integer call()
+        {
+            m_executed.add( m_result );
+            return m_result;
+        }
+
+    }
+
+    private static class HostCounter
+    {
+
+        private final Map<String, Integer> m_running = new HashMap<String, Integer>();
+        private int m_maximum;
+
+        synchronized void start( final String host )
+        {
+            final Integer running = m_running.get( host );
+            final int current = running == null ? 1 : running + 1;
+            m_running.put( host, current );
+            m_maximum = Math.max( m_maximum, current );
+        }
+
+        synchronized void stop( final String host )
+        {
+            m_running.put( host, m_running.get( host ) - 1 );
+        }
+
+    }
+
+    private static class CountingDownload
+        implements Callable<Integer>
+    {
+
+        private final int m_result;
+        private final String m_host;
+        private final HostCounter m_counter;
+
+        CountingDownload( final int result, final String host, final HostCounter counter )
+        {
+            m_result = result;
+            m_host = host;
+            m_counter = counter;
+        }
+
+        public Integer call()
+            throws Exception
+        {
+            m_counter.start( m_host );
+            try
+            {
+                Thread.sleep( 20 );
+            }
+            finally
+            {
+                m_counter.stop( m_host );
+            }
+            return m_result;
+        }
+
+    }
+
+    private static class FailingDownload
+        implements Callable<Integer>
+    {
+
+        private final String m_message;
+        private final long m_sleep;
+
+        FailingDownload( final String message, final long sleep )
+        {
+            m_message = message;
+            m_sleep = sleep;
+        }
+
+        public Integer call()
+            throws Exception
+        {
+            Thread.sleep( m_sleep );
+            throw new PlatformException( m_message );
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class DownloadIndexTest
+{
+
+    private File m_workDir;
+    private File m_file;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+        m_file = new File( m_workDir, "bundles/downloaded_bundles.properties" );
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that changes are not saved before flush
+    @Test
+    public void putWithoutFlush()
+        throws Exception
+    {
+        final DownloadIndex index = new DownloadIndex( m_file );
+        index.put( "file:bundle.jar", "bundle.jar" );
+        assertEquals( "Value", "bundle.jar", index.get( "file:bundle.jar" ) );
+        assertFalse( "Index file exists", m_file.exists() );
+    }
+
+    // test that flushed changes can be read by a new index
+    @Test
+    public void putAndFlush()
+        throws Exception
+    {
+        final DownloadIndex index = new DownloadIndex( m_file );
+        index.put( "file:bundle.jar", "bundle.jar" );
+        index.flush();
+        assertEquals( "Value", "bundle.jar", new DownloadIndex( m_file ).get( "file:bundle.jar" ) );
+        assertFalse( "Temporary file exists", new File( m_file.getPath() + ".tmp" ).exists() );
+    }
+
+    // test that flush keeps entries written to the file after the index was loaded
+    @Test
+    public void flushMergesChanges()
+        throws Exception
+    {
+        final Properties initial = new Properties();
+        initial.setProperty( "file:first.jar", "first.jar" );
+        initial.setProperty( "file:removed.jar", "removed.jar" );
+        DownloadIndex.store( initial, m_file );
+
+        final DownloadIndex index = new DownloadIndex( m_file );
+        assertEquals( "Value", "first.jar", index.get( "file:first.jar" ) );
+
+        final DownloadIndex other = new DownloadIndex( m_file );
+        other.put( "file:second.jar", "second.jar" );
+        other.flush();
+
+        index.put( "file:third.jar", "third.jar" );
+        index.remove( "file:removed.jar" );
+        index.flush();
+
+        final Properties saved = DownloadIndex.load( m_file );
+        assertEquals( "Entries", 3, saved.size() );
+        assertEquals( "first.jar", saved.getProperty( "file:first.jar" ) );
+        assertEquals( "second.jar", saved.getProperty( "file:second.jar" ) );
+        assertEquals( "third.jar", saved.getProperty( "file:third.jar" ) );
+    }
+
+    // test that an index without changes does not write the file
+    @Test
+    public void flushWithoutChanges()
+        throws Exception
+    {
+        final DownloadIndex index = new DownloadIndex( m_file );
+        assertNull( "Value", index.get( "file:bundle.jar" ) );
+        index.flush();
+        assertFalse( "Index file exists", m_file.exists() );
+    }
+
+}
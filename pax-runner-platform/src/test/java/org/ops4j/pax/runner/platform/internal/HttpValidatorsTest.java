@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLConnection;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class HttpValidatorsTest
+{
+
+    private static final String ETAG = "\"v1\"";
+    private static final byte[] CONTENT = "content".getBytes();
+
+    private File m_workDir;
+    private HttpServer m_server;
+    private URL m_url;
+    private int m_downloads;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+        m_server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+        m_server.createContext( "/bundle.jar", new HttpHandler()
+        {
+            public void handle( final HttpExchange exchange )
+                throws IOException
+            {
+                if( ETAG.equals( exchange.getRequestHeaders().getFirst( "If-None-Match" ) ) )
+                {
+                    exchange.sendResponseHeaders( 304, -1 );
+                }
+                else
+                {
+                    m_downloads++;
+                    exchange.getResponseHeaders().add( "ETag", ETAG );
+                    exchange.sendResponseHeaders( 200, CONTENT.length );
+                    final OutputStream out = exchange.getResponseBody();
+                    out.write( CONTENT );
+                    out.close();
+                }
+                exchange.close();
+            }
+        }
+        );
+        m_server.start();
+        m_url = new URL( "http://localhost:" + m_server.getAddress().getPort() + "/bundle.jar" );
+    }
+
+    @After
+    public void tearDown()
+    {
+        m_server.stop( 0 );
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that an url with known validators is not downloaded again
+    @Test
+    public void notModified()
+        throws Exception
+    {
+        final File indexFile = new File( m_workDir, "http_validators.properties" );
+        final HttpValidators validators = new HttpValidators( indexFile );
+        final URLConnection first = validators.openConnection( m_url, true );
+        assertFalse( "Not modified", validators.isNotModified( first ) );
+        consume( first );
+        validators.update( m_url, first );
+        validators.flush();
+
+        final HttpValidators reloaded = new HttpValidators( indexFile );
+        assertTrue( "Not modified", reloaded.isNotModified( reloaded.openConnection( m_url, true ) ) );
+        assertEquals( "Downloads", 1, m_downloads );
+    }
+
+    // test that a non conditional connection downloads the url even if validators are known
+    @Test
+    public void notConditional()
+        throws Exception
+    {
+        final HttpValidators validators = new HttpValidators( new File( m_workDir, "http_validators.properties" ) );
+        final URLConnection first = validators.openConnection( m_url, true );
+        consume( first );
+        validators.update( m_url, first );
+
+        final URLConnection second = validators.openConnection( m_url, false );
+        assertFalse( "Not modified", validators.isNotModified( second ) );
+        consume( second );
+        assertEquals( "Downloads", 2, m_downloads );
+    }
+
+    private static void consume( final URLConnection connection )
+        throws IOException
+    {
+        final InputStream in = connection.getInputStream();
+        while( in.read() != -1 )
+        {
+            // consume
+        }
+        in.close();
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class LocalArtifactsTest
+{
+
+    private File m_repository;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_repository = File.createTempFile( "runner", "" );
+        m_repository.delete();
+        m_repository.mkdirs();
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_repository );
+    }
+
+    // test paths of maven urls in a maven repository
+    @Test
+    public void repositoryPath()
+    {
+        assertEquals(
+            "Jar", "org/ops4j/bundle/1.0/bundle-1.0.jar", LocalArtifacts.repositoryPath( "org.ops4j/bundle/1.0" )
+        );
+        assertEquals(
+            "Type and classifier", "org/ops4j/bundle/1.0-SNAPSHOT/bundle-1.0-SNAPSHOT-jdk5.zip",
+            LocalArtifacts.repositoryPath( "org.ops4j/bundle/1.0-SNAPSHOT/zip/jdk5" )
+        );
+        assertEquals(
+            "Default type", "org/ops4j/bundle/1.0/bundle-1.0-jdk5.jar",
+            LocalArtifacts.repositoryPath( "org.ops4j/bundle/1.0//jdk5" )
+        );
+        assertNull( "No version", LocalArtifacts.repositoryPath( "org.ops4j/bundle" ) );
+        assertNull( "Latest version", LocalArtifacts.repositoryPath( "org.ops4j/bundle/LATEST" ) );
+        assertNull( "Version range", LocalArtifacts.repositoryPath( "org.ops4j/bundle/[1.0,2.0)" ) );
+        assertNull( "Repository", LocalArtifacts.repositoryPath( "http://repo@id!org.ops4j/bundle/1.0" ) );
+    }
+
+    // test that maven urls are resolved only if available in the local repository
+    @Test
+    public void resolveMavenArtifact()
+        throws Exception
+    {
+        final File artifact = new File( m_repository, "org/ops4j/bundle/1.0/bundle-1.0.jar" );
+        artifact.getParentFile().mkdirs();
+        new FileOutputStream( artifact ).close();
+        final LocalArtifacts localArtifacts = new LocalArtifacts( LocalArtifacts.LINK, m_repository );
+
+        assertEquals( "Available", artifact, localArtifacts.resolve( mvnURL( "org.ops4j/bundle/1.0" ) ) );
+        assertNull( "Not available", localArtifacts.resolve( mvnURL( "org.ops4j/bundle/1.1" ) ) );
+        assertFalse( "Linked", localArtifacts.isInPlace() );
+    }
+
+    // test that file urls are resolved only if the file exists
+    @Test
+    public void resolveFile()
+        throws Exception
+    {
+        final File file = new File( m_repository, "bundle.jar" );
+        new FileOutputStream( file ).close();
+        final LocalArtifacts localArtifacts = new LocalArtifacts( LocalArtifacts.REFERENCE, null );
+
+        assertEquals( "Existing file", file, localArtifacts.resolve( file.toURI().toURL() ) );
+        assertNull( "Missing file", localArtifacts.resolve( new File( m_repository, "missing.jar" ).toURI().toURL() ) );
+        assertNull( "Remote url", localArtifacts.resolve( new URL( "http://repo/bundle.jar" ) ) );
+        assertTrue( "In place", localArtifacts.isInPlace() );
+    }
+
+    // test local repository location
+    @Test
+    public void localRepository()
+    {
+        assertEquals( "Path", m_repository, LocalArtifacts.localRepository( m_repository.getPath() ) );
+        assertEquals(
+            "File url", m_repository.getAbsoluteFile(), LocalArtifacts.localRepository( m_repository.toURI().toString() )
+        );
+        assertEquals(
+            "Default", new File( System.getProperty( "user.home" ), ".m2/repository" ),
+            LocalArtifacts.localRepository( null )
+        );
+    }
+
+    private static URL mvnURL( final String path )
+        throws Exception
+    {
+        return new URL( null, "mvn:" + path, new URLStreamHandler()
+        {
+            protected URLConnection openConnection( final URL url )
+            {
+                throw new UnsupportedOperationException();
+            }
+        }
+        );
+    }
+
+}
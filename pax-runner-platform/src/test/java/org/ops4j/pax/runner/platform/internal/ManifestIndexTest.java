@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class ManifestIndexTest
+{
+
+    private File m_workDir;
+    private File m_indexFile;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+        m_indexFile = new File( m_workDir, "manifests.properties" );
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that manifest headers are read from the jar
+    @Test
+    public void readBundle()
+        throws Exception
+    {
+        final ManifestIndex.Entry entry =
+            ManifestIndex.read( FileUtils.getFileFromClasspath( "platform/bundleWithVersion.jar" ) );
+        assertTrue( "Has manifest", entry.hasManifest() );
+        assertEquals( "Symbolic name", "bundle2", entry.getSymbolicName() );
+        assertEquals( "Version", "1.2.3", entry.getVersion() );
+    }
+
+    // test that an invalid jar is read as a file without manifest
+    @Test
+    public void readInvalidFile()
+        throws Exception
+    {
+        final ManifestIndex.Entry entry =
+            ManifestIndex.read( FileUtils.getFileFromClasspath( "platform/invalid.jar" ) );
+        assertFalse( "Has manifest", entry.hasManifest() );
+        assertNull( "Symbolic name", entry.getSymbolicName() );
+    }
+
+    // test that an unchanged file is not read again by a new index
+    @Test
+    public void getFromFlushedIndex()
+        throws Exception
+    {
+        final File jar = new File( m_workDir, "bundle.jar" );
+        LinkUtils.copy( FileUtils.getFileFromClasspath( "platform/bundleWithVersion.jar" ), jar );
+        final ManifestIndex index = new ManifestIndex( m_indexFile );
+        assertEquals( "Symbolic name", "bundle2", index.get( jar ).getSymbolicName() );
+        index.flush();
+
+        // replace the content keeping size and modification time, so only the index can provide the headers
+        final long lastModified = jar.lastModified();
+        final byte[] garbage = new byte[(int) jar.length()];
+        final FileOutputStream out = new FileOutputStream( jar );
+        out.write( garbage );
+        out.close();
+        jar.setLastModified( lastModified );
+
+        final ManifestIndex.Entry entry = new ManifestIndex( m_indexFile ).get( jar );
+        assertTrue( "Has manifest", entry.hasManifest() );
+        assertEquals( "Symbolic name", "bundle2", entry.getSymbolicName() );
+        assertEquals( "Version", "1.2.3", entry.getVersion() );
+    }
+
+    // test that a changed file is read again
+    @Test
+    public void getChangedFile()
+        throws Exception
+    {
+        final File jar = new File( m_workDir, "bundle.jar" );
+        LinkUtils.copy( FileUtils.getFileFromClasspath( "platform/bundleWithVersion.jar" ), jar );
+        final ManifestIndex index = new ManifestIndex( m_indexFile );
+        assertEquals( "Symbolic name", "bundle2", index.get( jar ).getSymbolicName() );
+
+        LinkUtils.copy( FileUtils.getFileFromClasspath( "platform/invalid.jar" ), jar );
+        jar.setLastModified( jar.lastModified() + 2000 );
+        assertFalse( "Has manifest", index.get( jar ).hasManifest() );
+    }
+
+    // test that the entry of a renamed file is kept
+    @Test
+    public void rename()
+        throws Exception
+    {
+        final File jar = new File( m_workDir, "bundle.jar" );
+        LinkUtils.copy( FileUtils.getFileFromClasspath( "platform/bundleWithVersion.jar" ), jar );
+        final ManifestIndex index = new ManifestIndex( m_indexFile );
+        index.get( jar );
+        final File renamed = new File( m_workDir, "bundle2_1.2.3.jar" );
+        assertTrue( "Renamed", jar.renameTo( renamed ) );
+        index.rename( jar, renamed );
+        index.flush();
+
+        final DownloadIndex saved = new DownloadIndex( m_indexFile );
+        assertNull( "Old entry", saved.get( "bundle.jar.symbolicName" ) );
+        assertEquals( "New entry", "bundle2", saved.get( "bundle2_1.2.3.jar.symbolicName" ) );
+    }
+
+}
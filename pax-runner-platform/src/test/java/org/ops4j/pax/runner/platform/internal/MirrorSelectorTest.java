@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class MirrorSelectorTest
+{
+
+    private File m_workDir;
+    private HttpServer m_primary;
+    private HttpServer m_mirror;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+        m_primary = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+        m_mirror = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+        m_mirror.createContext( "/repo/bundle.jar", new ContentHandler( "mirror", 0 ) );
+        m_mirror.start();
+    }
+
+    @After
+    public void tearDown()
+    {
+        m_primary.stop( 0 );
+        m_mirror.stop( 0 );
+        FileUtils.delete( m_workDir );
+    }
+
+    // test parsing of mirrors specification
+    @Test
+    public void parse()
+    {
+        final Map<String, List<String>> mirrors = MirrorSelector.parse(
+            "http://repo1/maven2/=http://mirror1/maven2/|http://mirror2/maven2/, http://repo2/=http://mirror3/,invalid"
+        );
+        assertEquals( "Prefixes", 2, mirrors.size() );
+        assertEquals( "Mirrors", 2, mirrors.get( "http://repo1/maven2/" ).size() );
+        assertEquals( "Mirror", "http://mirror3/", mirrors.get( "http://repo2/" ).get( 0 ) );
+    }
+
+    // test that candidates are the original url followed by mirrors of the longest matching prefix
+    @Test
+    public void candidates()
+        throws Exception
+    {
+        final MirrorSelector selector = new MirrorSelector(
+            "http://repo/=http://mirror1/,http://repo/maven2/=http://mirror2/maven2/",
+            0,
+            new File( m_workDir, "mirrors.properties" )
+        );
+        final List<URL> candidates = selector.candidates( new URL( "http://repo/maven2/a/b.jar" ) );
+        assertEquals( "Candidates", 2, candidates.size() );
+        assertEquals( "Original", "http://repo/maven2/a/b.jar", candidates.get( 0 ).toExternalForm() );
+        assertEquals( "Mirror", "http://mirror2/maven2/a/b.jar", candidates.get( 1 ).toExternalForm() );
+        assertEquals( "No mirrors", 1, selector.candidates( new URL( "http://other/b.jar" ) ).size() );
+    }
+
+    // test that a mirror is used when the original url does not respond in time and is recorded as fastest
+    @Test
+    public void connectToFasterMirror()
+        throws Exception
+    {
+        m_primary.createContext( "/repo/bundle.jar", new ContentHandler( "primary", 2000 ) );
+        m_primary.start();
+        final String primary = "http://localhost:" + m_primary.getAddress().getPort() + "/repo/";
+        final String mirror = "http://localhost:" + m_mirror.getAddress().getPort() + "/repo/";
+        final File index = new File( m_workDir, "mirrors.properties" );
+        final MirrorSelector selector = new MirrorSelector( primary + "=" + mirror, 100, index );
+        final URL url = new URL( primary + "bundle.jar" );
+        final MirrorSelector.Connection connection = selector.connect( url );
+        assertEquals( "Source", mirror + "bundle.jar", connection.getSource().toExternalForm() );
+        assertEquals( "Content", "mirror", read( connection.getConnection().getInputStream() ) );
+        selector.flush();
+
+        final MirrorSelector next = new MirrorSelector( primary + "=" + mirror, 100, index );
+        assertEquals( "Fastest first", mirror + "bundle.jar", next.candidates( url ).get( 0 ).toExternalForm() );
+    }
+
+    // test that a mirror is used when the original url fails
+    @Test
+    public void connectFailsOver()
+        throws Exception
+    {
+        m_primary.start();
+        final String primary = "http://localhost:" + m_primary.getAddress().getPort() + "/repo/";
+        final String mirror = "http://localhost:" + m_mirror.getAddress().getPort() + "/repo/";
+        final MirrorSelector selector = new MirrorSelector(
+            primary + "=" + mirror, 10000, new File( m_workDir, "mirrors.properties" )
+        );
+        final MirrorSelector.Connection connection = selector.connect( new URL( primary + "bundle.jar" ) );
+        assertEquals( "Content", "mirror", read( connection.getConnection().getInputStream() ) );
+    }
+
+    // test that after shutdown urls without mirrors are still connected but mirrors are no longer attempted
+    @Test
+    public void connectAfterShutdown()
+        throws Exception
+    {
+        final String primary = "http://localhost:" + m_primary.getAddress().getPort() + "/repo/";
+        final String mirror = "http://localhost:" + m_mirror.getAddress().getPort() + "/repo/";
+        final MirrorSelector selector = new MirrorSelector(
+            primary + "=" + mirror, 100, new File( m_workDir, "mirrors.properties" )
+        );
+        selector.shutdown();
+        final MirrorSelector.Connection connection = selector.connect( new URL( mirror + "bundle.jar" ) );
+        assertEquals( "Content", "mirror", read( connection.getConnection().getInputStream() ) );
+        try
+        {
+            selector.connect( new URL( primary + "bundle.jar" ) );
+            fail( "Expected connection attempts to be rejected after shutdown" );
+        }
+        catch( RejectedExecutionException expected )
+        {
+            // expected
+        }
+    }
+
+    private static String read( final InputStream in )
+        throws IOException
+    {
+        final StringBuilder content = new StringBuilder();
+        int b;
+        while( ( b = in.read() ) != -1 )
+        {
+            content.append( (char) b );
+        }
+        in.close();
+        return content.toString();
+    }
+
+    private static class ContentHandler
+        implements HttpHandler
+    {
+
+        private final String m_content;
+        private final long m_delay;
+
+        ContentHandler( final String content, final long delay )
+        {
+            m_content = content;
+            m_delay = delay;
+        }
+
+        public void handle( final HttpExchange exchange )
+            throws IOException
+        {
+            try
+            {
+                Thread.sleep( m_delay );
+            }
+            catch( InterruptedException ignore )
+            {
+                // ignore
+            }
+            final byte[] content = m_content.getBytes( "US-ASCII" );
+            exchange.sendResponseHeaders( 200, content.length );
+            final OutputStream out = exchange.getResponseBody();
+            out.write( content );
+            out.close();
+            exchange.close();
+        }
+
+    }
+
+}
@@ -50,6 +50,7 @@ public class PlatformImplTest
     private PlatformContext m_context;
     private BundleContext m_bundleContext;
     private Bundle m_bundle;
+    private URL m_platformBundle;
 
     @Before
     public void setUp()
@@ -61,6 +62,7 @@ public class PlatformImplTest
         m_context = createMock( PlatformContext.class );
         m_bundleContext = createMock( BundleContext.class );
         m_bundle = createMock( Bundle.class );
+        m_platformBundle = FileUtils.getFileFromClasspath( "platform/platform.jar" ).toURL();
         File workDir = File.createTempFile( "runner", "" );
         m_workDir = workDir.getAbsolutePath();
         workDir.delete();
@@ -92,6 +94,60 @@ public class PlatformImplTest
         start( bundles );
     }
 
+    // test that bundles downloaded concurrently are provisioned in the same order as requested
+    @Test
+    public void startWithBundlesDownloadedConcurrently()
+        throws Exception
+    {
+        List<BundleReference> bundles = new ArrayList<BundleReference>();
+        bundles.add( new BundleReferenceBean( FileUtils.getFileFromClasspath( "platform/bundle1.jar" ).toURL() ) );
+        bundles.add( new BundleReferenceBean( FileUtils.getFileFromClasspath( "platform/bundle2.jar" ).toURL() ) );
+        bundles.add( new BundleReferenceBean( FileUtils.getFileFromClasspath( "platform/bundleWithVersion.jar" ).toURL() ) );
+        final List<BundleReference> installed = start( bundles, 4 );
+        assertEquals( "Number of installed bundles", 4, installed.size() );
+        assertTrue( "Platform bundle", installed.get( 0 ).getName().endsWith( "platform.jar" ) );
+        for( int i = 0; i < bundles.size(); i++ )
+        {
+            assertEquals( "Installed bundle", bundles.get( i ).getName(), installed.get( i + 1 ).getName() );
+        }
+    }
+
+    // test that the same bundle provisioned under different urls is installed only once
+    @Test
+    public void startWithDuplicateBundles()
+        throws Exception
+    {
+        final File bundle = FileUtils.getFileFromClasspath( "platform/bundleWithVersion.jar" );
+        final File copy = new File( m_workDir, "local/bundleWithVersion.jar" );
+        copy.getParentFile().mkdirs();
+        LinkUtils.copy( bundle, copy );
+        List<BundleReference> bundles = new ArrayList<BundleReference>();
+        bundles.add( new BundleReferenceBean( bundle.toURL() ) );
+        bundles.add( new BundleReferenceBean( FileUtils.getFileFromClasspath( "platform/bundle1.jar" ).toURL() ) );
+        bundles.add( new BundleReferenceBean( copy.toURL() ) );
+        final List<BundleReference> installed = start( bundles, 1 );
+        assertEquals( "Number of installed bundles", 3, installed.size() );
+        assertEquals( "Installed bundle", bundles.get( 1 ).getName(), installed.get( 2 ).getName() );
+    }
+
+    // test that a user bundle that is the same as a platform bundle is installed, keeping its options
+    @Test
+    public void startWithUserBundleDuplicatingPlatformBundle()
+        throws Exception
+    {
+        final File bundle = FileUtils.getFileFromClasspath( "platform/bundleWithVersion.jar" );
+        final File copy = new File( m_workDir, "local/bundleWithVersion.jar" );
+        copy.getParentFile().mkdirs();
+        LinkUtils.copy( bundle, copy );
+        m_platformBundle = bundle.toURL();
+        List<BundleReference> bundles = new ArrayList<BundleReference>();
+        bundles.add( new BundleReferenceBean( "user", copy.toURL(), 5, true, false ) );
+        final List<BundleReference> installed = start( bundles, 1 );
+        assertEquals( "Number of installed bundles", 2, installed.size() );
+        assertEquals( "Start level", Integer.valueOf( 5 ), installed.get( 1 ).getStartLevel() );
+        assertEquals( "Should start", Boolean.TRUE, installed.get( 1 ).shouldStart() );
+    }
+
     // test that platform starts even without bundles to be installed
     @Test
     public void startWithoutBundles()
@@ -129,19 +185,161 @@ public class PlatformImplTest
         start( null, FileUtils.getFileFromClasspath( "platform/noManifestAttr.jar" ).toURL() );
     }
 
+    // test that offline all not cached files are reported without trying to download them
+    @Test
+    public void startOfflineWithNotCachedBundles()
+        throws Exception
+    {
+        List<BundleReference> bundles = new ArrayList<BundleReference>();
+        bundles.add( new BundleReferenceBean( FileUtils.getFileFromClasspath( "platform/bundle1.jar" ).toURL() ) );
+        bundles.add( new BundleReferenceBean( new URL( "http://localhost:1/bundle2.jar" ) ) );
+        bundles.add( new BundleReferenceBean( new URL( "http://localhost:1/bundle3.jar" ) ) );
+        try
+        {
+            start( bundles, FileUtils.getFileFromClasspath( "platform/system.jar" ).toURL(), 1, true );
+            fail( "Expected to fail as bundles are not cached" );
+        }
+        catch( PlatformException e )
+        {
+            assertFalse( "Local bundle reported", e.getMessage().contains( "bundle1.jar" ) );
+            assertTrue( "Missing bundle reported", e.getMessage().contains( "http://localhost:1/bundle2.jar" ) );
+            assertTrue( "Missing bundle reported", e.getMessage().contains( "http://localhost:1/bundle3.jar" ) );
+        }
+    }
+
+    // test that offline bundles already downloaded are used
+    @Test
+    public void startOfflineWithCachedBundles()
+        throws Exception
+    {
+        final URL url = new URL( "http://localhost:1/bundle1.jar" );
+        final File bundle = FileUtils.getFileFromClasspath( "platform/bundle1.jar" );
+        final String cachingName = new PlatformImpl( m_builder ).determineCachingName(
+            bundle, "" + url.toExternalForm().hashCode()
+        );
+        final File cached = new File( m_workDir, "bundles/" + cachingName );
+        cached.getParentFile().mkdirs();
+        LinkUtils.copy( bundle, cached );
+        final DownloadIndex index = new DownloadIndex( new File( m_workDir, "bundles/downloaded_bundles.properties" ) );
+        index.put( url.toExternalForm(), cachingName );
+        index.flush();
+
+        List<BundleReference> bundles = new ArrayList<BundleReference>();
+        bundles.add( new BundleReferenceBean( url ) );
+        final List<BundleReference> installed = start(
+            bundles, FileUtils.getFileFromClasspath( "platform/system.jar" ).toURL(), 1, true
+        );
+        assertEquals( "Number of installed bundles", 2, installed.size() );
+        assertTrue( "Cached bundle", installed.get( 1 ).getURL().getPath().endsWith( cachingName ) );
+    }
+
+    // test that prefetching downloads the bundles but does not prepare and start the platform
+    @Test
+    public void startPrefetch()
+        throws Exception
+    {
+        List<BundleReference> bundles = new ArrayList<BundleReference>();
+        bundles.add( new BundleReferenceBean( FileUtils.getFileFromClasspath( "platform/bundle1.jar" ).toURL() ) );
+        start( bundles, FileUtils.getFileFromClasspath( "platform/system.jar" ).toURL(), 1, false, true );
+        final File[] downloaded = new File( m_workDir, "bundles" ).listFiles();
+        int jars = 0;
+        for( File file : downloaded )
+        {
+            if( file.getName().endsWith( ".jar" ) )
+            {
+                jars++;
+            }
+        }
+        assertEquals( "Downloaded jars", 3, jars );
+    }
+
+    // test that local bundles are linked to the working directory
+    @Test
+    public void startWithLinkedLocalBundles()
+        throws Exception
+    {
+        final File bundle = FileUtils.getFileFromClasspath( "platform/bundle1.jar" );
+        List<BundleReference> bundles = new ArrayList<BundleReference>();
+        bundles.add( new BundleReferenceBean( bundle.toURL() ) );
+        final List<BundleReference> installed = start(
+            bundles, FileUtils.getFileFromClasspath( "platform/system.jar" ).toURL(), 1, false, false, LocalArtifacts.LINK
+        );
+        assertEquals( "Number of installed bundles", 2, installed.size() );
+        final File linked = new File( installed.get( 1 ).getURL().toURI() );
+        assertEquals( "Linked bundle directory", new File( m_workDir, "bundles" ), linked.getParentFile() );
+        assertEquals( "Linked bundle size", bundle.length(), linked.length() );
+        assertEquals( "Linked bundle last modified", bundle.lastModified(), linked.lastModified() );
+    }
+
+    // test that local bundles are used in place
+    @Test
+    public void startWithLocalBundlesInPlace()
+        throws Exception
+    {
+        final File bundle = FileUtils.getFileFromClasspath( "platform/bundle1.jar" );
+        List<BundleReference> bundles = new ArrayList<BundleReference>();
+        bundles.add( new BundleReferenceBean( bundle.toURL() ) );
+        final List<BundleReference> installed = start(
+            bundles, FileUtils.getFileFromClasspath( "platform/system.jar" ).toURL(), 1, false, false,
+            LocalArtifacts.REFERENCE
+        );
+        assertEquals( "Number of installed bundles", 2, installed.size() );
+        assertEquals( "Bundle in place", bundle.getCanonicalFile(),
+                      new File( installed.get( 1 ).getURL().toURI() ).getCanonicalFile()
+        );
+    }
+
     public void start( final List<BundleReference> bundles )
         throws Exception
     {
         start( bundles, FileUtils.getFileFromClasspath( "platform/system.jar" ).toURL() );
     }
 
-    public void start( final List<BundleReference> bundles, URL systemBundleURL )
+    public List<BundleReference> start( final List<BundleReference> bundles, final int downloadThreads )
+        throws Exception
+    {
+        return start( bundles, FileUtils.getFileFromClasspath( "platform/system.jar" ).toURL(), downloadThreads );
+    }
+
+    public List<BundleReference> start( final List<BundleReference> bundles, URL systemBundleURL )
+        throws Exception
+    {
+        return start( bundles, systemBundleURL, 1 );
+    }
+
+    public List<BundleReference> start( final List<BundleReference> bundles, URL systemBundleURL,
+                                        final int downloadThreads )
+        throws Exception
+    {
+        return start( bundles, systemBundleURL, downloadThreads, false );
+    }
+
+    public List<BundleReference> start( final List<BundleReference> bundles, URL systemBundleURL,
+                                        final int downloadThreads, final boolean offline )
+        throws Exception
+    {
+        return start( bundles, systemBundleURL, downloadThreads, offline, false );
+    }
+
+    public List<BundleReference> start( final List<BundleReference> bundles, URL systemBundleURL,
+                                        final int downloadThreads, final boolean offline, final boolean prefetch )
+        throws Exception
+    {
+        return start( bundles, systemBundleURL, downloadThreads, offline, prefetch, LocalArtifacts.COPY );
+    }
+
+    public List<BundleReference> start( final List<BundleReference> bundles, URL systemBundleURL,
+                                        final int downloadThreads, final boolean offline, final boolean prefetch,
+                                        final String localBundles )
         throws Exception
     {
         final JavaRunner javaRunner = createMock( JavaRunner.class );
-        javaRunner.exec( (String[]) notNull(), (String[]) notNull(), (String) notNull(), (String[]) notNull(),
-                         (String) notNull(), (File) notNull(),(String[]) notNull()
-        );
+        if( !prefetch )
+        {
+            javaRunner.exec( (String[]) notNull(), (String[]) notNull(), (String) notNull(), (String[]) notNull(),
+                             (String) notNull(), (File) notNull(),(String[]) notNull()
+            );
+        }
         final FilePathStrategy filePathStrategy = createMock( FilePathStrategy.class );
 
         expect( m_builder.getMainClassName() ).andReturn( "Main" );
@@ -155,41 +353,55 @@ public class PlatformImplTest
         expect( m_config.isOverwriteUserBundles() ).andReturn( false );
         expect( m_config.isOverwriteSystemBundles() ).andReturn( false );
         expect( m_config.isDownloadFeedback() ).andReturn( false );
+        expect( m_config.isPrefetch() ).andReturn( prefetch );
+        expect( m_config.getDownloadThreads() ).andReturn( downloadThreads );
+        expect( m_config.getDownloadThreadsPerHost() ).andReturn( 4 );
+        expect( m_config.getBundleStore() ).andReturn( null );
+        expect( m_config.isRevalidate() ).andReturn( false );
+        expect( m_config.isOffline() ).andReturn( offline );
+        expect( m_config.getCacheSize() ).andReturn( null );
+        expect( m_config.getMirrors() ).andReturn( null ).anyTimes();
+        expect( m_config.getLocalBundles() ).andReturn( localBundles ).anyTimes();
+        expect( m_config.getProperty( "org.ops4j.pax.url.mvn.localRepository" ) ).andReturn( null ).anyTimes();
         expect( m_config.isAutoWrap() ).andReturn( false );
         expect( m_config.keepOriginalUrls() ).andReturn( false ).anyTimes();
-        expect( m_config.getJavaHome() ).andReturn( "javaHome" );
         expect( m_definition.getSystemPackage() ).andReturn( systemBundleURL );
         expect( m_definition.getSystemPackageName() ).andReturn( "system package" );
         List<BundleReference> platformBundles = new ArrayList<BundleReference>();
-        platformBundles.add(
-            new BundleReferenceBean( FileUtils.getFileFromClasspath( "platform/platform.jar" ).toURL() )
-        );
+        platformBundles.add( new BundleReferenceBean( m_platformBundle ) );
         // from downloadPlatformBundles()
         expect( m_context.getConfiguration() ).andReturn( m_config );
         expect( m_builder.getRequiredProfile( m_context ) ).andReturn( null );
         expect( m_definition.getPlatformBundles( "" ) ).andReturn( platformBundles );
-        // from start()
-        m_context.setBundles( (List<BundleReference>) notNull() );
-        m_builder.prepare( m_context );
         expect( m_config.getProfiles() ).andReturn( null );
-        expect( m_config.getExecutionEnvironment() ).andReturn( "NONE" );
-        expect( m_config.getSystemPackages() ).andReturn( null );
-        expect( m_config.getVMOptions() ).andReturn( new String[]{ "-Xmx512m", "-Xms128m" } );
         expect( m_config.validateBundles() ).andReturn( true ).anyTimes();
         expect( m_config.skipInvalidBundles() ).andReturn( false ).anyTimes();
-        expect( m_context.getFilePathStrategy() ).andReturn( filePathStrategy );
-        expect( filePathStrategy.normalizeAsPath( (File) notNull() ) ).andReturn( null );
-        expect( ( m_definition.getPackages() ) ).andReturn( null );
-        m_context.setSystemPackages( "" );
-        m_context.setExecutionEnvironment( "" );
-        expect( m_builder.getVMOptions( m_context ) ).andReturn( new String[]{ "-Dproperty=value" } );
-        expect( m_config.getEnvOptions( ) ).andReturn( new String[]{ } ).times( 2 );
-        expect( m_config.getClasspath() ).andReturn( "" );
-        expect( m_builder.getArguments( m_context ) ).andReturn( new String[]{ "arg1" } );
+        final Capture<List<BundleReference>> installed = new Capture<List<BundleReference>>();
+        // prefetching stops after downloading
+        if( !prefetch )
+        {
+            // from start()
+            m_context.setBundles( Capture.capture( installed ) );
+            m_builder.prepare( m_context );
+            expect( m_config.getExecutionEnvironment() ).andReturn( "NONE" );
+            expect( m_config.getSystemPackages() ).andReturn( null );
+            expect( m_config.getVMOptions() ).andReturn( new String[]{ "-Xmx512m", "-Xms128m" } );
+            expect( m_context.getFilePathStrategy() ).andReturn( filePathStrategy );
+            expect( filePathStrategy.normalizeAsPath( (File) notNull() ) ).andReturn( null );
+            expect( ( m_definition.getPackages() ) ).andReturn( null );
+            m_context.setSystemPackages( "" );
+            m_context.setExecutionEnvironment( "" );
+            expect( m_builder.getVMOptions( m_context ) ).andReturn( new String[]{ "-Dproperty=value" } );
+            expect( m_config.getEnvOptions( ) ).andReturn( new String[]{ } ).times( 2 );
+            expect( m_config.getClasspath() ).andReturn( "" );
+            expect( m_builder.getArguments( m_context ) ).andReturn( new String[]{ "arg1" } );
+            expect( m_config.getJavaHome() ).andReturn( "javaHome" );
+        }
 
         replay( m_builder, m_definition, m_config, m_context, m_bundleContext, m_bundle, javaRunner, filePathStrategy );
         new TestPlatform().start( null, bundles, null, null, javaRunner );
         verify( m_builder, m_definition, m_config, m_context, m_bundleContext, m_bundle, javaRunner, filePathStrategy );
+        return prefetch ? null : installed.getCaptured();
     }
 
     @Test( expected = PlatformException.class )
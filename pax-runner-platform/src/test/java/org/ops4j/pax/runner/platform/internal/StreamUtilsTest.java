@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.platform.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+
+public class StreamUtilsTest
+{
+
+    private File m_workDir;
+    private byte[] m_content;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+        m_content = new byte[300 * 1024];
+        for( int i = 0; i < m_content.length; i++ )
+        {
+            m_content[ i ] = (byte) i;
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that the stream is copied completely and the progress reports the total number of bytes
+    @Test
+    public void streamCopy()
+        throws Exception
+    {
+        final File file = new File( m_workDir, "copy.jar" );
+        final RecordingProgressBar progressBar = new RecordingProgressBar();
+        final FileOutputStream out = new FileOutputStream( file );
+        StreamUtils.streamCopy( new ByteArrayInputStream( m_content ), out.getChannel(), progressBar );
+        out.close();
+        assertTrue( "Content", Arrays.equals( m_content, read( file ) ) );
+        assertEquals( "Progress bytes", m_content.length, progressBar.m_bytes );
+        assertTrue( "Progress stopped", progressBar.m_stopped );
+    }
+
+    // test that a transfer interrupted by the server is resumed with a range request and digested as a whole
+    @Test
+    public void streamCopyResumed()
+        throws Exception
+    {
+        final HttpServer server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+        final int[] requests = new int[1];
+        server.createContext( "/bundle.jar", new HttpHandler()
+        {
+            public void handle( final HttpExchange exchange )
+                throws IOException
+            {
+                requests[ 0 ]++;
+                final String range = exchange.getRequestHeaders().getFirst( "Range" );
+                final OutputStream out;
+                if( range == null )
+                {
+                    // send only half of the content then break the connection
+                    exchange.sendResponseHeaders( 200, m_content.length );
+                    out = exchange.getResponseBody();
+                    out.write( m_content, 0, m_content.length / 2 );
+                    out.flush();
+                    exchange.close();
+                    return;
+                }
+                final int from = Integer.parseInt( range.substring( "bytes=".length(), range.length() - 1 ) );
+                exchange.getResponseHeaders().add(
+                    "Content-Range", "bytes " + from + "-" + ( m_content.length - 1 ) + "/" + m_content.length
+                );
+                exchange.sendResponseHeaders( 206, m_content.length - from );
+                out = exchange.getResponseBody();
+                out.write( m_content, from, m_content.length - from );
+                out.close();
+                exchange.close();
+            }
+        }
+        );
+        server.start();
+        try
+        {
+            final URL url = new URL( "http://localhost:" + server.getAddress().getPort() + "/bundle.jar" );
+            final File file = new File( m_workDir, "bundle.jar.part" );
+            final RecordingProgressBar progressBar = new RecordingProgressBar();
+            final MessageDigest digest = ChecksumUtils.createDigest( ChecksumUtils.SHA1 );
+            StreamUtils.streamCopy( url.openConnection(), file, progressBar, 3, digest );
+            assertTrue( "Content", Arrays.equals( m_content, read( file ) ) );
+            assertEquals(
+                "Digest", ChecksumUtils.digest( file, ChecksumUtils.SHA1 ), ChecksumUtils.toHex( digest.digest() )
+            );
+            assertEquals( "Requests", 2, requests[ 0 ] );
+            assertEquals( "Progress bytes", m_content.length, progressBar.m_bytes );
+        }
+        finally
+        {
+            server.stop( 0 );
+        }
+    }
+
+    private static byte[] read( final File file )
+        throws IOException
+    {
+        final byte[] content = new byte[(int) file.length()];
+        final FileInputStream in = new FileInputStream( file );
+        int read = 0;
+        while( read < content.length )
+        {
+            read += in.read( content, read, content.length - read );
+        }
+        in.close();
+        return content;
+    }
+
+    private static class RecordingProgressBar
+        implements StreamUtils.ProgressBar
+    {
+
+        private long m_bytes;
+        private boolean m_stopped;
+
+        public void increment( final long bytes, final long kbps )
+        {
+            m_bytes = bytes;
+        }
+
+        public void stop()
+        {
+            m_stopped = true;
+        }
+
+    }
+
+}
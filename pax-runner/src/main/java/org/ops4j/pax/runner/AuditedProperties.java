@@ -18,13 +18,14 @@
 package org.ops4j.pax.runner;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 /**
  * Java Properties that audits changes of properties from the moment that was created.
+ * Placeholders (${name}) in set values are replaced by the value of the named property, using templates that are parsed
+ * once and cached. All changes, including removes through the key, value and entry views, are kept in the table
+ * inherited from {@link Properties}, read and written with the synchronization of the table.
  *
  * @author Alin Dreghiciu
  * @since 0.5.0
@@ -38,9 +39,25 @@ public class AuditedProperties
      */
     private static final Log LOGGER = LogFactory.getLog( AuditedProperties.class );
     /**
-     * Pattern used for replacing placeholders.
+     * Maximum depth of placeholders contained in values of placeholders. Deeper placeholders are considered cyclic.
      */
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile( "(.*?\\$\\{)([.[^\\$]]+?)(\\}.*)" );
+    private static final int MAX_PLACEHOLDER_DEPTH = 32;
+    /**
+     * Maximum number of cached templates.
+     */
+    private static final int MAX_TEMPLATES = 1024;
+    /**
+     * Cache of parsed values, shared by all audited properties. Least recently used templates are evicted first.
+     */
+    private static final Map<String, PlaceholderTemplate> TEMPLATES =
+        new LinkedHashMap<String, PlaceholderTemplate>( 16, 0.75f, true )
+        {
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry<String, PlaceholderTemplate> eldest )
+            {
+                return size() > MAX_TEMPLATES;
+            }
+        };
 
     /**
      * Default properties to be used.
@@ -86,51 +103,60 @@ public class AuditedProperties
     }
 
     @Override
-    public synchronized Object setProperty( String key, String value )
+    public Object setProperty( String key, String value )
     {
-        final String replaced = replacePlaceholders( value );
+        final String replaced = replacePlaceholders( value, 0 );
         LOGGER.trace( "Setting system property [" + key + "=" + replaced + "]" );
         return super.setProperty( key, replaced );
     }
 
-
-
     /**
-     * Replaces placeholders = ${*}.
+     * Replaces placeholders = ${*}, including placeholders contained by the values of placeholders.
      *
      * @param value the string where the place holders should be replaced
+     * @param depth depth of the value in a chain of placeholder values
      *
      * @return replaced place holders or the original if there are no place holders or a value for place holder could
      *         not be found
      */
-    private String replacePlaceholders( final String value )
+    private String replacePlaceholders( final String value, final int depth )
     {
-        String replaced = value;
-        String rest = value;
-        while( rest != null && rest.length() != 0 )
+        if( value == null || value.indexOf( "${" ) < 0 )
         {
-            final Matcher matcher = PLACEHOLDER_PATTERN.matcher( rest );
-            if( matcher.matches() && matcher.groupCount() == 3 )
-            {
-                // groups 2 contains the placeholder name
-                final String placeholderName = matcher.group( 2 );
-                final String placeholderValue = getProperty( placeholderName );
-                if( placeholderValue != null )
-                {
-                    replaced = replaced.replace( "${" + placeholderName + "}", placeholderValue );
-                }
-                rest = matcher.group( 3 );
-            }
-            else
+            return value;
+        }
+        PlaceholderTemplate template;
+        synchronized( TEMPLATES )
+        {
+            template = TEMPLATES.get( value );
+        }
+        if( template == null )
+        {
+            template = PlaceholderTemplate.compile( value );
+            synchronized( TEMPLATES )
             {
-                rest = null;
+                TEMPLATES.put( value, template );
             }
         }
-        if( replaced != null && !replaced.equals( value ) )
+        if( !template.hasPlaceholders() )
         {
-            replaced = replacePlaceholders( replaced );
+            return value;
         }
-        return replaced;
+        return template.evaluate(
+            new PlaceholderTemplate.Resolver()
+            {
+                public String resolve( final String name )
+                {
+                    final String placeholderValue = getProperty( name );
+                    if( placeholderValue == null || depth < MAX_PLACEHOLDER_DEPTH )
+                    {
+                        return replacePlaceholders( placeholderValue, depth + 1 );
+                    }
+                    LOGGER.warn( "Placeholder [" + name + "] in [" + value + "] is too deeply nested or cyclic" );
+                    return null;
+                }
+            }
+        );
     }
 
 }
@@ -18,6 +18,7 @@
 package org.ops4j.pax.runner;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Abstracts accesss to command line arguments.
@@ -127,6 +128,13 @@ public interface CommandLine
      */
     String[] getMultipleOption( String key );
 
+    /**
+     * Returns the names (keys) of all options.
+     *
+     * @return set of option names; if there are no options returns an empty set
+     */
+    Set<String> getOptionNames();
+
     /**
      * Returns the list of all arguments.
      *
@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -220,6 +221,14 @@ public class CommandLineImpl implements CommandLine
         return values == null || values.size() == 0 ? new String[0] : values.toArray( new String[values.size()] );
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> getOptionNames()
+    {
+        return Collections.unmodifiableSet( m_options.keySet() );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -2,6 +2,9 @@ package org.ops4j.pax.runner;
 
 import java.io.File;
 import java.net.MalformedURLException;
+import java.util.HashMap;
+import java.util.Map;
+import org.ops4j.lang.NullArgumentException;
 
 /**
  * Extension based provision schema resolver:<br/>
@@ -12,7 +15,11 @@ import java.net.MalformedURLException;
  * * if any other extension -> scan-file<br/>
  * * if no extension or ends with slash or backslash -> scan-dir<br/>
  * <br/>
- * It also adds a file protocol if is a local file.
+ * It also adds a file protocol if is a local file.<br/>
+ * <br/>
+ * Specs starting with a known protocol (mvn, wrap, war, obr, ...) are resolved to scan-bundle without looking at the
+ * extension. Additional protocols and extensions can be registered via {@link #registerProtocol(String, String)} and
+ * {@link #registerExtension(String, String)}.
  *
  * @author Alin Dreghiciu
  * @since August 26, 2007
@@ -21,6 +28,78 @@ public class ExtensionBasedProvisionSchemaResolver
     implements ProvisionSchemaResolver
 {
 
+    /**
+     * Prefix of provision schemas.
+     */
+    private static final String SCHEMA_PREFIX = "scan-";
+
+    /**
+     * Protocols (as prefixes of the spec) to provision schema.
+     */
+    private final PrefixTree m_protocols;
+    /**
+     * Upper case extensions to provision schema.
+     */
+    private final Map<String, String> m_extensions;
+
+    /**
+     * Creates a new resolver, knowing the protocols and extensions of pax url handlers and pax scanners.
+     */
+    public ExtensionBasedProvisionSchemaResolver()
+    {
+        m_protocols = new PrefixTree();
+        m_extensions = new HashMap<String, String>();
+        // most common it will be a bundle
+        for( String protocol : new String[]{
+            org.ops4j.pax.url.mvn.ServiceConstants.PROTOCOL,
+            org.ops4j.pax.url.wrap.ServiceConstants.PROTOCOL,
+            org.ops4j.pax.url.war.ServiceConstants.PROTOCOL_WAR,
+            org.ops4j.pax.url.war.ServiceConstants.PROTOCOL_WAR_INSTRUCTIONS,
+            org.ops4j.pax.url.war.ServiceConstants.PROTOCOL_WAR_REFERENCE,
+            org.ops4j.pax.url.war.ServiceConstants.PROTOCOL_WEB_BUNDLE,
+            org.ops4j.pax.url.obr.ServiceConstants.PROTOCOL,
+            org.ops4j.pax.url.assembly.ServiceConstants.PROTOCOL,
+            org.ops4j.pax.url.assembly.ServiceConstants.PROTOCOL_REFERENCE,
+            org.ops4j.pax.url.dir.ServiceConstants.PROTOCOL } )
+        {
+            registerProtocol( protocol, org.ops4j.pax.scanner.bundle.ServiceConstants.SCHEMA );
+        }
+        registerExtension( "XML", org.ops4j.pax.scanner.pom.ServiceConstants.SCHEMA );
+        registerExtension( "ZIP", org.ops4j.pax.scanner.dir.ServiceConstants.SCHEMA );
+        registerExtension( "JAR", org.ops4j.pax.scanner.bundle.ServiceConstants.SCHEMA );
+        registerExtension( "BUNDLE", org.ops4j.pax.scanner.bundle.ServiceConstants.SCHEMA );
+        registerExtension( "OBR", org.ops4j.pax.scanner.obr.ServiceConstants.SCHEMA );
+        registerExtension( "COMPOSITE", org.ops4j.pax.scanner.composite.ServiceConstants.SCHEMA );
+        registerExtension( "PROFILE", org.ops4j.pax.scanner.composite.ServiceConstants.SCHEMA );
+    }
+
+    /**
+     * Registers the provision schema of specs starting with a protocol. If more registered protocols match a spec,
+     * the longest one wins.
+     *
+     * @param protocol protocol (matched as a prefix of the spec); mandatory
+     * @param schema   provision schema; mandatory
+     */
+    public void registerProtocol( final String protocol, final String schema )
+    {
+        NullArgumentException.validateNotEmpty( protocol, "Protocol" );
+        NullArgumentException.validateNotEmpty( schema, "Schema" );
+        m_protocols.put( protocol, schema );
+    }
+
+    /**
+     * Registers the provision schema of specs with an extension.
+     *
+     * @param extension extension (case insensitive, without the dot); mandatory
+     * @param schema    provision schema; mandatory
+     */
+    public void registerExtension( final String extension, final String schema )
+    {
+        NullArgumentException.validateNotEmpty( extension, "Extension" );
+        NullArgumentException.validateNotEmpty( schema, "Schema" );
+        m_extensions.put( extension.toUpperCase(), schema );
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -30,95 +109,159 @@ public class ExtensionBasedProvisionSchemaResolver
         {
             return null;
         }
-        if( toResolve.matches( "scan-.*:.*" ) )
+        if( toResolve.startsWith( SCHEMA_PREFIX )
+            && toResolve.indexOf( org.ops4j.pax.scanner.ServiceConstants.SEPARATOR_SCHEME, SCHEMA_PREFIX.length() ) >= 0 )
         {
             return toResolve;
         }
         String options = "";
         String resolve = toResolve;
-        if( toResolve.contains( "@" ) )
+        final int startOfOption = toResolve.indexOf( org.ops4j.pax.scanner.ServiceConstants.SEPARATOR_OPTION );
+        if( startOfOption >= 0 )
         {
-            final int startOfOption = toResolve.indexOf( "@" );
             options = toResolve.substring( startOfOption );
             resolve = toResolve.substring( 0, startOfOption );
         }
         // first resolve schema
         String schema = org.ops4j.pax.scanner.dir.ServiceConstants.SCHEMA;
-        if( !resolve.endsWith( "/" ) && !resolve.endsWith( "\\" ) && !resolve.contains( "!/" ) )
+        if( !resolve.endsWith( "/" ) && !resolve.endsWith( "\\" )
+            && !resolve.contains( org.ops4j.pax.scanner.ServiceConstants.SEPARATOR_FILTER ) )
         {
+            final String protocolSchema = m_protocols.get( resolve );
             // check if is a pom using mvn protocol
-            if( resolve.startsWith( org.ops4j.pax.url.mvn.ServiceConstants.PROTOCOL )
-                && resolve.endsWith( "pom" ) )
+            if( resolve.startsWith( org.ops4j.pax.url.mvn.ServiceConstants.PROTOCOL ) && resolve.endsWith( "pom" ) )
             {
                 schema = org.ops4j.pax.scanner.pom.ServiceConstants.SCHEMA;
             }
-            // check if starts with mvn / wrap / war / obr, because most common it will be a bundle
-            else if( resolve.startsWith( org.ops4j.pax.url.mvn.ServiceConstants.PROTOCOL )
-                     || resolve.startsWith( org.ops4j.pax.url.wrap.ServiceConstants.PROTOCOL )
-                     || resolve.startsWith( org.ops4j.pax.url.war.ServiceConstants.PROTOCOL_WAR )
-                     || resolve.startsWith( org.ops4j.pax.url.war.ServiceConstants.PROTOCOL_WAR_INSTRUCTIONS )
-                     || resolve.startsWith( org.ops4j.pax.url.war.ServiceConstants.PROTOCOL_WAR_REFERENCE )
-                     || resolve.startsWith( org.ops4j.pax.url.war.ServiceConstants.PROTOCOL_WEB_BUNDLE )
-                     || resolve.startsWith( org.ops4j.pax.url.obr.ServiceConstants.PROTOCOL )
-                     || resolve.startsWith( org.ops4j.pax.url.assembly.ServiceConstants.PROTOCOL )
-                     || resolve.startsWith( org.ops4j.pax.url.assembly.ServiceConstants.PROTOCOL_REFERENCE )
-                     || resolve.startsWith( org.ops4j.pax.url.dir.ServiceConstants.PROTOCOL ) )
+            else if( protocolSchema != null )
             {
-                schema = org.ops4j.pax.scanner.bundle.ServiceConstants.SCHEMA;
+                schema = protocolSchema;
             }
             else
             {
-                int indexOfSlash = resolve.lastIndexOf( "/" );
+                int indexOfSlash = resolve.lastIndexOf( '/' );
                 if( indexOfSlash == -1 )
                 {
-                    indexOfSlash = resolve.lastIndexOf( "\\" );
+                    indexOfSlash = resolve.lastIndexOf( '\\' );
                 }
-                final int indexOfDot = resolve.lastIndexOf( "." );
+                final int indexOfDot = resolve.lastIndexOf( '.' );
                 if( indexOfDot > indexOfSlash )
                 {
                     schema = org.ops4j.pax.scanner.file.ServiceConstants.SCHEMA;
-                    if( indexOfDot < resolve.length() - 1 )
+                    final String extensionSchema =
+                        m_extensions.get( resolve.substring( indexOfDot + 1 ).toUpperCase() );
+                    if( extensionSchema != null )
                     {
-                        final String extension = resolve.substring( indexOfDot + 1 ).toUpperCase();
-                        if( "XML".equals( extension ) )
-                        {
-                            schema = org.ops4j.pax.scanner.pom.ServiceConstants.SCHEMA;
-                        }
-                        else if( "ZIP".equals( extension ) )
-                        {
-                            schema = org.ops4j.pax.scanner.dir.ServiceConstants.SCHEMA;
-                        }
-                        else if( "JAR".equals( extension ) || "BUNDLE".equals( extension ) )
-                        {
-                            schema = org.ops4j.pax.scanner.bundle.ServiceConstants.SCHEMA;
-                        }
-                        else if( "OBR".equals( extension ) )
-                        {
-                            schema = org.ops4j.pax.scanner.obr.ServiceConstants.SCHEMA;
-                        }
-                        else if( "COMPOSITE".equals( extension ) || "PROFILE".equals( extension ) )
-                        {
-                            schema = org.ops4j.pax.scanner.composite.ServiceConstants.SCHEMA;
-                        }
+                        schema = extensionSchema;
                     }
                 }
             }
         }
-        // then check out if is a local file
-        final File file = new File( resolve );
+        // then check out if is a local file (urls are not, except for single letter schemas as windows drives)
         String resolved = resolve;
-        if( file.exists() )
+        if( !isURL( resolve ) )
+        {
+            final File file = new File( resolve );
+            if( file.exists() )
+            {
+                try
+                {
+                    resolved = file.toURL().toExternalForm();
+                }
+                catch( MalformedURLException ignore )
+                {
+                    // ignore as this should not happen if the file exists
+                }
+            }
+        }
+        return schema + org.ops4j.pax.scanner.ServiceConstants.SEPARATOR_SCHEME + resolved + options;
+    }
+
+    /**
+     * Checks if a spec starts with an url schema of at least two characters (letter followed by letters, digits, +, -
+     * or .), followed by colon.
+     *
+     * @param spec spec to check
+     *
+     * @return true if the spec is an url
+     */
+    private static boolean isURL( final String spec )
+    {
+        final int colon = spec.indexOf( ':' );
+        if( colon < 2 || !Character.isLetter( spec.charAt( 0 ) ) )
+        {
+            return false;
+        }
+        for( int i = 1; i < colon; i++ )
         {
-            try
+            final char c = spec.charAt( i );
+            if( !Character.isLetterOrDigit( c ) && c != '+' && c != '-' && c != '.' )
             {
-                resolved = file.toURL().toExternalForm();
+                return false;
             }
-            catch( MalformedURLException ignore )
+        }
+        return true;
+    }
+
+    /**
+     * Prefix tree of values by string keys, returning the value of the longest key that is a prefix of a string.
+     */
+    private static class PrefixTree
+    {
+
+        /**
+         * Child nodes by next character.
+         */
+        private final Map<Character, PrefixTree> m_children = new HashMap<Character, PrefixTree>();
+        /**
+         * Value of the key ending in this node. Null if no key ends here.
+         */
+        private String m_value;
+
+        /**
+         * Adds a key.
+         *
+         * @param key   key
+         * @param value value
+         */
+        void put( final String key, final String value )
+        {
+            PrefixTree node = this;
+            for( int i = 0; i < key.length(); i++ )
             {
-                // ignore as this should not happen if the file exists
+                PrefixTree child = node.m_children.get( key.charAt( i ) );
+                if( child == null )
+                {
+                    child = new PrefixTree();
+                    node.m_children.put( key.charAt( i ), child );
+                }
+                node = child;
             }
+            node.m_value = value;
         }
-        return schema + org.ops4j.pax.scanner.ServiceConstants.SEPARATOR_SCHEME + resolved + options;
+
+        /**
+         * Returns the value of the longest key that is a prefix of a string.
+         *
+         * @param string string to match
+         *
+         * @return value or null if no key is a prefix of the string
+         */
+        String get( final String string )
+        {
+            String value = null;
+            PrefixTree node = this;
+            for( int i = 0; i < string.length() && node != null; i++ )
+            {
+                node = node.m_children.get( string.charAt( i ) );
+                if( node != null && node.m_value != null )
+                {
+                    value = node.m_value;
+                }
+            }
+            return value;
+        }
+
     }
 
 }
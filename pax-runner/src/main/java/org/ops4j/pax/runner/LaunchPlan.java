@@ -0,0 +1,806 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.osgi.RunnerBundle;
+import org.ops4j.pax.scanner.ServiceConstants;
+import org.osgi.framework.BundleException;
+
+/**
+ * Fully resolved list of bundles to be provisioned (with start level, start and update flags) and system properties
+ * set while scanning the provision specs.
+ * The plan is saved in the provision file format (as understood by scan-file), so besides being used for warm starts
+ * it can be used as a lock file: "scan-file:file:launch.plan" provisions exactly the same bundles. System properties
+ * are escaped as in properties files, so values containing line breaks or backslashes are saved as well.
+ * A plan is identified by a key calculated out of the command line arguments and options, the runner configuration and
+ * the last modification time of local files and directories used as provision specs (and of the local files they
+ * include), so a plan saved by a previous run can be reused only if none of them changed.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class LaunchPlan
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( LaunchPlan.class );
+    /**
+     * Comment line containing the key of the plan.
+     */
+    private static final String KEY_PREFIX = "# key ";
+    /**
+     * Comment line prefix.
+     */
+    private static final String COMMENT_PREFIX = "#";
+    /**
+     * System property line prefix.
+     */
+    private static final String PROPERTY_PREFIX = "-D";
+    /**
+     * Maximum size of a file read to find the local files it includes. Larger files are not provision files.
+     */
+    private static final long MAX_PROVISION_FILE_SIZE = 1024 * 1024;
+    /**
+     * Matches provision specs starting with a scanner schema (as scan-file:).
+     */
+    private static final Pattern SCANNER_SCHEMA = Pattern.compile( "scan-[^:]*:" );
+    /**
+     * Matches the schema at the start of an url. Single letter schemas are not matched as they are windows drives.
+     */
+    private static final Pattern URL_SCHEMA = Pattern.compile( "[a-zA-Z][a-zA-Z0-9+.\\-]+:" );
+    /**
+     * Matches a start level option.
+     */
+    private static final Pattern START_LEVEL = Pattern.compile( "\\d+" );
+    /**
+     * Encoding of plan files.
+     */
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * Key of the plan. Can be null.
+     */
+    private final String m_key;
+    /**
+     * Bundles to be provisioned, in provisioning order.
+     */
+    private final List<Entry> m_entries;
+    /**
+     * System properties set while scanning.
+     */
+    private final Map<String, String> m_systemProperties;
+
+    /**
+     * Creates a new launch plan.
+     *
+     * @param key              key of the plan; can be null
+     * @param entries          bundles to be provisioned; mandatory
+     * @param systemProperties system properties to be set; mandatory
+     */
+    public LaunchPlan( final String key, final List<Entry> entries, final Map<String, String> systemProperties )
+    {
+        NullArgumentException.validateNotNull( entries, "Entries" );
+        NullArgumentException.validateNotNull( systemProperties, "System properties" );
+        m_key = key;
+        m_entries = entries;
+        m_systemProperties = systemProperties;
+    }
+
+    /**
+     * Creates a launch plan out of the bundles and system properties resolved by scanning.
+     *
+     * @param key     key of the plan; can be null
+     * @param context runner context after scanning; mandatory
+     *
+     * @return launch plan
+     */
+    public static LaunchPlan create( final String key, final Context context )
+    {
+        NullArgumentException.validateNotNull( context, "Context" );
+        final List<Entry> entries = new ArrayList<Entry>();
+        if( context.getBundles() != null )
+        {
+            for( RunnerBundle bundle : context.getBundles() )
+            {
+                entries.add(
+                    new Entry(
+                        bundle.getLocationAsURL().toExternalForm(),
+                        bundle.getStartLevel(),
+                        bundle.shouldStart(),
+                        bundle.shouldUpdate()
+                    )
+                );
+            }
+        }
+        final Map<String, String> systemProperties = new TreeMap<String, String>();
+        final Properties scanned = context.getSystemProperties();
+        if( scanned != null )
+        {
+            // audited properties contain only the properties set while scanning, the rest are defaults
+            for( Map.Entry<Object, Object> property : scanned.entrySet() )
+            {
+                systemProperties.put( String.valueOf( property.getKey() ), String.valueOf( property.getValue() ) );
+            }
+        }
+        return new LaunchPlan( key, entries, systemProperties );
+    }
+
+    /**
+     * Getter.
+     *
+     * @return key of the plan, null if not set
+     */
+    public String getKey()
+    {
+        return m_key;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return bundles to be provisioned
+     */
+    public List<Entry> getEntries()
+    {
+        return Collections.unmodifiableList( m_entries );
+    }
+
+    /**
+     * Getter.
+     *
+     * @return system properties to be set
+     */
+    public Map<String, String> getSystemProperties()
+    {
+        return Collections.unmodifiableMap( m_systemProperties );
+    }
+
+    /**
+     * Adds the bundles and system properties of the plan to the runner context, as scanning would.
+     *
+     * @param context runner context; mandatory
+     *
+     * @throws MalformedURLException if an url of the plan cannot be created (as the handler is not available)
+     */
+    public void install( final Context context )
+        throws MalformedURLException
+    {
+        NullArgumentException.validateNotNull( context, "Context" );
+        // create all the bundles first, so the context is not changed if one of the urls is invalid
+        final List<RunnerBundle> bundles = new ArrayList<RunnerBundle>();
+        for( Entry entry : m_entries )
+        {
+            final RunnerBundle bundle = new RunnerBundle( new URL( entry.getURL() ) );
+            bundle.setStartLevel( entry.getStartLevel() );
+            if( entry.shouldStart() )
+            {
+                try
+                {
+                    bundle.start();
+                }
+                catch( BundleException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+            if( entry.shouldUpdate() )
+            {
+                bundle.update();
+            }
+            bundles.add( bundle );
+        }
+        final AuditedProperties systemProperties = new AuditedProperties( System.getProperties() );
+        systemProperties.putAll( m_systemProperties );
+        context.setSystemProperties( systemProperties );
+        for( RunnerBundle bundle : bundles )
+        {
+            context.addBundle( bundle );
+        }
+    }
+
+    /**
+     * Saves the plan to a file.
+     *
+     * @param file file to save to; mandatory
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void save( final File file )
+        throws IOException
+    {
+        NullArgumentException.validateNotNull( file, "File" );
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        // write to a temporary file first so a failure does not leave an incomplete plan behind
+        final File tempFile = new File( file.getPath() + ".tmp" );
+        final Writer writer = new OutputStreamWriter( new FileOutputStream( tempFile ), ENCODING );
+        try
+        {
+            writer.write( COMMENT_PREFIX + " Pax Runner launch plan\n" );
+            if( m_key != null )
+            {
+                writer.write( KEY_PREFIX + m_key + "\n" );
+            }
+            for( Map.Entry<String, String> property : m_systemProperties.entrySet() )
+            {
+                writer.write(
+                    PROPERTY_PREFIX + escape( property.getKey(), true ) + "=" + escape( property.getValue(), false )
+                    + "\n"
+                );
+            }
+            for( Entry entry : m_entries )
+            {
+                writer.write( entry.toString() + "\n" );
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+        if( !tempFile.renameTo( file ) && !( file.delete() && tempFile.renameTo( file ) ) )
+        {
+            tempFile.delete();
+            throw new IOException( "Cannot rename " + tempFile + " to " + file );
+        }
+    }
+
+    /**
+     * Loads a plan from a file.
+     *
+     * @param file file to load from; mandatory
+     *
+     * @return loaded plan or null if the file does not exist or cannot be read
+     */
+    public static LaunchPlan load( final File file )
+    {
+        NullArgumentException.validateNotNull( file, "File" );
+        if( !file.isFile() )
+        {
+            return null;
+        }
+        String key = null;
+        final List<Entry> entries = new ArrayList<Entry>();
+        final Map<String, String> systemProperties = new TreeMap<String, String>();
+        try
+        {
+            final BufferedReader reader = new BufferedReader(
+                new InputStreamReader( new FileInputStream( file ), ENCODING )
+            );
+            try
+            {
+                String rawLine;
+                while( ( rawLine = reader.readLine() ) != null )
+                {
+                    final String line = rawLine.trim();
+                    if( line.startsWith( KEY_PREFIX ) )
+                    {
+                        key = line.substring( KEY_PREFIX.length() ).trim();
+                    }
+                    else if( line.startsWith( PROPERTY_PREFIX ) && line.indexOf( '=' ) > 0 )
+                    {
+                        // trailing whitespace is part of the value, so the untrimmed line is decoded
+                        final Properties property = new Properties();
+                        property.load(
+                            new StringReader(
+                                rawLine.substring( rawLine.indexOf( PROPERTY_PREFIX ) + PROPERTY_PREFIX.length() )
+                            )
+                        );
+                        for( String name : property.stringPropertyNames() )
+                        {
+                            systemProperties.put( name, property.getProperty( name ) );
+                        }
+                    }
+                    else if( line.length() > 0 && !line.startsWith( COMMENT_PREFIX ) )
+                    {
+                        entries.add( Entry.parse( line ) );
+                    }
+                }
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        catch( IOException e )
+        {
+            LOGGER.warn( "Launch plan [" + file + "] could not be read due to: " + e.getMessage() );
+            return null;
+        }
+        return new LaunchPlan( key, entries, systemProperties );
+    }
+
+    /**
+     * Escapes a system property name or value the way {@link Properties#store(Writer, String)} does, so values
+     * containing line breaks, backslashes or separators are loaded back unchanged. Separators and comment characters
+     * are escaped only in names, as in values they are loaded back unchanged anyhow and, not escaped, values as urls
+     * stay readable by scan-file.
+     *
+     * @param text text to escape
+     * @param key  true if the text is a property name, in which case all spaces and separators are escaped
+     *
+     * @return escaped text
+     */
+    static String escape( final String text, final boolean key )
+    {
+        final StringBuilder escaped = new StringBuilder( text.length() );
+        for( int i = 0; i < text.length(); i++ )
+        {
+            final char c = text.charAt( i );
+            switch( c )
+            {
+                case ' ':
+                    escaped.append( i == 0 || key ? "\\ " : " " );
+                    break;
+                case '\t':
+                    escaped.append( "\\t" );
+                    break;
+                case '\n':
+                    escaped.append( "\\n" );
+                    break;
+                case '\r':
+                    escaped.append( "\\r" );
+                    break;
+                case '\f':
+                    escaped.append( "\\f" );
+                    break;
+                case '\\':
+                    escaped.append( "\\\\" );
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    escaped.append( key ? "\\" : "" ).append( c );
+                    break;
+                default:
+                    escaped.append( c );
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Calculates the key of a plan out of the command line arguments and options, the runner configuration and the
+     * last modification time of the local files used as provision specs and of the local files they include (see
+     * {@link #appendLocalInput(StringBuilder, String)}).
+     *
+     * @param commandLine   command line; mandatory
+     * @param configuration runner configuration; mandatory
+     *
+     * @return key
+     */
+    public static String key( final CommandLine commandLine, final Configuration configuration )
+    {
+        NullArgumentException.validateNotNull( commandLine, "Command line" );
+        NullArgumentException.validateNotNull( configuration, "Configuration" );
+        final StringBuilder content = new StringBuilder();
+        for( String argument : commandLine.getArguments() )
+        {
+            content.append( "argument:" ).append( argument ).append( '\n' );
+            appendLocalInput( content, argument );
+        }
+        appendOptions( content, commandLine );
+        for( String name : new TreeSet<String>( Arrays.asList( configuration.getPropertyNames( ".*" ) ) ) )
+        {
+            content.append( "config:" ).append( name ).append( '=' )
+                .append( configuration.getProperty( name ) ).append( '\n' );
+        }
+        return sha1( content.toString() );
+    }
+
+    /**
+     * Appends the path and last modification time of the local file or directory of a provision spec, if any, and of
+     * the local files it includes:
+     * - for a directory, the files directly in the directory;
+     * - for a provision file, the local files and provision specs it lists, including the ones they include;
+     * - for a pom, its parent poms found at the default relative path (../pom.xml).
+     *
+     * @param content       content to append to
+     * @param provisionSpec provision spec
+     *
+     * @return true if the provision spec refers a local file or directory
+     */
+    static boolean appendLocalInput( final StringBuilder content, final String provisionSpec )
+    {
+        final File input = localInput( provisionSpec );
+        if( input == null )
+        {
+            return false;
+        }
+        appendLocalInput( content, input, new HashSet<File>() );
+        return true;
+    }
+
+    /**
+     * Appends the path and last modification time of a local file or directory and of the local files it includes.
+     *
+     * @param content content to append to
+     * @param input   local file or directory
+     * @param visited files already appended, so files included more than once (or cyclic) are appended only once
+     */
+    private static void appendLocalInput( final StringBuilder content, final File input, final Set<File> visited )
+    {
+        if( !visited.add( input.getAbsoluteFile() ) )
+        {
+            return;
+        }
+        appendLastModified( content, input );
+        final File[] children = input.listFiles();
+        if( children != null )
+        {
+            Arrays.sort( children );
+            for( File child : children )
+            {
+                appendLastModified( content, child );
+            }
+            return;
+        }
+        final String name = input.getName().toLowerCase();
+        if( name.endsWith( ".xml" ) || name.endsWith( ".pom" ) )
+        {
+            final File parent = new File( input.getAbsoluteFile().getParentFile().getParentFile(), "pom.xml" );
+            if( parent.isFile() )
+            {
+                appendLocalInput( content, parent, visited );
+            }
+        }
+        else if( !isArchive( name ) && input.length() <= MAX_PROVISION_FILE_SIZE )
+        {
+            for( String line : readLines( input ) )
+            {
+                final File included = localInput( line );
+                if( included != null )
+                {
+                    appendLocalInput( content, included, visited );
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a file name is the name of an archive (as a bundle), which does not include other files.
+     *
+     * @param name lower case file name
+     *
+     * @return true if an archive
+     */
+    private static boolean isArchive( final String name )
+    {
+        return name.endsWith( ".jar" ) || name.endsWith( ".war" ) || name.endsWith( ".zip" );
+    }
+
+    /**
+     * Reads the lines of a provision file that can refer other files: not empty, not comments and not system
+     * properties.
+     *
+     * @param file provision file
+     *
+     * @return lines; empty if the file cannot be read
+     */
+    private static List<String> readLines( final File file )
+    {
+        final List<String> lines = new ArrayList<String>();
+        try
+        {
+            final BufferedReader reader = new BufferedReader(
+                new InputStreamReader( new FileInputStream( file ), ENCODING )
+            );
+            try
+            {
+                String line;
+                while( ( line = reader.readLine() ) != null )
+                {
+                    line = line.trim();
+                    if( line.length() > 0
+                        && !line.startsWith( COMMENT_PREFIX )
+                        && !line.startsWith( PROPERTY_PREFIX ) )
+                    {
+                        lines.add( line );
+                    }
+                }
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        catch( IOException e )
+        {
+            // the last modification time of the file itself is still part of the key
+            LOGGER.debug( "Included files of [" + file + "] could not be read due to: " + e.getMessage() );
+        }
+        return lines;
+    }
+
+    /**
+     * Appends the command line options, sorted by name.
+     *
+     * @param content     content to append to
+     * @param commandLine command line
+     */
+    static void appendOptions( final StringBuilder content, final CommandLine commandLine )
+    {
+        for( String name : new TreeSet<String>( commandLine.getOptionNames() ) )
+        {
+            content.append( "option:" ).append( name ).append( '=' )
+                .append( Arrays.asList( commandLine.getMultipleOption( name ) ) ).append( '\n' );
+        }
+    }
+
+    /**
+     * Returns the local file or directory of a provision spec.
+     *
+     * @param provisionSpec provision spec
+     *
+     * @return local file or directory, null if the provision spec does not refer a local file or directory
+     */
+    static File localInput( final String provisionSpec )
+    {
+        String path = provisionSpec;
+        // remove scanner schema, options and filter
+        if( SCANNER_SCHEMA.matcher( path ).lookingAt() )
+        {
+            path = path.substring( path.indexOf( ServiceConstants.SEPARATOR_SCHEME ) + 1 );
+        }
+        if( path.contains( ServiceConstants.SEPARATOR_OPTION ) )
+        {
+            path = path.substring( 0, path.indexOf( ServiceConstants.SEPARATOR_OPTION ) );
+        }
+        if( path.contains( ServiceConstants.SEPARATOR_FILTER ) )
+        {
+            path = path.substring( 0, path.indexOf( ServiceConstants.SEPARATOR_FILTER ) );
+        }
+        if( path.startsWith( "file:" ) )
+        {
+            path = path.substring( "file:".length() );
+        }
+        else if( URL_SCHEMA.matcher( path ).lookingAt() )
+        {
+            // an url (other then a file url); single letter schemas are considered drives on windows
+            return null;
+        }
+        final File file = new File( path );
+        return file.exists() ? file : null;
+    }
+
+    /**
+     * Appends the path and last modification time of a file.
+     *
+     * @param content content to append to
+     * @param file    file
+     */
+    private static void appendLastModified( final StringBuilder content, final File file )
+    {
+        content.append( "file:" ).append( file.getAbsolutePath() )
+            .append( '@' ).append( file.lastModified() )
+            .append( '@' ).append( file.length() ).append( '\n' );
+    }
+
+    /**
+     * Calculates the hex encoded SHA-1 digest of a string.
+     *
+     * @param content string to digest
+     *
+     * @return hex encoded digest
+     */
+    static String sha1( final String content )
+    {
+        try
+        {
+            final byte[] digest = MessageDigest.getInstance( "SHA-1" ).digest( content.getBytes( ENCODING ) );
+            final StringBuilder hex = new StringBuilder();
+            for( byte b : digest )
+            {
+                hex.append( Integer.toHexString( ( b & 0xff ) | 0x100 ).substring( 1 ) );
+            }
+            return hex.toString();
+        }
+        catch( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "SHA-1 not available", e );
+        }
+        catch( UnsupportedEncodingException e )
+        {
+            throw new IllegalStateException( ENCODING + " not available", e );
+        }
+    }
+
+    /**
+     * A bundle to be provisioned.
+     */
+    public static class Entry
+    {
+
+        /**
+         * Bundle url.
+         */
+        private final String m_url;
+        /**
+         * Start level, null if default.
+         */
+        private final Integer m_startLevel;
+        /**
+         * True if bundle should be started.
+         */
+        private final boolean m_shouldStart;
+        /**
+         * True if bundle should be updated (re-downloaded).
+         */
+        private final boolean m_shouldUpdate;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param url          bundle url; mandatory
+         * @param startLevel   start level; can be null
+         * @param shouldStart  true if bundle should be started
+         * @param shouldUpdate true if bundle should be updated
+         */
+        public Entry( final String url, final Integer startLevel, final boolean shouldStart,
+                      final boolean shouldUpdate )
+        {
+            NullArgumentException.validateNotEmpty( url, "URL" );
+            m_url = url;
+            m_startLevel = startLevel;
+            m_shouldStart = shouldStart;
+            m_shouldUpdate = shouldUpdate;
+        }
+
+        /**
+         * Parses an entry in the provision file format: url@startLevel@start|nostart@update|noupdate. Options are
+         * optional and can be in any order. By default bundles are started and not updated. Only trailing segments
+         * that are options are considered options, so urls containing the option separator are preserved.
+         *
+         * @param line line to parse
+         *
+         * @return parsed entry
+         */
+        static Entry parse( final String line )
+        {
+            Integer startLevel = null;
+            Boolean shouldStart = null;
+            Boolean shouldUpdate = null;
+            String url = line;
+            int separator;
+            while( ( separator = url.lastIndexOf( ServiceConstants.SEPARATOR_OPTION ) ) > 0 )
+            {
+                final String option = url.substring( separator + 1 ).trim();
+                if( shouldStart == null && ServiceConstants.OPTION_START.equalsIgnoreCase( option ) )
+                {
+                    shouldStart = true;
+                }
+                else if( shouldStart == null && ServiceConstants.OPTION_NO_START.equalsIgnoreCase( option ) )
+                {
+                    shouldStart = false;
+                }
+                else if( shouldUpdate == null && ServiceConstants.OPTION_UPDATE.equalsIgnoreCase( option ) )
+                {
+                    shouldUpdate = true;
+                }
+                else if( shouldUpdate == null && ServiceConstants.OPTION_NO_UPDATE.equalsIgnoreCase( option ) )
+                {
+                    shouldUpdate = false;
+                }
+                else if( startLevel == null && START_LEVEL.matcher( option ).matches() )
+                {
+                    startLevel = Integer.valueOf( option );
+                }
+                else
+                {
+                    break;
+                }
+                url = url.substring( 0, separator );
+            }
+            return new Entry(
+                url.trim(),
+                startLevel,
+                shouldStart == null || shouldStart,
+                shouldUpdate != null && shouldUpdate
+            );
+        }
+
+        /**
+         * Getter.
+         *
+         * @return bundle url
+         */
+        public String getURL()
+        {
+            return m_url;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return start level, null if default
+         */
+        public Integer getStartLevel()
+        {
+            return m_startLevel;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return true if bundle should be started
+         */
+        public boolean shouldStart()
+        {
+            return m_shouldStart;
+        }
+
+        /**
+         * Getter.
+         *
+         * @return true if bundle should be updated
+         */
+        public boolean shouldUpdate()
+        {
+            return m_shouldUpdate;
+        }
+
+        /**
+         * Returns the entry in the provision file format.
+         *
+         * @see Object#toString()
+         */
+        public String toString()
+        {
+            final StringBuilder line = new StringBuilder( m_url );
+            if( m_startLevel != null )
+            {
+                line.append( ServiceConstants.SEPARATOR_OPTION ).append( m_startLevel );
+            }
+            line.append( ServiceConstants.SEPARATOR_OPTION )
+                .append( m_shouldStart ? ServiceConstants.OPTION_START : ServiceConstants.OPTION_NO_START );
+            line.append( ServiceConstants.SEPARATOR_OPTION )
+                .append( m_shouldUpdate ? ServiceConstants.OPTION_UPDATE : ServiceConstants.OPTION_NO_UPDATE );
+            return line.toString();
+        }
+
+    }
+
+}
@@ -19,15 +19,14 @@ package org.ops4j.pax.runner;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.ops4j.lang.NullArgumentException;
 import static org.ops4j.pax.runner.CommandLine.*;
 import org.ops4j.pax.runner.commons.Info;
-import org.ops4j.pax.runner.commons.properties.SystemPropertyUtils;
 import org.ops4j.pax.url.mvn.ServiceConstants;
 
 /**
@@ -36,9 +35,11 @@ import org.ops4j.pax.url.mvn.ServiceConstants;
  * 2. look in command line;<br/>
  * 3. look for an alias and if found look in the command line for the alias<br/>
  * 3. if value is "choose" ask the user;<br/>
- * 4. look in configuration for a default value
- *
- * TODO add unit testing
+ * 4. look in configuration for a default value<br/>
+ * Placeholders (${name}) in the found value are replaced by the value of the named option (as returned by
+ * {@link #get(String)}), system property or environment variable. Values are parsed only once and the result of
+ * replacing placeholders is cached, unless a placeholder could not be resolved or was resolved from a system property,
+ * as system properties can be set later (for example while scanning).
  *
  * @author Alin Dreghiciu
  * @since August 26, 2007
@@ -51,10 +52,6 @@ public class OptionResolverImpl
      * Logger.
      */
     private static final Log LOGGER = LogFactory.getLog( OptionResolverImpl.class );
-    /**
-     * Pattern used for replacing placeholders.
-     */
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile( "(.*?\\$\\{)([.[^\\$]]+?)(\\}.*)" );
 
     /**
      * Command line to use.
@@ -72,6 +69,27 @@ public class OptionResolverImpl
      * Multiple options cache.
      */
     private final Map<String, String[]> m_cacheMultipleOptions;
+    /**
+     * Parsed option values cache.
+     */
+    private final Map<String, PlaceholderTemplate> m_cacheTemplates;
+    /**
+     * Cache of option values with all placeholders replaced. Only found values are cached.
+     */
+    private final Map<String, String> m_cacheResolved;
+    /**
+     * Names of options whose placeholders are being replaced, in the order they were requested. Used to detect cycles.
+     */
+    private final Set<String> m_resolving;
+    /**
+     * Resolver of placeholders.
+     */
+    private final PlaceholderTemplate.Resolver m_placeholderResolver;
+    /**
+     * Number of placeholders so far that could not be resolved or were resolved from system properties. Used to find
+     * out if a value can be cached.
+     */
+    private int m_uncacheable;
 
     /**
      * Creates anew option resolver.
@@ -87,14 +105,24 @@ public class OptionResolverImpl
         m_configuration = configuration;
         m_cacheOptions = new HashMap<String, String>();
         m_cacheMultipleOptions = new HashMap<String, String[]>();
+        m_cacheTemplates = new HashMap<String, PlaceholderTemplate>();
+        m_cacheResolved = new HashMap<String, String>();
+        m_resolving = new LinkedHashSet<String>();
+        m_placeholderResolver = new PlaceholderTemplate.Resolver()
+        {
+            public String resolve( final String name )
+            {
+                return resolvePlaceholder( name );
+            }
+        };
     }
 
     /**
      * {@inheritDoc}
      */
-    public String get( final String name )
+    public synchronized String get( final String name )
     {
-        final String result = SystemPropertyUtils.resolvePlaceholders( replacePlaceholders( getInternal( name ) ) );
+        final String result = getResolved( name );
 
         // resolve some omplicit options
 
@@ -134,7 +162,105 @@ public class OptionResolverImpl
     }
 
     /**
-     * {@inheritDoc}
+     * Gets an option value with placeholders replaced. Found values whose placeholders were all resolved from options
+     * or environment variables are cached.
+     *
+     * @param name option name
+     *
+     * @return option value or null if not found
+     *
+     * @throws ConfigurationException - If the placeholders of the option refer back to the option
+     */
+    private String getResolved( final String name )
+    {
+        final String cached = m_cacheResolved.get( name );
+        if( cached != null )
+        {
+            return cached;
+        }
+        if( !m_resolving.add( name ) )
+        {
+            final StringBuilder cycle = new StringBuilder();
+            for( String resolving : m_resolving )
+            {
+                if( cycle.length() > 0 || resolving.equals( name ) )
+                {
+                    cycle.append( resolving ).append( " -> " );
+                }
+            }
+            throw new ConfigurationException( "Cyclic placeholders in option [" + name + "]: " + cycle + name );
+        }
+        try
+        {
+            PlaceholderTemplate template = m_cacheTemplates.get( name );
+            if( template == null )
+            {
+                final String value = getInternal( name );
+                if( value == null )
+                {
+                    return null;
+                }
+                if( value.indexOf( "${" ) < 0 )
+                {
+                    m_cacheResolved.put( name, value );
+                    return value;
+                }
+                template = PlaceholderTemplate.compile( value );
+                m_cacheTemplates.put( name, template );
+            }
+            final int uncacheable = m_uncacheable;
+            final String value = template.evaluate( m_placeholderResolver );
+            if( uncacheable == m_uncacheable )
+            {
+                m_cacheResolved.put( name, value );
+            }
+            LOGGER.trace( "Option [" + name + "] resolved to [" + value + "]" );
+            return value;
+        }
+        finally
+        {
+            m_resolving.remove( name );
+        }
+    }
+
+    /**
+     * Resolves the value of a placeholder as an option (including implicit options), system property or environment
+     * variable. System properties are looked up each time, as they can be set after the option was first looked up.
+     *
+     * @param name placeholder name
+     *
+     * @return placeholder value or null if cannot be resolved
+     */
+    private String resolvePlaceholder( final String name )
+    {
+        String value = get( name );
+        if( value == null )
+        {
+            value = System.getProperty( name );
+            if( value != null )
+            {
+                m_uncacheable++;
+                return value;
+            }
+            value = System.getenv( name );
+        }
+        if( value == null )
+        {
+            m_uncacheable++;
+            LOGGER.warn(
+                "Could not resolve placeholder [" + name + "]: neither option, system property nor environment "
+                + "variable found"
+            );
+        }
+        return value;
+    }
+
+    /**
+     * Gets an option value as found, without replacing placeholders.
+     *
+     * @param name option name
+     *
+     * @return option value or null if not found
      */
     private String getInternal( final String name )
     {
@@ -247,7 +373,7 @@ public class OptionResolverImpl
     /**
      * {@inheritDoc}
      */
-    public String[] getMultiple( final String name )
+    public synchronized String[] getMultiple( final String name )
     {
         NullArgumentException.validateNotEmpty( name, "Option name" );
         LOGGER.trace( "Resolving option [" + name + "]" );
@@ -318,46 +444,4 @@ public class OptionResolverImpl
         return values;
     }
 
-    /**
-     * Replaces placeholders = ${*}.
-     *
-     * @param value the string where the place holders should be replaced
-     *
-     * @return replaced place holders or the original if there are no place holders or a value for place holder could
-     *         not be found
-     */
-    private String replacePlaceholders( final String value )
-    {
-        if( value == null )
-        {
-            return null;
-        }
-        String replaced = value;
-        String rest = value;
-        while( rest != null && rest.length() != 0 )
-        {
-            final Matcher matcher = PLACEHOLDER_PATTERN.matcher( rest );
-            if( matcher.matches() && matcher.groupCount() == 3 )
-            {
-                // groups 2 contains the placeholder name
-                final String placeholderName = matcher.group( 2 );
-                final String placeholderValue = get( placeholderName );
-                if( placeholderValue != null )
-                {
-                    replaced = replaced.replace( "${" + placeholderName + "}", placeholderValue );
-                }
-                rest = matcher.group( 3 );
-            }
-            else
-            {
-                rest = null;
-            }
-        }
-        if( replaced != null && !replaced.equals( value ) )
-        {
-            replaced = replacePlaceholders( replaced );
-        }
-        return replaced;
-    }
-
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A text containing ${name} placeholders, parsed once into literal and placeholder segments so it can be evaluated
+ * any number of times without parsing it again. Placeholder names can contain placeholders themselves
+ * (as in ${os.${arch}}), that are evaluated first.
+ * Placeholders that cannot be resolved are kept as they are.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+class PlaceholderTemplate
+{
+
+    /**
+     * Start of a placeholder.
+     */
+    private static final String PREFIX = "${";
+    /**
+     * End of a placeholder.
+     */
+    private static final char SUFFIX = '}';
+
+    /**
+     * Segments of the template: literal strings or placeholders (templates of placeholder names).
+     * Null if the text does not contain placeholders.
+     */
+    private final Object[] m_segments;
+    /**
+     * Original text.
+     */
+    private final String m_text;
+
+    /**
+     * Creates a new template.
+     *
+     * @param text     original text
+     * @param segments literal and placeholder segments; null if there are no placeholders
+     */
+    private PlaceholderTemplate( final String text, final Object[] segments )
+    {
+        m_text = text;
+        m_segments = segments;
+    }
+
+    /**
+     * Parses a text into a template.
+     *
+     * @param text text to parse; mandatory
+     *
+     * @return template
+     */
+    static PlaceholderTemplate compile( final String text )
+    {
+        if( text.indexOf( PREFIX ) < 0 )
+        {
+            return new PlaceholderTemplate( text, null );
+        }
+        final int[] end = new int[1];
+        return parse( text, 0, false, end );
+    }
+
+    /**
+     * Parses a text, starting at an index, until the end of the text or, for a placeholder name, until the end of the
+     * placeholder.
+     *
+     * @param text  text to parse
+     * @param start index to start at
+     * @param name  true if a placeholder name is parsed
+     * @param end   holder for the index of the placeholder end; -1 if the placeholder end was not found
+     *
+     * @return parsed template
+     */
+    private static PlaceholderTemplate parse( final String text, final int start, final boolean name, final int[] end )
+    {
+        final List<Object> segments = new ArrayList<Object>();
+        final StringBuilder literal = new StringBuilder();
+        boolean placeholders = false;
+        int index = start;
+        while( index < text.length() )
+        {
+            final char c = text.charAt( index );
+            if( name && c == SUFFIX )
+            {
+                end[ 0 ] = index;
+                return create( text.substring( start, index ), segments, literal, placeholders );
+            }
+            if( text.startsWith( PREFIX, index ) )
+            {
+                final PlaceholderTemplate placeholder = parse( text, index + PREFIX.length(), true, end );
+                if( end[ 0 ] < 0 )
+                {
+                    // not closed, so the prefix is a literal but the rest can still contain placeholders
+                    literal.append( PREFIX );
+                    index += PREFIX.length();
+                    continue;
+                }
+                if( placeholder.m_text.length() == 0 )
+                {
+                    literal.append( PREFIX ).append( SUFFIX );
+                }
+                else
+                {
+                    if( literal.length() > 0 )
+                    {
+                        segments.add( literal.toString() );
+                        literal.setLength( 0 );
+                    }
+                    segments.add( placeholder );
+                    placeholders = true;
+                }
+                index = end[ 0 ] + 1;
+            }
+            else
+            {
+                literal.append( c );
+                index++;
+            }
+        }
+        end[ 0 ] = -1;
+        return create( text.substring( start ), segments, literal, placeholders );
+    }
+
+    /**
+     * Creates a template out of parsed segments.
+     *
+     * @param text         parsed text
+     * @param segments     parsed segments
+     * @param literal      last literal segment
+     * @param placeholders true if there are placeholder segments
+     *
+     * @return template
+     */
+    private static PlaceholderTemplate create( final String text,
+                                               final List<Object> segments,
+                                               final StringBuilder literal,
+                                               final boolean placeholders )
+    {
+        if( !placeholders )
+        {
+            return new PlaceholderTemplate( literal.toString(), null );
+        }
+        if( literal.length() > 0 )
+        {
+            segments.add( literal.toString() );
+        }
+        return new PlaceholderTemplate( text, segments.toArray() );
+    }
+
+    /**
+     * Getter.
+     *
+     * @return true if the template contains placeholders
+     */
+    boolean hasPlaceholders()
+    {
+        return m_segments != null;
+    }
+
+    /**
+     * Evaluates the template by replacing placeholders with their values.
+     *
+     * @param resolver resolver of placeholder values
+     *
+     * @return evaluated text
+     */
+    String evaluate( final Resolver resolver )
+    {
+        if( m_segments == null )
+        {
+            return m_text;
+        }
+        final StringBuilder evaluated = new StringBuilder( m_text.length() );
+        for( Object segment : m_segments )
+        {
+            if( segment instanceof PlaceholderTemplate )
+            {
+                final String name = ( (PlaceholderTemplate) segment ).evaluate( resolver );
+                final String value = resolver.resolve( name );
+                if( value != null )
+                {
+                    evaluated.append( value );
+                }
+                else
+                {
+                    evaluated.append( PREFIX ).append( name ).append( SUFFIX );
+                }
+            }
+            else
+            {
+                evaluated.append( (String) segment );
+            }
+        }
+        return evaluated.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return m_text;
+    }
+
+    /**
+     * Resolves the values of placeholders.
+     */
+    interface Resolver
+    {
+
+        /**
+         * Resolves the value of a placeholder.
+         *
+         * @param name placeholder name
+         *
+         * @return placeholder value or null if cannot be resolved
+         */
+        String resolve( String name );
+
+    }
+
+}
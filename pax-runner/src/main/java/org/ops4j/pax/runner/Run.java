@@ -28,19 +28,33 @@ import org.apache.felix.framework.util.EventDispatcher;
 import org.ops4j.io.FileUtils;
 import org.ops4j.lang.NullArgumentException;
 import org.ops4j.pax.runner.commons.Info;
+import org.ops4j.pax.runner.osgi.LazyActivator;
+import org.ops4j.pax.runner.osgi.LazyScanner;
+import org.ops4j.pax.runner.osgi.LazyURLStreamHandlerService;
 import org.ops4j.pax.runner.osgi.RunnerBundle;
 import org.ops4j.pax.runner.osgi.RunnerBundleContext;
 import org.ops4j.pax.runner.osgi.RunnerStartLevel;
 import org.ops4j.pax.runner.platform.*;
 import org.ops4j.pax.runner.platform.BundleReference;
+import org.ops4j.pax.runner.platform.internal.CacheEvictor;
 import org.ops4j.pax.scanner.*;
+import org.ops4j.pax.scanner.Scanner;
 import org.osgi.framework.*;
+import org.osgi.service.url.URLConstants;
+import org.osgi.service.url.URLStreamHandlerService;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import static org.ops4j.pax.runner.CommandLine.*;
 
@@ -81,6 +95,87 @@ public class Run
      * Handler URLs to support keepOriginalUrls option configuration property name.
      */
     private static final String KEEP_ORIGINAL_HANDLER_URLS = "keep.original.handler.urls";
+    /**
+     * Prefetch platform (download platform while scanning) configuration property name.
+     */
+    private static final String PREFETCH_PLATFORM = "prefetchPlatform";
+    /**
+     * Platform service prefetch only mode property name.
+     */
+    private static final String PLATFORM_PREFETCH = "org.ops4j.pax.runner.platform.prefetch";
+    /**
+     * Platform service options used while downloading the platform (besides the cache size, which is not used).
+     */
+    private static final String[] PLATFORM_PREFETCH_OPTIONS = {
+        "org.ops4j.pax.runner.platform.definitionURL",
+        "org.ops4j.pax.runner.platform.workingDirectory",
+        "org.ops4j.pax.runner.platform.profiles",
+        "org.ops4j.pax.runner.platform.profileStartLevel",
+        "org.ops4j.pax.runner.platform.useAbsoluteFilePaths",
+        "org.ops4j.pax.runner.platform.overwrite",
+        "org.ops4j.pax.runner.platform.overwriteUserBundles",
+        "org.ops4j.pax.runner.platform.overwriteSystemBundles",
+        "org.ops4j.pax.runner.platform.downloadFeedback",
+        "org.ops4j.pax.runner.platform.downloadThreads",
+        "org.ops4j.pax.runner.platform.downloadThreadsPerHost",
+        "org.ops4j.pax.runner.platform.bundleStore",
+        "org.ops4j.pax.runner.platform.revalidate",
+        "org.ops4j.pax.runner.platform.offline",
+        "org.ops4j.pax.runner.platform.mirrors",
+        "org.ops4j.pax.runner.platform.mirrorDelay",
+        "org.ops4j.pax.runner.platform.localBundles",
+        "org.ops4j.pax.runner.platform.bundleValidation",
+        "org.ops4j.pax.runner.platform.skipInvalidBundles",
+        ScannedBundleIndex.MVN_LOCAL_REPOSITORY
+    };
+    /**
+     * Evict cache (only delete least recently used downloaded bundles, without starting) configuration property name.
+     */
+    private static final String EVICT_CACHE = "evictCache";
+    /**
+     * Platform service maximum size of downloaded bundles property name.
+     */
+    private static final String PLATFORM_CACHE_SIZE = "org.ops4j.pax.runner.platform.cacheSize";
+    /**
+     * Launch plan cache (reuse bundles resolved by a previous run) configuration property name.
+     */
+    private static final String LAUNCH_PLAN = "launchPlan";
+    /**
+     * Export launch plan (file to export resolved bundles to) configuration property name.
+     */
+    private static final String EXPORT_LAUNCH_PLAN = "exportLaunchPlan";
+    /**
+     * Name of the launch plan file in the working directory.
+     */
+    private static final String LAUNCH_PLAN_FILE_NAME = "launch.plan";
+    /**
+     * Number of provision specs scanned concurrently configuration property name.
+     */
+    private static final String SCAN_THREADS = "scanThreads";
+    /**
+     * Scan cache (reuse scan results of a previous run) configuration property name.
+     */
+    private static final String SCAN_CACHE = "scanCache";
+    /**
+     * For how long (in seconds) scan results are cached configuration property name.
+     */
+    private static final String SCAN_CACHE_TTL = "scanCacheTTL";
+    /**
+     * Default time to live (in seconds) of scan results.
+     */
+    private static final long DEFAULT_SCAN_CACHE_TTL = 3600;
+    /**
+     * Name of the scan cache directory in the working directory.
+     */
+    private static final String SCAN_CACHE_DIRECTORY_NAME = "scans";
+    /**
+     * Suffix of the configuration property listing the protocols of a handler.
+     */
+    private static final String HANDLER_PROTOCOLS = ".protocols";
+    /**
+     * Suffix of the configuration property listing the schemas of a scanner.
+     */
+    private static final String SCANNER_SCHEMAS = ".schemas";
 
     /**
      * Creates a new runner.
@@ -194,18 +289,41 @@ public class Run
     {
         final Context context = createContext( commandLine, config, resolver );
         LOGGER.info( commandLine );
+        // only keep the downloaded bundles under the cache size, if requested
+        if( Boolean.valueOf( resolver.get( EVICT_CACHE ) ) )
+        {
+            EventDispatcher.shutdown();
+            evictCache( resolver );
+            return;
+        }
         // cleanup if requested
         cleanup( resolver );
         // install aditional services
         installServices( context );
         // install aditional handlers
         installHandlers( context );
+        // the platform does not depend on provisioned bundles, so if requested it is downloaded while scanning
+        Platform platform = null;
+        Thread platformPrefetch = null;
+        if( Boolean.valueOf( resolver.get( PREFETCH_PLATFORM ) ) )
+        {
+            platform = installPlatform( context );
+            platformPrefetch = prefetchPlatform( platform, context );
+        }
         // install provisioning and bundles
-        installBundles( installScanners( context ), new ExtensionBasedProvisionSchemaResolver(), context );
+        provisionBundles( context );
         // stop the dispatcher as there are no longer events around
         EventDispatcher.shutdown();
         // install platform and start it up
-        startPlatform( installPlatform( context ), context, runner == null ? createJavaRunner( resolver ) : runner );
+        if( platform == null )
+        {
+            platform = installPlatform( context );
+        }
+        else
+        {
+            awaitPlatformPrefetch( platformPrefetch );
+        }
+        startPlatform( platform, context, runner == null ? createJavaRunner( resolver ) : runner );
     }
 
     /**
@@ -224,6 +342,38 @@ public class Run
         }
     }
 
+    /**
+     * Deletes the least recently used downloaded bundles of the working directory till their size is under the
+     * configured cache size.
+     *
+     * @param resolver option resolver
+     */
+    void evictCache( final OptionResolver resolver )
+    {
+        final String cacheSize = resolver.get( PLATFORM_CACHE_SIZE );
+        if( cacheSize == null )
+        {
+            throw new ConfigurationException( "Cache size must be configured [" + PLATFORM_CACHE_SIZE + "]" );
+        }
+        final long maxSize;
+        try
+        {
+            maxSize = CacheEvictor.parseSize( cacheSize );
+        }
+        catch( NumberFormatException e )
+        {
+            throw new ConfigurationException( "Invalid cache size [" + cacheSize + "]" );
+        }
+        try
+        {
+            CacheEvictor.evict( new File( resolver.getMandatory( WORKING_DIRECTORY ) ), maxSize );
+        }
+        catch( PlatformException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
     /**
      * Creates and initialize the context.
      *
@@ -351,7 +501,7 @@ public class Run
                 {
                     throw new ConfigurationException( "Handler [" + segment + "] is not supported" );
                 }
-                createActivator( segment, activatorName, context );
+                installHandler( segment, activatorName, context );
             }
             // then install the handler service
             // maintain this order as in this way the bundle context will be easier to respond to getServiceListeners
@@ -388,7 +538,7 @@ public class Run
             {
                 throw new ConfigurationException( "Scanner [" + segment + "] is not supported" );
             }
-            createActivator( segment, activatorName, context );
+            installScanner( segment, activatorName, context );
         }
         // then install the provisioning service
         // maintain this order as in this way the bundle context will be easier to respond to getServiceListeners
@@ -411,6 +561,64 @@ public class Run
         return (ProvisionService) bundleContext.getService( reference );
     }
 
+    /**
+     * Installs a handler. If the protocols of the handler are configured, the handler is started only when one of the
+     * protocols is first used, otherwise the handler is started right away.
+     *
+     * @param handlerName   name of the handler
+     * @param activatorName class name of the handler activator
+     * @param context       the running context
+     */
+    void installHandler( final String handlerName, final String activatorName, final Context context )
+    {
+        final String protocols = context.getConfiguration().getProperty( handlerName + HANDLER_PROTOCOLS );
+        if( protocols == null || protocols.trim().length() == 0 )
+        {
+            createActivator( handlerName, activatorName, context );
+            return;
+        }
+        final LazyActivator activator = new LazyActivator( handlerName, activatorName, context );
+        final BundleContext bundleContext = new RunnerBundleContext( context );
+        for( String protocol : protocols.split( "," ) )
+        {
+            final Dictionary<String, Object> properties = new Hashtable<String, Object>();
+            properties.put( URLConstants.URL_HANDLER_PROTOCOL, new String[]{ protocol.trim() } );
+            bundleContext.registerService(
+                URLStreamHandlerService.class.getName(),
+                new LazyURLStreamHandlerService( activator, protocol.trim() ),
+                properties
+            );
+        }
+    }
+
+    /**
+     * Installs a scanner. If the schemas of the scanner are configured, the scanner is started only when one of the
+     * schemas is first scanned, otherwise the scanner is started right away.
+     *
+     * @param scannerName   name of the scanner
+     * @param activatorName class name of the scanner activator
+     * @param context       the running context
+     */
+    void installScanner( final String scannerName, final String activatorName, final Context context )
+    {
+        final String schemas = context.getConfiguration().getProperty( scannerName + SCANNER_SCHEMAS );
+        if( schemas == null || schemas.trim().length() == 0 )
+        {
+            createActivator( scannerName, activatorName, context );
+            return;
+        }
+        final LazyActivator activator = new LazyActivator( scannerName, activatorName, context );
+        final BundleContext bundleContext = new RunnerBundleContext( context );
+        for( String schema : schemas.split( "," ) )
+        {
+            final Dictionary<String, Object> properties = new Hashtable<String, Object>();
+            properties.put( Scanner.SCHEMA_PROPERTY, schema.trim() );
+            bundleContext.registerService(
+                Scanner.class.getName(), new LazyScanner( activator, schema.trim() ), properties
+            );
+        }
+    }
+
     /**
      * Installs additional services.
      *
@@ -438,6 +646,75 @@ public class Run
         }
     }
 
+    /**
+     * Installs the provisioned bundles from the launch plan saved by a previous run, if requested and nothing changed
+     * since, or by scanning the provision specs otherwise. The scanned launch plan is saved for next run and, if
+     * requested, exported.
+     *
+     * @param context the running context
+     */
+    void provisionBundles( final Context context )
+    {
+        final OptionResolver resolver = context.getOptionResolver();
+        File launchPlanFile = null;
+        String launchPlanKey = null;
+        LaunchPlan launchPlan = null;
+        if( Boolean.valueOf( resolver.get( LAUNCH_PLAN ) ) )
+        {
+            launchPlanFile = new File( resolver.getMandatory( WORKING_DIRECTORY ), LAUNCH_PLAN_FILE_NAME );
+            launchPlanKey = LaunchPlan.key( context.getCommandLine(), context.getConfiguration() );
+            final LaunchPlan saved = LaunchPlan.load( launchPlanFile );
+            if( saved != null && launchPlanKey.equals( saved.getKey() ) )
+            {
+                try
+                {
+                    saved.install( context );
+                    launchPlan = saved;
+                    LOGGER.info( "Using launch plan [" + launchPlanFile + "]" );
+                }
+                catch( MalformedURLException e )
+                {
+                    LOGGER.warn( "Launch plan [" + launchPlanFile + "] cannot be used due to: " + e.getMessage() );
+                }
+            }
+        }
+        if( launchPlan == null )
+        {
+            installBundles( installScanners( context ), new ExtensionBasedProvisionSchemaResolver(), context );
+            launchPlan = LaunchPlan.create( launchPlanKey, context );
+            if( launchPlanFile != null )
+            {
+                saveLaunchPlan( launchPlan, launchPlanFile );
+            }
+        }
+        final String exportFile = resolver.get( EXPORT_LAUNCH_PLAN );
+        if( exportFile != null && exportFile.trim().length() > 0 )
+        {
+            LOGGER.info( "Exporting launch plan to [" + exportFile + "]" );
+            saveLaunchPlan( new LaunchPlan( null, launchPlan.getEntries(), launchPlan.getSystemProperties() ),
+                            new File( exportFile.trim() )
+            );
+        }
+    }
+
+    /**
+     * Saves a launch plan. Failures are only logged as the plan is not needed for the current run.
+     *
+     * @param launchPlan launch plan to save
+     * @param file       file to save to
+     */
+    private static void saveLaunchPlan( final LaunchPlan launchPlan, final File file )
+    {
+        try
+        {
+            launchPlan.save( file );
+        }
+        catch( IOException e )
+        {
+            LOGGER.warn( "Launch plan could not be saved to [" + file + "] due to: " + e.getMessage() );
+        }
+    }
+
     /**
      * By using provision service it installs provisioned bundles.
      *
@@ -458,6 +735,20 @@ public class Run
         provisionSpecs.addAll( context.getCommandLine().getArguments() );
         provisionSpecs.addAll( transformProfilesToProvisionSpecs( context ) );
 
+        int scanThreads = 1;
+        final String scanThreadsOption = context.getOptionResolver().get( SCAN_THREADS );
+        if( scanThreadsOption != null )
+        {
+            try
+            {
+                scanThreads = Integer.parseInt( scanThreadsOption.trim() );
+            }
+            catch( NumberFormatException ignore )
+            {
+                LOGGER.warn( "Invalid scan threads [" + scanThreadsOption + "], scanning sequentially" );
+            }
+        }
+
         // backup properties and replace them with audited properties
         final Properties sysPropsBackup = System.getProperties();
         try
@@ -465,40 +756,160 @@ public class Run
             context.setSystemProperties( new AuditedProperties( sysPropsBackup ) );
             System.setProperties( context.getSystemProperties() );
 
-            final Set<ScannedBundle> scannedBundles = new HashSet<ScannedBundle>();
-            // then scan those url's
-            for( String provisionSpec : provisionSpecs )
+            final ScannedBundleIndex scannedBundles = new ScannedBundleIndex( context.getOptionResolver() );
+            final ScanCache scanCache = createScanCache( context );
+            if( scanThreads > 1 && provisionSpecs.size() > 1 )
             {
-                try
+                scanConcurrently( provisionService, schemaResolver, scanCache, context, provisionSpecs, scannedBundles,
+                                  Math.min( scanThreads, provisionSpecs.size() )
+                );
+            }
+            else
+            {
+                // then scan those url's
+                for( String provisionSpec : provisionSpecs )
                 {
                     try
                     {
-                        provisionService.wrap(
-                            filterUnique( scannedBundles, provisionService.scan( provisionSpec ) )
-                        ).install();
+                        final Properties systemProperties = context.getSystemProperties();
+                        final Properties before = snapshot( systemProperties );
+                        final LaunchPlan cached = scanCache == null ? null : scanCache.get( provisionSpec, before );
+                        final List<ScannedBundle> scanned;
+                        if( cached != null )
+                        {
+                            systemProperties.putAll( cached.getSystemProperties() );
+                            scanned = ScanCache.getScannedBundles( cached );
+                        }
+                        else
+                        {
+                            scanned = scan( provisionService, schemaResolver, provisionSpec );
+                            if( scanCache != null )
+                            {
+                                scanCache.put( provisionSpec, before, scanned, changes( before, systemProperties ) );
+                            }
+                        }
+                        provisionService.wrap( scannedBundles.add( scanned ) ).install();
+                    }
+                    catch( MalformedSpecificationException e )
+                    {
+                        throw new RuntimeException( e );
                     }
-                    catch( UnsupportedSchemaException e )
+                    catch( ScannerException e )
+                    {
+                        throw new RuntimeException( e );
+                    }
+                    catch( BundleException e )
+                    {
+                        throw new RuntimeException( e );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            // restore the backup-ed properties
+            System.setProperties( sysPropsBackup );
+        }
+    }
+
+    /**
+     * Scans the provision specs concurrently and installs the scanned bundles in the order of provision specs, so the
+     * first provision spec that scans a bundle wins, as when scanning sequentially.
+     * Each scan has its own scope of system properties, so concurrent scans do not see each other system properties.
+     * The system properties set by each scan are added to the context system properties in the order of provision
+     * specs.
+     *
+     * @param provisionService installed provision service
+     * @param schemaResolver   a provision schema resolver
+     * @param scanCache        cache of scan results; null if scan results should not be cached
+     * @param context          the running context
+     * @param provisionSpecs   provision specs to scan
+     * @param scannedBundles   index of already scanned bundles
+     * @param threads          number of concurrent scans
+     */
+    private void scanConcurrently( final ProvisionService provisionService,
+                                   final ProvisionSchemaResolver schemaResolver,
+                                   final ScanCache scanCache,
+                                   final Context context,
+                                   final List<String> provisionSpecs,
+                                   final ScannedBundleIndex scannedBundles,
+                                   final int threads )
+    {
+        LOGGER.debug( "Scanning " + provisionSpecs.size() + " provision specs using " + threads + " threads" );
+        final Properties before = snapshot( context.getSystemProperties() );
+        final ScopedProperties scopedProperties = new ScopedProperties( context.getSystemProperties() );
+        System.setProperties( scopedProperties );
+        final ExecutorService executor = Executors.newFixedThreadPool( threads, new ThreadFactory()
+        {
+            public Thread newThread( final Runnable runnable )
+            {
+                final Thread thread = new Thread( runnable, "Pax Runner scanner" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        }
+        );
+        try
+        {
+            final List<Future<ScanResult>> scans = new ArrayList<Future<ScanResult>>();
+            for( final String provisionSpec : provisionSpecs )
+            {
+                scans.add( executor.submit( new Callable<ScanResult>()
+                {
+                    public ScanResult call()
+                        throws Exception
                     {
-                        final String resolvedProvisionURL = schemaResolver.resolve( provisionSpec );
-                        if( resolvedProvisionURL != null && !resolvedProvisionURL.equals( provisionSpec ) )
+                        final LaunchPlan cached = scanCache == null ? null : scanCache.get( provisionSpec, before );
+                        if( cached != null )
                         {
-                            provisionService.wrap(
-                                filterUnique( scannedBundles, provisionService.scan( resolvedProvisionURL ) )
-                            ).install();
+                            final Properties systemProperties = new Properties();
+                            systemProperties.putAll( cached.getSystemProperties() );
+                            return new ScanResult( ScanCache.getScannedBundles( cached ), systemProperties );
                         }
-                        else
+                        scopedProperties.enter();
+                        try
+                        {
+                            final List<ScannedBundle> scanned = scan( provisionService, schemaResolver, provisionSpec );
+                            final Properties changes = scopedProperties.changes();
+                            if( scanCache != null )
+                            {
+                                scanCache.put( provisionSpec, before, scanned, changes );
+                            }
+                            return new ScanResult( scanned, changes );
+                        }
+                        finally
                         {
-                            throw e;
+                            scopedProperties.leave();
                         }
                     }
                 }
-                catch( MalformedSpecificationException e )
+                )
+                );
+            }
+            for( Future<ScanResult> scan : scans )
+            {
+                final ScanResult result;
+                try
                 {
-                    throw new RuntimeException( e );
+                    result = scan.get();
                 }
-                catch( ScannerException e )
+                catch( InterruptedException e )
                 {
-                    throw new RuntimeException( e );
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException( "Interrupted while scanning", e );
+                }
+                catch( ExecutionException e )
+                {
+                    if( e.getCause() instanceof RuntimeException )
+                    {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RuntimeException( e.getCause() );
+                }
+                context.getSystemProperties().putAll( result.getSystemProperties() );
+                try
+                {
+                    provisionService.wrap( scannedBundles.add( result.getBundles() ) ).install();
                 }
                 catch( BundleException e )
                 {
@@ -508,8 +919,109 @@ public class Run
         }
         finally
         {
-            // restore the backup-ed properties
-            System.setProperties( sysPropsBackup );
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the scan cache, if enabled.
+     *
+     * @param context the running context
+     *
+     * @return scan cache or null if scan results should not be cached
+     */
+    private static ScanCache createScanCache( final Context context )
+    {
+        final OptionResolver resolver = context.getOptionResolver();
+        if( !Boolean.valueOf( resolver.get( SCAN_CACHE ) ) )
+        {
+            return null;
+        }
+        long timeToLive = DEFAULT_SCAN_CACHE_TTL;
+        final String timeToLiveOption = resolver.get( SCAN_CACHE_TTL );
+        if( timeToLiveOption != null )
+        {
+            try
+            {
+                timeToLive = Long.parseLong( timeToLiveOption.trim() );
+            }
+            catch( NumberFormatException ignore )
+            {
+                LOGGER.warn( "Invalid scan cache time to live [" + timeToLiveOption + "], using " + timeToLive );
+            }
+        }
+        return new ScanCache(
+            new File( resolver.getMandatory( WORKING_DIRECTORY ), SCAN_CACHE_DIRECTORY_NAME ),
+            context.getCommandLine(),
+            timeToLive * 1000
+        );
+    }
+
+    /**
+     * Returns a copy of the properties set in a properties object (without defaults).
+     *
+     * @param properties properties to copy
+     *
+     * @return copy
+     */
+    private static Properties snapshot( final Properties properties )
+    {
+        final Properties snapshot = new Properties();
+        snapshot.putAll( properties );
+        return snapshot;
+    }
+
+    /**
+     * Returns the properties that were set or changed since a snapshot was taken.
+     *
+     * @param before     snapshot taken before changes
+     * @param properties current properties
+     *
+     * @return changed properties
+     */
+    private static Properties changes( final Properties before, final Properties properties )
+    {
+        final Properties changes = new Properties();
+        for( Map.Entry<Object, Object> property : properties.entrySet() )
+        {
+            if( !property.getValue().equals( before.get( property.getKey() ) ) )
+            {
+                changes.put( property.getKey(), property.getValue() );
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Scans a provision spec. If the provision spec schema is not supported, scans the provision spec as resolved by
+     * the schema resolver.
+     *
+     * @param provisionService installed provision service
+     * @param schemaResolver   a provision schema resolver
+     * @param provisionSpec    provision spec to scan
+     *
+     * @return scanned bundles
+     *
+     * @throws MalformedSpecificationException if the provision spec is malformed
+     * @throws ScannerException                if scanning fails
+     */
+    private static List<ScannedBundle> scan( final ProvisionService provisionService,
+                                             final ProvisionSchemaResolver schemaResolver,
+                                             final String provisionSpec )
+        throws MalformedSpecificationException, ScannerException
+    {
+        try
+        {
+            return provisionService.scan( provisionSpec );
+        }
+        catch( UnsupportedSchemaException e )
+        {
+            final String resolvedProvisionURL = schemaResolver.resolve( provisionSpec );
+            if( resolvedProvisionURL != null && !resolvedProvisionURL.equals( provisionSpec ) )
+            {
+                return provisionService.scan( resolvedProvisionURL );
+            }
+            throw e;
         }
     }
 
@@ -558,23 +1070,6 @@ public class Run
         return provisionSpecs;
     }
 
-    /**
-     * Filter all scanned bundles that already exists in the provided set and add the unique ones to the set.
-     *
-     * @param alreadyScanned set of already scanned bundles
-     * @param scannedBundles to be filtered
-     *
-     * @return unique list of scanned bundles (that were not already present in the provided set)
-     */
-    private List<ScannedBundle> filterUnique( final Set<ScannedBundle> alreadyScanned,
-                                              final List<ScannedBundle> scannedBundles )
-    {
-        final Set<ScannedBundle> unique = new LinkedHashSet<ScannedBundle>( scannedBundles );
-        unique.removeAll( alreadyScanned );
-        alreadyScanned.addAll( unique );
-        return new ArrayList<ScannedBundle>( unique );
-    }
-
     /**
      * Installs platform extender and configured platform.
      *
@@ -683,6 +1178,99 @@ public class Run
         }
     }
 
+    /**
+     * Starts downloading the platform system package, system files and platform bundles in the background.
+     * The platform configuration and the system properties are copied before the download starts, as scanning changes
+     * the system properties the options are resolved from.
+     * Failures are only logged as downloading is retried when the platform is started.
+     *
+     * @param platform installed platform
+     * @param context  the running context
+     *
+     * @return thread downloading the platform
+     */
+    Thread prefetchPlatform( final Platform platform, final Context context )
+    {
+        if( platform == null )
+        {
+            throw new RuntimeException( "Could not resolve a platform" );
+        }
+        LOGGER.debug( "Downloading platform in background" );
+        final List<SystemFileReference> systemFiles = determineSystemFiles( context );
+        final Dictionary<String, String> config = snapshotPlatformConfiguration( context.getOptionResolver() );
+        config.put( PLATFORM_PREFETCH, Boolean.TRUE.toString() );
+        // system properties set so far (none before scanning), as they will be changed by scanning
+        final Properties properties = new Properties();
+        if( context.getSystemProperties() != null )
+        {
+            properties.putAll( context.getSystemProperties() );
+        }
+        final Thread thread = new Thread( new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    platform.start( systemFiles, null, properties, config, null );
+                }
+                catch( Exception e )
+                {
+                    LOGGER.warn(
+                        "Platform could not be downloaded in background due to: " + e.getMessage()
+                        + ". It will be downloaded again when the platform is started."
+                    );
+                    LOGGER.debug( "Platform download failure", e );
+                }
+            }
+        }, "Pax Runner platform prefetch"
+        );
+        thread.setDaemon( true );
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Resolves the platform options used while downloading the platform (and the maven local repository the platform
+     * looks up), so they can be used without looking them up again while scanning. The cache size is set to not
+     * limited, as downloaded bundles are evicted only when the platform is started, once the provisioned bundles are
+     * known: evicting while downloading the platform could delete bundles provisioned by this run.
+     *
+     * @param resolver option resolver
+     *
+     * @return resolved options; options without a value are not included
+     */
+    Dictionary<String, String> snapshotPlatformConfiguration( final OptionResolver resolver )
+    {
+        final Dictionary<String, String> config = new Hashtable<String, String>();
+        for( String name : PLATFORM_PREFETCH_OPTIONS )
+        {
+            final String value = resolver.get( name );
+            if( value != null )
+            {
+                config.put( name, value );
+            }
+        }
+        config.put( PLATFORM_CACHE_SIZE, "" );
+        return config;
+    }
+
+    /**
+     * Waits for the platform downloaded in the background.
+     *
+     * @param platformPrefetch thread downloading the platform
+     */
+    private static void awaitPlatformPrefetch( final Thread platformPrefetch )
+    {
+        try
+        {
+            platformPrefetch.join();
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     List<SystemFileReference> determineSystemFiles( final Context context )
     {
         final List<SystemFileReference> systemFiles = new ArrayList<SystemFileReference>();
@@ -913,4 +1501,37 @@ public class Run
             LOGGER = LogFactory.getLog( Run.class );
         }
     }
+    /**
+     * Bundles scanned out of a provision spec and system properties set while scanning.
+     */
+    private static class ScanResult
+    {
+
+        /**
+         * Scanned bundles.
+         */
+        private final List<ScannedBundle> m_bundles;
+        /**
+         * System properties set while scanning.
+         */
+        private final Properties m_systemProperties;
+
+        ScanResult( final List<ScannedBundle> bundles, final Properties systemProperties )
+        {
+            m_bundles = bundles;
+            m_systemProperties = systemProperties;
+        }
+
+        List<ScannedBundle> getBundles()
+        {
+            return m_bundles;
+        }
+
+        Properties getSystemProperties()
+        {
+            return m_systemProperties;
+        }
+
+    }
+
 }
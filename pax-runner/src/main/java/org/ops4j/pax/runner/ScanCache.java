@@ -0,0 +1,237 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.scanner.ScannedBundle;
+
+/**
+ * Persistent cache of the bundles and system properties resulted from scanning a provision spec, so slow scanners
+ * (as pom, composite or obr) do not have to be invoked again on next runs.
+ * Each provision spec is cached in its own file (in the launch plan format) identified by a key calculated out of the
+ * provision spec, the command line options, the system properties set before scanning and the last modification time
+ * of the local file or directory of the provision spec. Scan results are cached only for a limited time, as there is
+ * no way to know if remote content changed and the key does not cover everything a scanner reads, as provision files
+ * included by a local provision file or the poms a local pom depends on.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+class ScanCache
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( ScanCache.class );
+    /**
+     * Extension of cache files.
+     */
+    private static final String EXTENSION = ".scan";
+
+    /**
+     * Directory where scan results are stored.
+     */
+    private final File m_directory;
+    /**
+     * Command line, whose options are part of the key.
+     */
+    private final CommandLine m_commandLine;
+    /**
+     * For how long (in milliseconds) scan results are valid.
+     */
+    private final long m_timeToLive;
+
+    /**
+     * Creates a new scan cache.
+     *
+     * @param directory   directory where scan results are stored; mandatory
+     * @param commandLine command line; mandatory
+     * @param timeToLive  for how long (in milliseconds) scan results are valid
+     */
+    ScanCache( final File directory, final CommandLine commandLine, final long timeToLive )
+    {
+        NullArgumentException.validateNotNull( directory, "Directory" );
+        NullArgumentException.validateNotNull( commandLine, "Command line" );
+        m_directory = directory;
+        m_commandLine = commandLine;
+        m_timeToLive = timeToLive;
+    }
+
+    /**
+     * Returns the cached scan result of a provision spec.
+     *
+     * @param provisionSpec    provision spec
+     * @param systemProperties system properties set before scanning the provision spec
+     *
+     * @return cached scan result or null if not cached or not valid anymore
+     */
+    LaunchPlan get( final String provisionSpec, final Properties systemProperties )
+    {
+        final StringBuilder content = new StringBuilder();
+        appendKey( content, provisionSpec, systemProperties );
+        final File file = file( provisionSpec );
+        if( System.currentTimeMillis() - file.lastModified() > m_timeToLive )
+        {
+            return null;
+        }
+        final LaunchPlan cached = LaunchPlan.load( file );
+        if( cached == null || !LaunchPlan.sha1( content.toString() ).equals( cached.getKey() ) )
+        {
+            return null;
+        }
+        LOGGER.debug( "Using cached scan of [" + provisionSpec + "]" );
+        return cached;
+    }
+
+    /**
+     * Caches the result of scanning a provision spec.
+     *
+     * @param provisionSpec    provision spec
+     * @param systemProperties system properties set before scanning the provision spec
+     * @param scannedBundles   scanned bundles
+     * @param scanProperties   system properties set while scanning
+     */
+    void put( final String provisionSpec,
+              final Properties systemProperties,
+              final List<ScannedBundle> scannedBundles,
+              final Properties scanProperties )
+    {
+        final StringBuilder content = new StringBuilder();
+        appendKey( content, provisionSpec, systemProperties );
+        final List<LaunchPlan.Entry> entries = new ArrayList<LaunchPlan.Entry>();
+        if( scannedBundles != null )
+        {
+            for( ScannedBundle bundle : scannedBundles )
+            {
+                entries.add(
+                    new LaunchPlan.Entry(
+                        bundle.getLocation().trim(),
+                        bundle.getStartLevel(),
+                        !Boolean.FALSE.equals( bundle.shouldStart() ),
+                        Boolean.TRUE.equals( bundle.shouldUpdate() )
+                    )
+                );
+            }
+        }
+        final Map<String, String> properties = new TreeMap<String, String>();
+        for( Map.Entry<Object, Object> property : scanProperties.entrySet() )
+        {
+            properties.put( String.valueOf( property.getKey() ), String.valueOf( property.getValue() ) );
+        }
+        final File file = file( provisionSpec );
+        try
+        {
+            new LaunchPlan( LaunchPlan.sha1( content.toString() ), entries, properties ).save( file );
+        }
+        catch( IOException e )
+        {
+            LOGGER.warn( "Scan of [" + provisionSpec + "] could not be cached due to: " + e.getMessage() );
+        }
+    }
+
+    /**
+     * Returns the bundles of a cached scan result.
+     *
+     * @param cached cached scan result
+     *
+     * @return scanned bundles
+     */
+    static List<ScannedBundle> getScannedBundles( final LaunchPlan cached )
+    {
+        final List<ScannedBundle> bundles = new ArrayList<ScannedBundle>();
+        for( final LaunchPlan.Entry entry : cached.getEntries() )
+        {
+            bundles.add( new ScannedBundle()
+            {
+                public String getLocation()
+                {
+                    return entry.getURL();
+                }
+
+                public Integer getStartLevel()
+                {
+                    return entry.getStartLevel();
+                }
+
+                public Boolean shouldStart()
+                {
+                    return entry.shouldStart();
+                }
+
+                public Boolean shouldUpdate()
+                {
+                    return entry.shouldUpdate();
+                }
+
+                @Override
+                public String toString()
+                {
+                    return entry.toString();
+                }
+            }
+            );
+        }
+        return bundles;
+    }
+
+    /**
+     * Appends the content the key of a provision spec is calculated out of.
+     *
+     * @param content          content to append to
+     * @param provisionSpec    provision spec
+     * @param systemProperties system properties set before scanning the provision spec
+     */
+    private void appendKey( final StringBuilder content,
+                            final String provisionSpec,
+                            final Properties systemProperties )
+    {
+        content.append( "spec:" ).append( provisionSpec ).append( '\n' );
+        LaunchPlan.appendOptions( content, m_commandLine );
+        if( systemProperties != null )
+        {
+            for( Map.Entry<Object, Object> property : new TreeMap<Object, Object>( systemProperties ).entrySet() )
+            {
+                content.append( "property:" ).append( property.getKey() ).append( '=' )
+                    .append( property.getValue() ).append( '\n' );
+            }
+        }
+        LaunchPlan.appendLocalInput( content, provisionSpec );
+    }
+
+    /**
+     * Returns the file where the scan result of a provision spec is stored.
+     *
+     * @param provisionSpec provision spec
+     *
+     * @return cache file
+     */
+    private File file( final String provisionSpec )
+    {
+        return new File( m_directory, LaunchPlan.sha1( provisionSpec ) + EXTENSION );
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.platform.internal.LocalArtifacts;
+import org.ops4j.pax.scanner.ScannedBundle;
+
+/**
+ * Index of scanned bundles by canonical location, used to filter bundles that were already scanned (by the same or
+ * another provision spec) under an equivalent location, such as a relative and an absolute file url or a maven url and
+ * the file url of the artifact in the local repository. The first scanned bundle wins, as it may be already installed
+ * when an equivalent one is scanned; if the skipped bundle has another start level or other start / update options, a
+ * warning is logged, as those options are not used.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+class ScannedBundleIndex
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( ScannedBundleIndex.class );
+    /**
+     * Option of the local maven repository.
+     */
+    static final String MVN_LOCAL_REPOSITORY = "org.ops4j.pax.url.mvn.localRepository";
+
+    /**
+     * Option resolver used to find out the local maven repository.
+     */
+    private final OptionResolver m_resolver;
+    /**
+     * Scanned bundles by canonical location.
+     */
+    private final Map<String, ScannedBundle> m_bundles;
+    /**
+     * Local maven repository. Resolved on first maven url.
+     */
+    private File m_localRepository;
+
+    /**
+     * Creates a new empty index.
+     *
+     * @param resolver option resolver; mandatory
+     */
+    ScannedBundleIndex( final OptionResolver resolver )
+    {
+        NullArgumentException.validateNotNull( resolver, "Option resolver" );
+        m_resolver = resolver;
+        m_bundles = new HashMap<String, ScannedBundle>();
+    }
+
+    /**
+     * Adds scanned bundles to the index.
+     *
+     * @param scannedBundles scanned bundles to add
+     *
+     * @return bundles that were not already in the index, in scanning order
+     */
+    List<ScannedBundle> add( final List<ScannedBundle> scannedBundles )
+    {
+        final List<ScannedBundle> unique = new ArrayList<ScannedBundle>();
+        if( scannedBundles == null )
+        {
+            return unique;
+        }
+        for( ScannedBundle scannedBundle : scannedBundles )
+        {
+            final String location = canonicalLocation( scannedBundle.getLocation() );
+            final ScannedBundle existing = m_bundles.get( location );
+            if( existing == null )
+            {
+                m_bundles.put( location, scannedBundle );
+                unique.add( scannedBundle );
+            }
+            else if( existing != scannedBundle )
+            {
+                if( sameOptions( existing, scannedBundle ) )
+                {
+                    LOGGER.debug(
+                        "Skipped bundle [" + scannedBundle.getLocation() + "] as it is the same as ["
+                        + existing.getLocation() + "]"
+                    );
+                }
+                else
+                {
+                    LOGGER.warn(
+                        "Skipped bundle " + describe( scannedBundle ) + " as it is the same as "
+                        + describe( existing ) + " that was scanned first and whose options are used"
+                    );
+                }
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Returns the canonical form of a bundle location: the canonical path of local files and of maven artifacts
+     * (without an explicit repository and with an exact version), the trimmed location otherwise.
+     *
+     * @param location bundle location
+     *
+     * @return canonical location
+     */
+    String canonicalLocation( final String location )
+    {
+        if( location == null )
+        {
+            return "";
+        }
+        String canonical = location.trim();
+        if( canonical.startsWith( "mvn:" ) )
+        {
+            String path = canonical.substring( "mvn:".length() );
+            // an explicit repository does not change the artifact
+            if( path.contains( "!" ) )
+            {
+                path = path.substring( path.lastIndexOf( '!' ) + 1 );
+            }
+            final String repositoryPath = LocalArtifacts.repositoryPath( path );
+            if( repositoryPath == null )
+            {
+                return "mvn:" + path;
+            }
+            return "file:" + canonicalPath( new File( getLocalRepository(), repositoryPath ) );
+        }
+        if( canonical.startsWith( "file:" ) )
+        {
+            File file;
+            try
+            {
+                file = new File( new URI( canonical ) );
+            }
+            catch( Exception e )
+            {
+                // not an hierarchical file url, e.g. file:relative/path
+                file = new File( canonical.substring( "file:".length() ) );
+            }
+            return "file:" + canonicalPath( file );
+        }
+        return canonical;
+    }
+
+    /**
+     * Checks if two scanned bundles have the same start level and start / update options.
+     *
+     * @param bundle1 first bundle
+     * @param bundle2 second bundle
+     *
+     * @return true if the options are the same
+     */
+    static boolean sameOptions( final ScannedBundle bundle1, final ScannedBundle bundle2 )
+    {
+        return same( bundle1.getStartLevel(), bundle2.getStartLevel() )
+               && same( bundle1.shouldStart(), bundle2.shouldStart() )
+               && same( bundle1.shouldUpdate(), bundle2.shouldUpdate() );
+    }
+
+    /**
+     * Describes a scanned bundle by its location and options.
+     *
+     * @param bundle scanned bundle
+     *
+     * @return description
+     */
+    private static String describe( final ScannedBundle bundle )
+    {
+        return "[" + bundle.getLocation() + "] (start level " + bundle.getStartLevel() + ", start "
+               + bundle.shouldStart() + ", update " + bundle.shouldUpdate() + ")";
+    }
+
+    /**
+     * Null safe equality check.
+     *
+     * @param value1 first value
+     * @param value2 second value
+     *
+     * @return true if both are null or equal
+     */
+    private static boolean same( final Object value1, final Object value2 )
+    {
+        return value1 == null ? value2 == null : value1.equals( value2 );
+    }
+
+    /**
+     * Lazy getter.
+     *
+     * @return local maven repository
+     */
+    private File getLocalRepository()
+    {
+        if( m_localRepository == null )
+        {
+            m_localRepository = LocalArtifacts.localRepository( m_resolver.get( MVN_LOCAL_REPOSITORY ) );
+        }
+        return m_localRepository;
+    }
+
+    /**
+     * Returns the canonical path of a file, falling back to the absolute path.
+     *
+     * @param file file
+     *
+     * @return canonical path
+     */
+    private static String canonicalPath( final File file )
+    {
+        try
+        {
+            return file.getCanonicalPath();
+        }
+        catch( IOException e )
+        {
+            return file.getAbsolutePath();
+        }
+    }
+
+}
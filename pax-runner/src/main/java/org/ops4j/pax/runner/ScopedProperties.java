@@ -0,0 +1,321 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.InvalidPropertiesFormatException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.ops4j.lang.NullArgumentException;
+
+/**
+ * Java Properties that, once installed as system properties, give each thread that entered a scope its own audited
+ * properties, backed by a set of shared properties. This way concurrent scans can set system properties without seeing
+ * each other changes, and the changes of each scan can be collected separately.
+ * Threads that did not enter a scope, including threads started from within a scope, use the shared properties.
+ * All methods of {@link Properties} and {@link java.util.Hashtable} (as of Java 6, targeted by the runner) act on the
+ * properties of the current scope (see {@link #scope()}); the table inherited from {@link Properties} is not used.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class ScopedProperties
+    extends Properties
+{
+
+    /**
+     * Shared properties.
+     */
+    private final Properties m_shared;
+    /**
+     * Properties of the current scope, if any. Not inherited by threads started from within a scope, as such threads
+     * (for example of thread pools) can outlive the scope.
+     */
+    private final ThreadLocal<AuditedProperties> m_scope;
+
+    /**
+     * Creates new scoped properties.
+     *
+     * @param shared properties used outside of a scope and as defaults of the scopes; mandatory
+     */
+    public ScopedProperties( final Properties shared )
+    {
+        NullArgumentException.validateNotNull( shared, "Shared properties" );
+        m_shared = shared;
+        m_scope = new ThreadLocal<AuditedProperties>();
+    }
+
+    /**
+     * Enters a new scope for the current thread.
+     */
+    public void enter()
+    {
+        m_scope.set( new AuditedProperties( m_shared ) );
+    }
+
+    /**
+     * Returns the properties set in the scope of the current thread.
+     *
+     * @return properties set in the scope; empty if the current thread did not enter a scope
+     */
+    public Properties changes()
+    {
+        final Properties changes = new Properties();
+        final AuditedProperties scope = m_scope.get();
+        if( scope != null )
+        {
+            changes.putAll( scope );
+        }
+        return changes;
+    }
+
+    /**
+     * Leaves the scope of the current thread.
+     */
+    public void leave()
+    {
+        m_scope.remove();
+    }
+
+    /**
+     * Returns the properties of the current scope or shared properties if outside of a scope.
+     * As for audited properties, only the properties set in the scope are enumerated, while the shared properties are
+     * used when a property is looked up and not set in the scope.
+     *
+     * @return current properties
+     */
+    public Properties scope()
+    {
+        final AuditedProperties scope = m_scope.get();
+        return scope != null ? scope : m_shared;
+    }
+
+    @Override
+    public String getProperty( final String key )
+    {
+        return scope().getProperty( key );
+    }
+
+    @Override
+    public String getProperty( final String key, final String defaultValue )
+    {
+        return scope().getProperty( key, defaultValue );
+    }
+
+    @Override
+    public Object setProperty( final String key, final String value )
+    {
+        return scope().setProperty( key, value );
+    }
+
+    @Override
+    public Enumeration<?> propertyNames()
+    {
+        return scope().propertyNames();
+    }
+
+    @Override
+    public Set<String> stringPropertyNames()
+    {
+        return scope().stringPropertyNames();
+    }
+
+    @Override
+    public void load( final Reader reader )
+        throws IOException
+    {
+        scope().load( reader );
+    }
+
+    @Override
+    public void load( final InputStream inStream )
+        throws IOException
+    {
+        scope().load( inStream );
+    }
+
+    @Override
+    public void loadFromXML( final InputStream in )
+        throws IOException, InvalidPropertiesFormatException
+    {
+        scope().loadFromXML( in );
+    }
+
+    @Override
+    public void store( final Writer writer, final String comments )
+        throws IOException
+    {
+        scope().store( writer, comments );
+    }
+
+    @Override
+    public void store( final OutputStream out, final String comments )
+        throws IOException
+    {
+        scope().store( out, comments );
+    }
+
+    @Override
+    public void storeToXML( final OutputStream os, final String comment )
+        throws IOException
+    {
+        scope().storeToXML( os, comment );
+    }
+
+    @Override
+    public void storeToXML( final OutputStream os, final String comment, final String encoding )
+        throws IOException
+    {
+        scope().storeToXML( os, comment, encoding );
+    }
+
+    @Override
+    public void list( final PrintStream out )
+    {
+        scope().list( out );
+    }
+
+    @Override
+    public void list( final PrintWriter out )
+    {
+        scope().list( out );
+    }
+
+    @Override
+    public int size()
+    {
+        return scope().size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return scope().isEmpty();
+    }
+
+    @Override
+    public Enumeration<Object> keys()
+    {
+        return scope().keys();
+    }
+
+    @Override
+    public Enumeration<Object> elements()
+    {
+        return scope().elements();
+    }
+
+    @Override
+    public boolean contains( final Object value )
+    {
+        return scope().contains( value );
+    }
+
+    @Override
+    public boolean containsValue( final Object value )
+    {
+        return scope().containsValue( value );
+    }
+
+    @Override
+    public boolean containsKey( final Object key )
+    {
+        return scope().containsKey( key );
+    }
+
+    @Override
+    public Object get( final Object key )
+    {
+        return scope().get( key );
+    }
+
+    @Override
+    public Object put( final Object key, final Object value )
+    {
+        return scope().put( key, value );
+    }
+
+    @Override
+    public void putAll( final Map<?, ?> properties )
+    {
+        scope().putAll( properties );
+    }
+
+    @Override
+    public Object remove( final Object key )
+    {
+        return scope().remove( key );
+    }
+
+    @Override
+    public void clear()
+    {
+        scope().clear();
+    }
+
+    @Override
+    public Set<Object> keySet()
+    {
+        return scope().keySet();
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet()
+    {
+        return scope().entrySet();
+    }
+
+    @Override
+    public Collection<Object> values()
+    {
+        return scope().values();
+    }
+
+    @Override
+    public Object clone()
+    {
+        return scope().clone();
+    }
+
+    @Override
+    public boolean equals( final Object object )
+    {
+        return object == this || scope().equals( object );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return scope().hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return scope().toString();
+    }
+
+}
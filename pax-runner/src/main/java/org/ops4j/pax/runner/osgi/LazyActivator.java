@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.osgi;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.runner.Context;
+import org.osgi.framework.BundleActivator;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * A bundle activator that is instantiated and started only when one of the services it registers is first used.
+ * Until then the services are represented by proxies (see {@link LazyURLStreamHandlerService} and
+ * {@link LazyScanner}) that look up the real service once the activator was started.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class LazyActivator
+{
+
+    /**
+     * Logger.
+     */
+    private static final Log LOGGER = LogFactory.getLog( LazyActivator.class );
+
+    /**
+     * Name of the bundle.
+     */
+    private final String m_bundleName;
+    /**
+     * Class name of the activator.
+     */
+    private final String m_activatorClazz;
+    /**
+     * Runner context.
+     */
+    private final Context m_context;
+    /**
+     * Bundle context of the started activator. Null if not yet started.
+     */
+    private BundleContext m_bundleContext;
+
+    /**
+     * Creates a new lazy activator.
+     *
+     * @param bundleName     name of the bundle; mandatory
+     * @param activatorClazz class name of the activator; mandatory
+     * @param context        runner context; mandatory
+     */
+    public LazyActivator( final String bundleName, final String activatorClazz, final Context context )
+    {
+        NullArgumentException.validateNotEmpty( bundleName, "Bundle name" );
+        NullArgumentException.validateNotEmpty( activatorClazz, "Activator class" );
+        NullArgumentException.validateNotNull( context, "Context" );
+        m_bundleName = bundleName;
+        m_activatorClazz = activatorClazz;
+        m_context = context;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return name of the bundle
+     */
+    public String getBundleName()
+    {
+        return m_bundleName;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return true if the activator was started
+     */
+    public synchronized boolean isStarted()
+    {
+        return m_bundleContext != null;
+    }
+
+    /**
+     * Instantiates and starts the activator, if not already started.
+     *
+     * @return activator related bundle context
+     */
+    public synchronized BundleContext start()
+    {
+        if( m_bundleContext == null )
+        {
+            LOGGER.debug( "Starting [" + m_bundleName + "] on first use" );
+            try
+            {
+                final BundleActivator activator = (BundleActivator) Class.forName( m_activatorClazz ).newInstance();
+                final BundleContext bundleContext = new RunnerBundleContext( m_context );
+                activator.start( bundleContext );
+                m_bundleContext = bundleContext;
+            }
+            catch( Exception e )
+            {
+                throw new RuntimeException( "Could not create [" + m_bundleName + "]", e );
+            }
+        }
+        return m_bundleContext;
+    }
+
+    /**
+     * Starts the activator, if not already started, and returns the service registered by the activator that has the
+     * provided property value. Proxies registered for the same property value are skipped.
+     *
+     * @param clazz    service class name
+     * @param property name of the service property
+     * @param value    value of the service property
+     *
+     * @return registered service
+     *
+     * @throws IllegalStateException if the activator did not register such a service
+     */
+    public synchronized Object getService( final String clazz, final String property, final String value )
+    {
+        final BundleContext bundleContext = start();
+        try
+        {
+            final ServiceReference[] references =
+                bundleContext.getServiceReferences( clazz, "(" + property + "=" + value + ")" );
+            if( references != null )
+            {
+                for( ServiceReference reference : references )
+                {
+                    final Object service = bundleContext.getService( reference );
+                    if( service != null && !( service instanceof LazyService ) )
+                    {
+                        return service;
+                    }
+                }
+            }
+        }
+        catch( InvalidSyntaxException e )
+        {
+            throw new IllegalArgumentException( "Invalid " + property + " [" + value + "]", e );
+        }
+        throw new IllegalStateException(
+            "[" + m_bundleName + "] did not register a " + clazz + " for " + property + " [" + value + "]"
+        );
+    }
+
+    /**
+     * Marker interface of services that stand for services of a lazy activator.
+     */
+    interface LazyService
+    {
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.osgi;
+
+import java.util.List;
+import org.ops4j.lang.NullArgumentException;
+import org.ops4j.pax.scanner.MalformedSpecificationException;
+import org.ops4j.pax.scanner.ProvisionSpec;
+import org.ops4j.pax.scanner.ScannedBundle;
+import org.ops4j.pax.scanner.Scanner;
+import org.ops4j.pax.scanner.ScannerException;
+
+/**
+ * Scanner of a provision schema, standing for the scanner registered by a lazy activator. The activator is started
+ * when the schema is first scanned.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class LazyScanner
+    implements Scanner, LazyActivator.LazyService
+{
+
+    /**
+     * Activator registering the real scanner.
+     */
+    private final LazyActivator m_activator;
+    /**
+     * Scanned schema.
+     */
+    private final String m_schema;
+    /**
+     * Real scanner. Null until first used.
+     */
+    private volatile Scanner m_delegate;
+
+    /**
+     * Creates a new lazy scanner.
+     *
+     * @param activator activator registering the real scanner; mandatory
+     * @param schema    scanned schema; mandatory
+     */
+    public LazyScanner( final LazyActivator activator, final String schema )
+    {
+        NullArgumentException.validateNotNull( activator, "Activator" );
+        NullArgumentException.validateNotEmpty( schema, "Schema" );
+        m_activator = activator;
+        m_schema = schema;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return scanned schema
+     */
+    public String getSchema()
+    {
+        return m_schema;
+    }
+
+    public List<ScannedBundle> scan( final ProvisionSpec provisionSpec )
+        throws MalformedSpecificationException, ScannerException
+    {
+        if( m_delegate == null )
+        {
+            m_delegate = (Scanner) m_activator.getService(
+                Scanner.class.getName(), Scanner.SCHEMA_PROPERTY, m_schema
+            );
+        }
+        return m_delegate.scan( provisionSpec );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Lazy scanner for [" + m_schema + "] of [" + m_activator.getBundleName() + "]";
+    }
+
+}
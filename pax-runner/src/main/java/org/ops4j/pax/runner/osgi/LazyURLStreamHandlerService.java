@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner.osgi;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLConnection;
+import org.ops4j.lang.NullArgumentException;
+import org.osgi.service.url.URLConstants;
+import org.osgi.service.url.URLStreamHandlerService;
+import org.osgi.service.url.URLStreamHandlerSetter;
+
+/**
+ * URL stream handler service of a protocol, standing for the URL stream handler service registered by a lazy
+ * activator. The activator is started when the protocol is first used.
+ *
+ * @since 1.9.1, October 18, 2026
+ */
+public class LazyURLStreamHandlerService
+    implements URLStreamHandlerService, LazyActivator.LazyService
+{
+
+    /**
+     * Activator registering the real service.
+     */
+    private final LazyActivator m_activator;
+    /**
+     * Handled protocol.
+     */
+    private final String m_protocol;
+    /**
+     * Real service. Null until first used.
+     */
+    private volatile URLStreamHandlerService m_delegate;
+
+    /**
+     * Creates a new lazy URL stream handler service.
+     *
+     * @param activator activator registering the real service; mandatory
+     * @param protocol  handled protocol; mandatory
+     */
+    public LazyURLStreamHandlerService( final LazyActivator activator, final String protocol )
+    {
+        NullArgumentException.validateNotNull( activator, "Activator" );
+        NullArgumentException.validateNotEmpty( protocol, "Protocol" );
+        m_activator = activator;
+        m_protocol = protocol;
+    }
+
+    /**
+     * Getter.
+     *
+     * @return handled protocol
+     */
+    public String getProtocol()
+    {
+        return m_protocol;
+    }
+
+    /**
+     * Returns the real service, starting the activator on first use.
+     *
+     * @return real service
+     */
+    private URLStreamHandlerService getDelegate()
+    {
+        if( m_delegate == null )
+        {
+            m_delegate = (URLStreamHandlerService) m_activator.getService(
+                URLStreamHandlerService.class.getName(), URLConstants.URL_HANDLER_PROTOCOL, m_protocol
+            );
+        }
+        return m_delegate;
+    }
+
+    public URLConnection openConnection( final URL url )
+        throws IOException
+    {
+        return getDelegate().openConnection( url );
+    }
+
+    public void parseURL( final URLStreamHandlerSetter setter, final URL url, final String spec, final int start,
+                          final int limit )
+    {
+        getDelegate().parseURL( setter, url, spec, start, limit );
+    }
+
+    public String toExternalForm( final URL url )
+    {
+        return getDelegate().toExternalForm( url );
+    }
+
+    public boolean equals( final URL url1, final URL url2 )
+    {
+        return getDelegate().equals( url1, url2 );
+    }
+
+    public int getDefaultPort()
+    {
+        return getDelegate().getDefaultPort();
+    }
+
+    public InetAddress getHostAddress( final URL url )
+    {
+        return getDelegate().getHostAddress( url );
+    }
+
+    public int hashCode( final URL url )
+    {
+        return getDelegate().hashCode( url );
+    }
+
+    public boolean hostsEqual( final URL url1, final URL url2 )
+    {
+        return getDelegate().hostsEqual( url1, url2 );
+    }
+
+    public boolean sameFile( final URL url1, final URL url2 )
+    {
+        return getDelegate().sameFile( url1, url2 );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Lazy handler for [" + m_protocol + "] of [" + m_activator.getBundleName() + "]";
+    }
+
+}
@@ -128,4 +128,75 @@ public class AuditedPropertiesTest
         assertEquals( "Filtered property value", "${value", audited.getProperty( "filtered" ) );
     }
 
+    /**
+     * Test with a holder whose value contains another holder.
+     */
+    @Test
+    public void filteredProperty09()
+    {
+        Properties defaults = new Properties();
+        defaults.setProperty( "holder1", "${holder2}/1" );
+        defaults.setProperty( "holder2", "value2" );
+        Properties audited = new AuditedProperties( defaults );
+        audited.setProperty( "filtered", "${holder1}" );
+        assertEquals( "Filtered property value", "value2/1", audited.getProperty( "filtered" ) );
+    }
+
+    /**
+     * Test with holders whose values refer to each other.
+     */
+    @Test
+    public void filteredProperty10()
+    {
+        Properties defaults = new Properties();
+        defaults.setProperty( "holder1", "${holder2}" );
+        defaults.setProperty( "holder2", "${holder1}" );
+        Properties audited = new AuditedProperties( defaults );
+        audited.setProperty( "filtered", "${holder1}" );
+        assertTrue( "Filtered property value", audited.getProperty( "filtered" ).startsWith( "${holder" ) );
+    }
+
+    /**
+     * Test that changed properties override defaults until removed.
+     */
+    @Test
+    public void changedProperties()
+    {
+        Properties defaults = new Properties();
+        defaults.setProperty( "property", "default" );
+        Properties audited = new AuditedProperties( defaults );
+        audited.setProperty( "property", "changed" );
+        assertEquals( "Changed property value", "changed", audited.getProperty( "property" ) );
+        audited.remove( "property" );
+        assertEquals( "Default property value", "default", audited.getProperty( "property" ) );
+        Properties changes = new Properties();
+        changes.setProperty( "property", "put" );
+        audited.putAll( changes );
+        assertEquals( "Put property value", "put", audited.getProperty( "property" ) );
+        audited.clear();
+        assertEquals( "Cleared property value", "default", audited.getProperty( "property" ) );
+    }
+
+    /**
+     * Test that properties removed through the views are no longer changed.
+     */
+    @Test
+    public void removeThroughViews()
+    {
+        Properties defaults = new Properties();
+        defaults.setProperty( "property1", "default1" );
+        defaults.setProperty( "property2", "default2" );
+        Properties audited = new AuditedProperties( defaults );
+        audited.setProperty( "property1", "changed1" );
+        audited.setProperty( "property2", "changed2" );
+        audited.keySet().remove( "property1" );
+        audited.values().remove( "changed2" );
+        assertEquals( "Property value removed through key set", "default1", audited.getProperty( "property1" ) );
+        assertEquals( "Property value removed through values", "default2", audited.getProperty( "property2" ) );
+        audited.setProperty( "property1", "changed1" );
+        audited.entrySet().iterator().next().setValue( "other" );
+        assertEquals( "Property value set through entry", "other", audited.getProperty( "property1" ) );
+        assertEquals( "Changes", 1, audited.size() );
+    }
+
 }
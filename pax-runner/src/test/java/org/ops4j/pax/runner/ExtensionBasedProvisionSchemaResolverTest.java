@@ -284,4 +284,25 @@ public class ExtensionBasedProvisionSchemaResolverTest
         );
     }
 
+    // test that registered protocols win over extensions and the longest registered protocol wins
+    @Test
+    public void resolveRegisteredProtocol()
+    {
+        final ExtensionBasedProvisionSchemaResolver resolver = new ExtensionBasedProvisionSchemaResolver();
+        resolver.registerProtocol( "profile:", "scan-composite" );
+        resolver.registerProtocol( "profile:local", "scan-file" );
+        assertEquals( "Resolved", "scan-composite:profile:web.xml", resolver.resolve( "profile:web.xml" ) );
+        assertEquals( "Resolved", "scan-file:profile:local/web", resolver.resolve( "profile:local/web" ) );
+    }
+
+    // test that registered extensions are case insensitive
+    @Test
+    public void resolveRegisteredExtension()
+    {
+        final ExtensionBasedProvisionSchemaResolver resolver = new ExtensionBasedProvisionSchemaResolver();
+        resolver.registerExtension( "features", "scan-features" );
+        assertEquals( "Resolved", "scan-features:http:x.FEATURES@5", resolver.resolve( "http:x.FEATURES@5" ) );
+        assertEquals( "Resolved", "scan-file:http:x.any", resolver.resolve( "http:x.any" ) );
+    }
+
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+import org.ops4j.pax.runner.osgi.RunnerBundle;
+
+public class LaunchPlanTest
+{
+
+    private File m_workDir;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that a saved plan is loaded with the same content
+    @Test
+    public void saveAndLoad()
+        throws Exception
+    {
+        final List<LaunchPlan.Entry> entries = new ArrayList<LaunchPlan.Entry>();
+        entries.add( new LaunchPlan.Entry( "file:bundle1.jar", 5, true, false ) );
+        entries.add( new LaunchPlan.Entry( "mvn:http://user@repo!org.ops4j/bundle2/1.0", null, false, true ) );
+        final Map<String, String> systemProperties = new TreeMap<String, String>();
+        systemProperties.put( "property", "value=1" );
+        final File file = new File( m_workDir, "launch.plan" );
+        new LaunchPlan( "key", entries, systemProperties ).save( file );
+
+        final LaunchPlan plan = LaunchPlan.load( file );
+        assertNotNull( "Plan", plan );
+        assertEquals( "Key", "key", plan.getKey() );
+        assertEquals( "Entries", 2, plan.getEntries().size() );
+        assertEquals( "URL", "file:bundle1.jar", plan.getEntries().get( 0 ).getURL() );
+        assertEquals( "Start level", Integer.valueOf( 5 ), plan.getEntries().get( 0 ).getStartLevel() );
+        assertTrue( "Start", plan.getEntries().get( 0 ).shouldStart() );
+        assertFalse( "Update", plan.getEntries().get( 0 ).shouldUpdate() );
+        assertEquals( "URL", "mvn:http://user@repo!org.ops4j/bundle2/1.0", plan.getEntries().get( 1 ).getURL() );
+        assertNull( "Start level", plan.getEntries().get( 1 ).getStartLevel() );
+        assertFalse( "Start", plan.getEntries().get( 1 ).shouldStart() );
+        assertTrue( "Update", plan.getEntries().get( 1 ).shouldUpdate() );
+        assertEquals( "System property", "value=1", plan.getSystemProperties().get( "property" ) );
+    }
+
+    // test that system properties with line breaks, backslashes, separators and surrounding spaces are loaded back
+    // unchanged
+    @Test
+    public void saveAndLoadEscapedProperties()
+        throws Exception
+    {
+        final Map<String, String> systemProperties = new TreeMap<String, String>();
+        systemProperties.put( "multi line", "first\nsecond" );
+        systemProperties.put( "path", "C:\\runner\\bundles" );
+        systemProperties.put( "url:key=", " http://repo#id!  " );
+        final File file = new File( m_workDir, "launch.plan" );
+        new LaunchPlan( "key", new ArrayList<LaunchPlan.Entry>(), systemProperties ).save( file );
+
+        final LaunchPlan plan = LaunchPlan.load( file );
+        assertNotNull( "Plan", plan );
+        assertEquals( "System properties", systemProperties, plan.getSystemProperties() );
+    }
+
+    // test that loading a plan that does not exist returns null
+    @Test
+    public void loadNotExisting()
+    {
+        assertNull( "Plan", LaunchPlan.load( new File( m_workDir, "launch.plan" ) ) );
+    }
+
+    // test parsing of entries in provision file format with default options
+    @Test
+    public void parseEntry()
+    {
+        final LaunchPlan.Entry entry = LaunchPlan.Entry.parse( "file:bundle.jar@update@3" );
+        assertEquals( "URL", "file:bundle.jar", entry.getURL() );
+        assertEquals( "Start level", Integer.valueOf( 3 ), entry.getStartLevel() );
+        assertTrue( "Start", entry.shouldStart() );
+        assertTrue( "Update", entry.shouldUpdate() );
+    }
+
+    // test that installing a plan adds the bundles and system properties to the context
+    @Test
+    public void install()
+        throws Exception
+    {
+        final List<LaunchPlan.Entry> entries = new ArrayList<LaunchPlan.Entry>();
+        entries.add( new LaunchPlan.Entry( "file:bundle1.jar", 5, true, true ) );
+        final Map<String, String> systemProperties = new TreeMap<String, String>();
+        systemProperties.put( "property", "value" );
+        final Context context = new ContextImpl();
+        new LaunchPlan( "key", entries, systemProperties ).install( context );
+
+        assertEquals( "Bundles", 1, context.getBundles().size() );
+        final RunnerBundle bundle = context.getBundles().get( 0 );
+        assertEquals( "URL", new URL( "file:bundle1.jar" ), bundle.getLocationAsURL() );
+        assertEquals( "Start level", Integer.valueOf( 5 ), bundle.getStartLevel() );
+        assertTrue( "Start", bundle.shouldStart() );
+        assertTrue( "Update", bundle.shouldUpdate() );
+        assertEquals( "System property", "value", context.getSystemProperties().getProperty( "property" ) );
+        assertEquals(
+            "Default system property",
+            System.getProperty( "java.version" ),
+            context.getSystemProperties().getProperty( "java.version" )
+        );
+    }
+
+    // test that the key changes when a local provision file changes
+    @Test
+    public void keyChangesWithLocalInputs()
+        throws Exception
+    {
+        final File provisionFile = new File( m_workDir, "bundles.txt" );
+        write( provisionFile, "file:bundle1.jar" );
+        final CommandLine commandLine = new CommandLineImpl(
+            "--args=false", "--platform=felix", "scan-file:" + provisionFile.toURI().toURL() + "@5"
+        );
+        final Configuration configuration = new PropertiesConfiguration( new Properties() );
+        final String key = LaunchPlan.key( commandLine, configuration );
+        assertEquals( "Same key", key, LaunchPlan.key( commandLine, configuration ) );
+
+        write( provisionFile, "file:bundle1.jar\nfile:bundle2.jar" );
+        provisionFile.setLastModified( provisionFile.lastModified() + 2000 );
+        assertFalse( "Changed key", key.equals( LaunchPlan.key( commandLine, configuration ) ) );
+        assertFalse(
+            "Other options",
+            key.equals(
+                LaunchPlan.key(
+                    new CommandLineImpl(
+                        "--args=false", "--platform=equinox", "scan-file:" + provisionFile.toURI().toURL() + "@5"
+                    ),
+                    configuration
+                )
+            )
+        );
+    }
+
+    // test that the key changes when a file included by a local provision file changes
+    @Test
+    public void keyChangesWithIncludedFiles()
+        throws Exception
+    {
+        final File includedFile = new File( m_workDir, "included.txt" );
+        write( includedFile, "file:bundle1.jar" );
+        final File provisionFile = new File( m_workDir, "bundles.txt" );
+        write( provisionFile, "# bundles\n-Dproperty=value\nscan-file:" + includedFile.toURI().toURL() );
+        final CommandLine commandLine = new CommandLineImpl( "--args=false", provisionFile.getPath() );
+        final Configuration configuration = new PropertiesConfiguration( new Properties() );
+        final String key = LaunchPlan.key( commandLine, configuration );
+
+        write( includedFile, "file:bundle1.jar\nfile:bundle2.jar" );
+        includedFile.setLastModified( includedFile.lastModified() + 2000 );
+        assertFalse( "Changed key", key.equals( LaunchPlan.key( commandLine, configuration ) ) );
+    }
+
+    // test that the key changes when the runner configuration changes
+    @Test
+    public void keyChangesWithConfiguration()
+        throws Exception
+    {
+        final CommandLine commandLine = new CommandLineImpl( "--args=false", "--platform=felix" );
+        final Properties properties = new Properties();
+        properties.setProperty( "platform.felix", "org.ops4j.pax.runner.platform.felix" );
+        final String key = LaunchPlan.key( commandLine, new PropertiesConfiguration( properties ) );
+        assertEquals( "Same key", key, LaunchPlan.key( commandLine, new PropertiesConfiguration( properties ) ) );
+
+        properties.setProperty( "platform.felix", "org.ops4j.pax.runner.platform.felix.custom" );
+        assertFalse(
+            "Changed key",
+            key.equals( LaunchPlan.key( commandLine, new PropertiesConfiguration( properties ) ) )
+        );
+    }
+
+    // test finding local files of provision specs
+    @Test
+    public void localInput()
+        throws Exception
+    {
+        final File provisionFile = new File( m_workDir, "bundles.txt" );
+        write( provisionFile, "file:bundle1.jar" );
+        assertEquals( "File url", provisionFile, LaunchPlan.localInput( "scan-file:file:" + provisionFile.getPath() ) );
+        assertEquals( "Directory", m_workDir, LaunchPlan.localInput( m_workDir.getPath() + "@5@nostart" ) );
+        assertNull( "Remote", LaunchPlan.localInput( "scan-composite:mvn:org.ops4j/profile/1.0/composite" ) );
+        assertNull( "Not existing", LaunchPlan.localInput( new File( m_workDir, "missing.txt" ).getPath() ) );
+    }
+
+    private static void write( final File file, final String content )
+        throws IOException
+    {
+        final FileOutputStream out = new FileOutputStream( file );
+        out.write( content.getBytes( "UTF-8" ) );
+        out.close();
+    }
+
+    private static class PropertiesConfiguration
+        implements Configuration
+    {
+
+        private final Properties m_properties;
+
+        PropertiesConfiguration( final Properties properties )
+        {
+            m_properties = properties;
+        }
+
+        public String getProperty( final String key )
+        {
+            return m_properties.getProperty( key );
+        }
+
+        public String[] getPropertyNames( final String regex )
+        {
+            return m_properties.stringPropertyNames().toArray( new String[0] );
+        }
+
+    }
+
+}
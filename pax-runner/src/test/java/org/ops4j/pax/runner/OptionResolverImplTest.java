@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.util.Properties;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class OptionResolverImplTest
+{
+
+    // test that placeholders are replaced through a chain of options and configuration defaults
+    @Test
+    public void getWithPlaceholderChain()
+    {
+        final Properties defaults = new Properties();
+        defaults.setProperty( "default.c", "${d}/c" );
+        defaults.setProperty( "default.d", "d" );
+        final OptionResolver resolver = new OptionResolverImpl(
+            new CommandLineImpl( "--a=${b}/a", "--b=${c}/b", "--e=no placeholders" ),
+            new PropertiesConfiguration( defaults )
+        );
+        assertEquals( "a", "d/c/b/a", resolver.get( "a" ) );
+        assertEquals( "a from cache", "d/c/b/a", resolver.get( "a" ) );
+        assertEquals( "b", "d/c/b", resolver.get( "b" ) );
+        assertEquals( "e", "no placeholders", resolver.get( "e" ) );
+        assertNull( "Not set", resolver.get( "f" ) );
+    }
+
+    // test that placeholders in placeholder names are replaced first and that malformed placeholders are kept
+    @Test
+    public void getWithNestedPlaceholders()
+    {
+        final OptionResolver resolver = new OptionResolverImpl(
+            new CommandLineImpl( "--a=${os.${arch}}", "--arch=x86", "--os.x86=linux", "--b=${}${c" ),
+            new PropertiesConfiguration( new Properties() )
+        );
+        assertEquals( "a", "linux", resolver.get( "a" ) );
+        assertEquals( "b", "${}${c", resolver.get( "b" ) );
+    }
+
+    // test that placeholders are resolved from system properties and environment and unresolved ones are kept
+    @Test
+    public void getWithSystemPlaceholders()
+    {
+        final String path = System.getenv( "PATH" );
+        final OptionResolver resolver = new OptionResolverImpl(
+            new CommandLineImpl( "--a=${optionResolverImplTest.a}", "--b=${optionResolverImplTest.b}", "--c=${PATH}" ),
+            new PropertiesConfiguration( new Properties() )
+        );
+        System.setProperty( "optionResolverImplTest.a", "system" );
+        try
+        {
+            assertEquals( "a", "system", resolver.get( "a" ) );
+            assertEquals( "b", "${optionResolverImplTest.b}", resolver.get( "b" ) );
+            if( path != null )
+            {
+                assertEquals( "c", path, resolver.get( "c" ) );
+            }
+        }
+        finally
+        {
+            System.clearProperty( "optionResolverImplTest.a" );
+        }
+    }
+
+    // test that a placeholder of a system property set after the first lookup is resolved on next lookups
+    @Test
+    public void getWithSystemPlaceholderSetLater()
+    {
+        final OptionResolver resolver = new OptionResolverImpl(
+            new CommandLineImpl( "--a=${optionResolverImplTest.later}/a" ),
+            new PropertiesConfiguration( new Properties() )
+        );
+        assertEquals( "a before", "${optionResolverImplTest.later}/a", resolver.get( "a" ) );
+        System.setProperty( "optionResolverImplTest.later", "later" );
+        try
+        {
+            assertEquals( "a after", "later/a", resolver.get( "a" ) );
+            System.setProperty( "optionResolverImplTest.later", "changed" );
+            assertEquals( "a after change", "changed/a", resolver.get( "a" ) );
+        }
+        finally
+        {
+            System.clearProperty( "optionResolverImplTest.later" );
+        }
+    }
+
+    // test that placeholders are resolved through implicit options
+    @Test
+    public void getWithImplicitOptionPlaceholders()
+    {
+        final OptionResolver resolver = new OptionResolverImpl(
+            new CommandLineImpl(
+                "--a=${org.ops4j.pax.url.mvn.repositories}", "--profiles=log", "--profilesRepositories=http://profiles",
+                "--b=${org.ops4j.pax.runner.platform.useAbsoluteFilePaths}", "--executor=inProcess"
+            ),
+            new PropertiesConfiguration( new Properties() )
+        );
+        assertEquals( "a", "+http://profiles", resolver.get( "a" ) );
+        assertEquals( "b", "TRUE", resolver.get( "b" ) );
+    }
+
+    // test that cyclic placeholders are reported
+    @Test
+    public void getWithCyclicPlaceholders()
+    {
+        final OptionResolver resolver = new OptionResolverImpl(
+            new CommandLineImpl( "--a=${b}", "--b=x${c}", "--c=${a}" ),
+            new PropertiesConfiguration( new Properties() )
+        );
+        try
+        {
+            resolver.get( "a" );
+            fail( "Expected a ConfigurationException" );
+        }
+        catch( ConfigurationException e )
+        {
+            assertTrue( "Cycle in message", e.getMessage().endsWith( "a -> b -> c -> a" ) );
+        }
+    }
+
+    private static class PropertiesConfiguration
+        implements Configuration
+    {
+
+        private final Properties m_properties;
+
+        PropertiesConfiguration( final Properties properties )
+        {
+            m_properties = properties;
+        }
+
+        public String getProperty( final String key )
+        {
+            return m_properties.getProperty( key );
+        }
+
+        public String[] getPropertyNames( final String regex )
+        {
+            return new String[0];
+        }
+
+    }
+
+}
@@ -18,23 +18,33 @@
 package org.ops4j.pax.runner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.easymock.EasyMock.*;
 import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
+import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.ServiceReference;
 import static org.ops4j.pax.runner.CommandLine.*;
+import org.ops4j.pax.runner.osgi.RunnerBundleContext;
 import org.ops4j.pax.runner.platform.JavaRunner;
 import org.ops4j.pax.runner.platform.Platform;
 import org.ops4j.pax.runner.platform.SystemFileReference;
 import org.ops4j.pax.scanner.InstallableBundles;
 import org.ops4j.pax.scanner.MalformedSpecificationException;
 import org.ops4j.pax.scanner.ProvisionService;
+import org.ops4j.pax.scanner.ProvisionSpec;
 import org.ops4j.pax.scanner.ScannedBundle;
+import org.ops4j.pax.scanner.Scanner;
 import org.ops4j.pax.scanner.ScannerException;
 import org.ops4j.pax.scanner.UnsupportedSchemaException;
 
@@ -91,6 +101,10 @@ public class RunTest
         m_recorder.record( "createJavaRunner()" );
         m_recorder.record( "installPlatform()" );
         m_recorder.record( "determineSystemFiles()" );
+        expect( m_resolver.get( "evictCache" ) ).andReturn( null );
+        expect( m_resolver.get( "prefetchPlatform" ) ).andReturn( null );
+        expect( m_resolver.get( "launchPlan" ) ).andReturn( null );
+        expect( m_resolver.get( "exportLaunchPlan" ) ).andReturn( null );
         replay( m_commandLine, m_config, m_recorder, m_resolver, m_bundleContext );
         new Run()
         {
@@ -150,6 +164,117 @@ public class RunTest
         verify( m_commandLine, m_config, m_recorder, m_resolver, m_bundleContext );
     }
 
+    // test that only the cache is evicted, without provisioning or starting a platform, when requested
+    @Test
+    public void startFlowWithEvictCache()
+    {
+        m_recorder.record( "evictCache()" );
+        expect( m_resolver.get( "evictCache" ) ).andReturn( "true" );
+        replay( m_commandLine, m_config, m_recorder, m_resolver, m_bundleContext );
+        new Run()
+        {
+            @Override
+            void evictCache( final OptionResolver resolver )
+            {
+                m_recorder.record( "evictCache()" );
+            }
+        }.start( m_commandLine, m_config, m_resolver, null );
+        verify( m_commandLine, m_config, m_recorder, m_resolver, m_bundleContext );
+    }
+
+    // expect a configuration exception when evicting the cache without a cache size
+    @Test( expected = ConfigurationException.class )
+    public void evictCacheWithoutCacheSize()
+    {
+        expect( m_resolver.get( "org.ops4j.pax.runner.platform.cacheSize" ) ).andReturn( null );
+        replay( m_resolver );
+        new Run().evictCache( m_resolver );
+    }
+
+    // test runner flow when the platform is downloaded while scanning
+    @Test
+    public void startFlowWithPlatformPrefetch()
+    {
+        final Recorder recorder = createStrictMock( Recorder.class );
+        recorder.record( "cleanup()" );
+        recorder.record( "installServices()" );
+        recorder.record( "installHandlers()" );
+        recorder.record( "installPlatform()" );
+        recorder.record( "prefetchPlatform()" );
+        recorder.record( "installScanners()" );
+        recorder.record( "installBundles()" );
+        recorder.record( "createJavaRunner()" );
+        recorder.record( "determineSystemFiles()" );
+        expect( m_resolver.get( "evictCache" ) ).andReturn( null );
+        expect( m_resolver.get( "prefetchPlatform" ) ).andReturn( "true" );
+        expect( m_resolver.get( "launchPlan" ) ).andReturn( null );
+        expect( m_resolver.get( "exportLaunchPlan" ) ).andReturn( null );
+        replay( m_commandLine, m_config, recorder, m_resolver, m_bundleContext );
+        new Run()
+        {
+            @Override
+            void cleanup( final OptionResolver resolver )
+            {
+                recorder.record( "cleanup()" );
+            }
+
+            @Override
+            void installHandlers( final Context context )
+            {
+                recorder.record( "installHandlers()" );
+            }
+
+            @Override
+            ProvisionService installScanners( final Context context )
+            {
+                recorder.record( "installScanners()" );
+                return m_provisionService;
+            }
+
+            @Override
+            Platform installPlatform( final Context context )
+            {
+                recorder.record( "installPlatform()" );
+                return m_platform;
+            }
+
+            @Override
+            Thread prefetchPlatform( final Platform platform, final Context context )
+            {
+                recorder.record( "prefetchPlatform()" );
+                return new Thread();
+            }
+
+            @Override
+            void installBundles( final ProvisionService provisionService, final ProvisionSchemaResolver schemaResolver,
+                                 final Context context )
+            {
+                recorder.record( "installBundles()" );
+            }
+
+            @Override
+            void installServices( final Context context )
+            {
+                recorder.record( "installServices()" );
+            }
+
+            @Override
+            JavaRunner createJavaRunner( final OptionResolver resolver )
+            {
+                recorder.record( "createJavaRunner()" );
+                return null;
+            }
+
+            @Override
+            List<SystemFileReference> determineSystemFiles( Context context )
+            {
+                recorder.record( "determineSystemFiles()" );
+                return Collections.emptyList();
+            }
+        }.start( m_commandLine, m_config, m_resolver, null );
+        verify( m_commandLine, m_config, recorder, m_resolver, m_bundleContext );
+    }
+
     // if there are no handlers just go one as one may choose to use only the default ones from JVM
     @Test
     public void startWithNoHandlers()
@@ -191,7 +316,9 @@ public class RunTest
         expect( m_resolver.get( "handlers" ) ).andReturn( "handler.1,handler.2" );
         expect( m_config.getProperty( "handler.service" ) ).andReturn( "handler.service.Activator" );
         expect( m_config.getProperty( "handler.1" ) ).andReturn( "handler.1.Activator" );
+        expect( m_config.getProperty( "handler.1.protocols" ) ).andReturn( null );
         expect( m_config.getProperty( "handler.2" ) ).andReturn( "handler.2.Activator" );
+        expect( m_config.getProperty( "handler.2.protocols" ) ).andReturn( null );
 
         m_recorder.record( "handler.service.Activator" );
         m_recorder.record( "handler.1.Activator" );
@@ -202,9 +329,36 @@ public class RunTest
         verify( m_commandLine, m_config, m_resolver, m_recorder, m_bundleContext );
     }
 
+    // test that a scanner with configured schemas is started only when the schema is first scanned
+    @Test
+    public void installScannerLazily()
+        throws Exception
+    {
+        Run run = new Run();
+        Context context = run.createContext( m_commandLine, m_config, m_resolver );
+
+        expect( m_config.getProperty( "scanner.1.schemas" ) ).andReturn( "scan-test" );
+
+        replay( m_commandLine, m_config, m_resolver );
+        TestScannerActivator.STARTED.set( 0 );
+        run.installScanner( "scanner.1", TestScannerActivator.class.getName(), context );
+        assertEquals( "Started on install", 0, TestScannerActivator.STARTED.get() );
+
+        final BundleContext bundleContext = new RunnerBundleContext( context );
+        final ServiceReference[] references =
+            bundleContext.getServiceReferences( Scanner.class.getName(), "(provision.schema=scan-test)" );
+        assertEquals( "Registered scanners", 1, references.length );
+        final Scanner scanner = (Scanner) bundleContext.getService( references[ 0 ] );
+        assertEquals( "Scanned", 1, scanner.scan( new ProvisionSpec( "scan-test:file:bundles.txt" ) ).size() );
+        assertEquals( "Scanned again", 1, scanner.scan( new ProvisionSpec( "scan-test:file:bundles.txt" ) ).size() );
+        assertEquals( "Started on first scan", 1, TestScannerActivator.STARTED.get() );
+        verify( m_commandLine, m_config, m_resolver );
+    }
+
     @Test( expected = ConfigurationException.class )
     public void startWithInvalidHandlers()
     {
+        expect( m_resolver.get( "evictCache" ) ).andReturn( null );
         expect( m_resolver.get( "clean" ) ).andReturn( null );
         expect( m_resolver.get( "executor" ) ).andReturn( null );
         expect( m_resolver.get( "services" ) ).andReturn( null );
@@ -243,6 +397,7 @@ public class RunTest
 
         expect( m_resolver.get( "handlers" ) ).andReturn( "handler.1" );
         expect( m_config.getProperty( "handler.1" ) ).andReturn( "handler.1.Activator" );
+        expect( m_config.getProperty( "handler.1.protocols" ) ).andReturn( null );
         expect( m_config.getProperty( "handler.service" ) ).andReturn( null );
 
         m_recorder.record( "handler.1.Activator" );
@@ -290,6 +445,7 @@ public class RunTest
 
         expect( m_resolver.getMandatory( "scanners" ) ).andReturn( "scanner.1" );
         expect( m_config.getProperty( "scanner.1" ) ).andReturn( "scanner.1.Activator" );
+        expect( m_config.getProperty( "scanner.1.schemas" ) ).andReturn( null );
         expect( m_config.getProperty( "provision.service" ) ).andReturn( null );
 
         m_recorder.record( "scanner.1.Activator" );
@@ -339,7 +495,9 @@ public class RunTest
         expect( m_resolver.getMandatory( "scanners" ) ).andReturn( "scanner.1,scanner.2" );
         expect( m_config.getProperty( "provision.service" ) ).andReturn( "provision.service.Activator" );
         expect( m_config.getProperty( "scanner.1" ) ).andReturn( "scanner.1.Activator" );
+        expect( m_config.getProperty( "scanner.1.schemas" ) ).andReturn( null );
         expect( m_config.getProperty( "scanner.2" ) ).andReturn( "scanner.2.Activator" );
+        expect( m_config.getProperty( "scanner.2.schemas" ) ).andReturn( null );
         expect( m_bundleContext.getServiceReference( ProvisionService.class.getName() ) ).andReturn(
             createMock( ServiceReference.class )
         );
@@ -379,6 +537,8 @@ public class RunTest
         List<ScannedBundle> scannedBundles = new ArrayList<ScannedBundle>();
 
         expect( m_resolver.get( OPTION_PROFILES ) ).andReturn( null );
+        expect( m_resolver.get( "scanThreads" ) ).andReturn( null );
+        expect( m_resolver.get( "scanCache" ) ).andReturn( null );
         List<String> args = new ArrayList<String>();
         args.add( "scan-file:file:bundles1.txt" );
         args.add( "scan-file:file:bundles2.txt" );
@@ -413,6 +573,8 @@ public class RunTest
         ProvisionSchemaResolver schemaResolver = createMock( ProvisionSchemaResolver.class );
 
         expect( m_resolver.get( OPTION_PROFILES ) ).andReturn( null );
+        expect( m_resolver.get( "scanThreads" ) ).andReturn( null );
+        expect( m_resolver.get( "scanCache" ) ).andReturn( null );
         List<String> args = new ArrayList<String>();
         args.add( "bundles.txt" );
         expect( m_commandLine.getArguments() ).andReturn( args );
@@ -431,6 +593,140 @@ public class RunTest
         );
     }
 
+    // test that provision specs are scanned concurrently, each with its own system properties, and installed in order
+    @Test
+    public void installBundlesConcurrently()
+    {
+        Run run = new Run();
+        Context context = run.createContext( m_commandLine, m_config, m_resolver );
+
+        final ScannedBundle bundle1 = createScannedBundle( "bundle1" );
+        final ScannedBundle bundle2 = createScannedBundle( "bundle2" );
+        final ScannedBundle bundle3 = createScannedBundle( "bundle3" );
+        final CountDownLatch secondScanned = new CountDownLatch( 1 );
+        final List<String> seenByFirst = Collections.synchronizedList( new ArrayList<String>() );
+        final List<List<ScannedBundle>> installed = new ArrayList<List<ScannedBundle>>();
+        final ProvisionService provisionService = new ProvisionService()
+        {
+            public List<ScannedBundle> scan( final String spec )
+            {
+                if( "scan-file:file:bundles1.txt".equals( spec ) )
+                {
+                    try
+                    {
+                        // wait for the second spec to be scanned, so scanning can only complete if concurrent
+                        secondScanned.await( 10, TimeUnit.SECONDS );
+                    }
+                    catch( InterruptedException ignore )
+                    {
+                        // ignore
+                    }
+                    seenByFirst.add( String.valueOf( System.getProperty( "scanned.property" ) ) );
+                    return Arrays.asList( bundle1, bundle2 );
+                }
+                System.setProperty( "scanned.property", "value" );
+                secondScanned.countDown();
+                return Arrays.asList( bundle2, bundle3 );
+            }
+
+            public InstallableBundles wrap( final List<ScannedBundle> bundles )
+            {
+                installed.add( bundles );
+                return createMock( InstallableBundles.class );
+            }
+        };
+
+        expect( m_resolver.get( OPTION_PROFILES ) ).andReturn( null );
+        expect( m_resolver.get( "scanThreads" ) ).andReturn( "2" );
+        expect( m_resolver.get( "scanCache" ) ).andReturn( null );
+        expect( m_commandLine.getArguments() ).andReturn(
+            Arrays.asList( "scan-file:file:bundles1.txt", "scan-file:file:bundles2.txt" )
+        );
+
+        replay( m_commandLine, m_config, m_resolver, m_recorder, m_bundleContext );
+        run.installBundles( provisionService, null, context );
+        verify( m_commandLine, m_config, m_resolver, m_recorder, m_bundleContext );
+
+        assertEquals( "Installed", Arrays.asList( Arrays.asList( bundle1, bundle2 ), Arrays.asList( bundle3 ) ),
+                      installed
+        );
+        assertEquals( "Property seen by other scan", Arrays.asList( "null" ), seenByFirst );
+        assertEquals( "Context property", "value", context.getSystemProperties().getProperty( "scanned.property" ) );
+        assertNull( "System property", System.getProperty( "scanned.property" ) );
+    }
+
+    public static class TestScannerActivator
+        implements BundleActivator
+    {
+
+        static final AtomicInteger STARTED = new AtomicInteger();
+
+        public void start( final BundleContext bundleContext )
+        {
+            STARTED.incrementAndGet();
+            final Dictionary<String, Object> properties = new Hashtable<String, Object>();
+            properties.put( Scanner.SCHEMA_PROPERTY, "scan-test" );
+            bundleContext.registerService( Scanner.class.getName(), new Scanner()
+            {
+                public List<ScannedBundle> scan( final ProvisionSpec provisionSpec )
+                {
+                    return Arrays.asList( createScannedBundle( provisionSpec.getPath() ) );
+                }
+            }, properties
+            );
+        }
+
+        public void stop( final BundleContext bundleContext )
+        {
+        }
+
+    }
+
+    private static ScannedBundle createScannedBundle( final String location )
+    {
+        return new ScannedBundle()
+        {
+            public String getLocation()
+            {
+                return location;
+            }
+
+            public Integer getStartLevel()
+            {
+                return null;
+            }
+
+            public Boolean shouldStart()
+            {
+                return true;
+            }
+
+            public Boolean shouldUpdate()
+            {
+                return false;
+            }
+        };
+    }
+
+    // test that the platform configuration used while scanning contains the resolved download options and does not
+    // limit the cache size
+    @Test
+    public void snapshotPlatformConfiguration()
+    {
+        final OptionResolver resolver = createNiceMock( OptionResolver.class );
+        expect( resolver.get( "org.ops4j.pax.runner.platform.workingDirectory" ) ).andReturn( "runner" );
+        expect( resolver.get( "org.ops4j.pax.runner.platform.bundleStore" ) ).andReturn( "store" );
+        expect( resolver.get( "org.ops4j.pax.url.mvn.localRepository" ) ).andReturn( "repository" );
+        replay( resolver );
+        final Dictionary<String, String> config = new Run().snapshotPlatformConfiguration( resolver );
+        verify( resolver );
+        assertEquals( "Working directory", "runner", config.get( "org.ops4j.pax.runner.platform.workingDirectory" ) );
+        assertEquals( "Bundle store", "store", config.get( "org.ops4j.pax.runner.platform.bundleStore" ) );
+        assertEquals( "Local repository", "repository", config.get( "org.ops4j.pax.url.mvn.localRepository" ) );
+        assertEquals( "Cache size", "", config.get( "org.ops4j.pax.runner.platform.cacheSize" ) );
+        assertEquals( "Options without value", 4, config.size() );
+    }
+
     // test bundles installation with no arguments and no default configuration
     // expected to just pass and do nothing
     public void installBundlesWithNoArgumentsAndNoDefault()
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import static org.easymock.EasyMock.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+import org.ops4j.pax.scanner.ScannedBundle;
+
+public class ScanCacheTest
+{
+
+    private File m_workDir;
+    private CommandLine m_commandLine;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_workDir = File.createTempFile( "runner", "" );
+        m_workDir.delete();
+        m_workDir.mkdirs();
+        m_commandLine = new CommandLineImpl( "--platform=felix" );
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_workDir );
+    }
+
+    // test that a cached scan result is returned with the same bundles and system properties
+    @Test
+    public void putAndGet()
+    {
+        final ScanCache cache = new ScanCache( new File( m_workDir, "scans" ), m_commandLine, 60000 );
+        final String spec = "scan-composite:mvn:org.ops4j/profile/1.0/composite";
+        assertNull( "Not cached", cache.get( spec, new Properties() ) );
+
+        final Properties scanProperties = new Properties();
+        scanProperties.setProperty( "property", "value" );
+        cache.put(
+            spec, new Properties(),
+            Arrays.asList( createScannedBundle( "mvn:org.ops4j/bundle1/1.0", 5, true, false ) ),
+            scanProperties
+        );
+
+        final LaunchPlan cached = cache.get( spec, new Properties() );
+        assertNotNull( "Cached", cached );
+        assertEquals( "System property", "value", cached.getSystemProperties().get( "property" ) );
+        final List<ScannedBundle> bundles = ScanCache.getScannedBundles( cached );
+        assertEquals( "Bundles", 1, bundles.size() );
+        assertEquals( "Location", "mvn:org.ops4j/bundle1/1.0", bundles.get( 0 ).getLocation() );
+        assertEquals( "Start level", Integer.valueOf( 5 ), bundles.get( 0 ).getStartLevel() );
+        assertTrue( "Start", bundles.get( 0 ).shouldStart() );
+        assertFalse( "Update", bundles.get( 0 ).shouldUpdate() );
+    }
+
+    // test that a cached scan result is not used if options or system properties set before scanning changed
+    @Test
+    public void getWithChangedKey()
+    {
+        final String spec = "scan-composite:mvn:org.ops4j/profile/1.0/composite";
+        final ScanCache cache = new ScanCache( new File( m_workDir, "scans" ), m_commandLine, 60000 );
+        cache.put( spec, new Properties(), Arrays.<ScannedBundle>asList(), new Properties() );
+        assertNotNull( "Cached", cache.get( spec, new Properties() ) );
+
+        final Properties systemProperties = new Properties();
+        systemProperties.setProperty( "org.ops4j.pax.url.mvn.repositories", "http://repo" );
+        assertNull( "Other system properties", cache.get( spec, systemProperties ) );
+        assertNull(
+            "Other options",
+            new ScanCache( new File( m_workDir, "scans" ), new CommandLineImpl( "--platform=equinox" ), 60000 )
+                .get( spec, new Properties() )
+        );
+    }
+
+    // test that cached scan results of local specs are valid until the local file changes and that cached scan
+    // results of both local and remote specs expire
+    @Test
+    public void validation()
+        throws IOException
+    {
+        final File provisionFile = new File( m_workDir, "bundles.txt" );
+        write( provisionFile, "file:bundle1.jar" );
+        final String localSpec = "scan-file:" + provisionFile.toURI().toURL();
+        final String remoteSpec = "scan-file:http://localhost/bundles.txt";
+        final ScanCache cache = new ScanCache( new File( m_workDir, "scans" ), m_commandLine, 60000 );
+        cache.put( localSpec, new Properties(), Arrays.<ScannedBundle>asList(), new Properties() );
+        cache.put( remoteSpec, new Properties(), Arrays.<ScannedBundle>asList(), new Properties() );
+
+        assertNotNull( "Local spec", cache.get( localSpec, new Properties() ) );
+        assertNotNull( "Remote spec", cache.get( remoteSpec, new Properties() ) );
+
+        for( File file : new File( m_workDir, "scans" ).listFiles() )
+        {
+            file.setLastModified( file.lastModified() - 120000 );
+        }
+        assertNull( "Expired local spec", cache.get( localSpec, new Properties() ) );
+        assertNull( "Expired remote spec", cache.get( remoteSpec, new Properties() ) );
+
+        cache.put( localSpec, new Properties(), Arrays.<ScannedBundle>asList(), new Properties() );
+        write( provisionFile, "file:bundle1.jar\nfile:bundle2.jar" );
+        provisionFile.setLastModified( provisionFile.lastModified() + 2000 );
+        assertNull( "Changed local spec", cache.get( localSpec, new Properties() ) );
+    }
+
+    private static ScannedBundle createScannedBundle( final String location, final Integer startLevel,
+                                                      final Boolean start, final Boolean update )
+    {
+        final ScannedBundle bundle = createMock( ScannedBundle.class );
+        expect( bundle.getLocation() ).andReturn( location ).anyTimes();
+        expect( bundle.getStartLevel() ).andReturn( startLevel ).anyTimes();
+        expect( bundle.shouldStart() ).andReturn( start ).anyTimes();
+        expect( bundle.shouldUpdate() ).andReturn( update ).anyTimes();
+        replay( bundle );
+        return bundle;
+    }
+
+    private static void write( final File file, final String content )
+        throws IOException
+    {
+        final FileOutputStream out = new FileOutputStream( file );
+        out.write( content.getBytes( "UTF-8" ) );
+        out.close();
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import static org.easymock.EasyMock.*;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+import org.ops4j.pax.scanner.ScannedBundle;
+
+public class ScannedBundleIndexTest
+{
+
+    private File m_repository;
+    private OptionResolver m_resolver;
+
+    @Before
+    public void setUp()
+        throws IOException
+    {
+        m_repository = File.createTempFile( "runner", "" );
+        m_repository.delete();
+        m_repository.mkdirs();
+        m_resolver = createMock( OptionResolver.class );
+        expect( m_resolver.get( ScannedBundleIndex.MVN_LOCAL_REPOSITORY ) ).andReturn( m_repository.getPath() )
+            .anyTimes();
+        replay( m_resolver );
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.delete( m_repository );
+    }
+
+    // test that bundles already scanned under the same location are filtered, the first one winning
+    @Test
+    public void addFiltersDuplicates()
+    {
+        final ScannedBundleIndex index = new ScannedBundleIndex( m_resolver );
+        final ScannedBundle bundle1 = createScannedBundle( "http://repo/bundle1.jar" );
+        final ScannedBundle bundle2 = createScannedBundle( "http://repo/bundle2.jar" );
+        assertEquals( "First scan", Arrays.asList( bundle1, bundle2 ), index.add( Arrays.asList( bundle1, bundle2 ) ) );
+
+        final ScannedBundle bundle3 = createScannedBundle( "http://repo/bundle3.jar" );
+        final List<ScannedBundle> unique = index.add(
+            Arrays.asList( createScannedBundle( " http://repo/bundle2.jar " ), bundle3, bundle3 )
+        );
+        assertEquals( "Second scan", Arrays.asList( bundle3 ), unique );
+    }
+
+    // test that the first scanned bundle wins even if a duplicate has another start level
+    @Test
+    public void addKeepsFirstOfDuplicatesWithOtherOptions()
+    {
+        final ScannedBundleIndex index = new ScannedBundleIndex( m_resolver );
+        final ScannedBundle bundle = createScannedBundle( "http://repo/bundle.jar", 5, true );
+        final ScannedBundle lowerStartLevel = createScannedBundle( "http://repo/bundle.jar", 3, true );
+        final ScannedBundle sameOptions = createScannedBundle( " http://repo/bundle.jar", 5, true );
+        assertEquals(
+            "Unique bundles", Arrays.asList( bundle ), index.add( Arrays.asList( bundle, lowerStartLevel, sameOptions ) )
+        );
+        assertFalse( "Other start level", ScannedBundleIndex.sameOptions( bundle, lowerStartLevel ) );
+        assertFalse(
+            "Other start", ScannedBundleIndex.sameOptions( bundle, createScannedBundle( "http://repo/bundle.jar", 5, false ) )
+        );
+        assertTrue( "Same options", ScannedBundleIndex.sameOptions( bundle, sameOptions ) );
+    }
+
+    // test that equivalent file and maven urls have the same canonical location
+    @Test
+    public void canonicalLocation()
+        throws IOException
+    {
+        final ScannedBundleIndex index = new ScannedBundleIndex( m_resolver );
+        final File artifact = new File( m_repository, "org/ops4j/bundle/1.0/bundle-1.0.jar" );
+        final String location = "file:" + artifact.getCanonicalPath();
+
+        assertEquals( "File url", location, index.canonicalLocation( artifact.toURI().toString() ) );
+        assertEquals(
+            "Not normalized file url", location,
+            index.canonicalLocation( "file:" + m_repository.getPath() + "/org/ops4j/../ops4j/bundle/1.0/bundle-1.0.jar" )
+        );
+        assertEquals( "Maven url", location, index.canonicalLocation( "mvn:org.ops4j/bundle/1.0" ) );
+        assertEquals(
+            "Maven url with repository", location, index.canonicalLocation( "mvn:http://repo!org.ops4j/bundle/1.0" )
+        );
+        assertEquals( "Maven url range", "mvn:org.ops4j/bundle/[1.0,2.0)",
+                      index.canonicalLocation( "mvn:org.ops4j/bundle/[1.0,2.0)" )
+        );
+        assertEquals( "Other url", "wrap:http://repo/bundle.jar", index.canonicalLocation( "wrap:http://repo/bundle.jar" ) );
+    }
+
+    private static ScannedBundle createScannedBundle( final String location )
+    {
+        return createScannedBundle( location, null, true );
+    }
+
+    private static ScannedBundle createScannedBundle( final String location,
+                                                      final Integer startLevel,
+                                                      final Boolean shouldStart )
+    {
+        final ScannedBundle bundle = createMock( ScannedBundle.class );
+        expect( bundle.getLocation() ).andReturn( location ).anyTimes();
+        expect( bundle.getStartLevel() ).andReturn( startLevel ).anyTimes();
+        expect( bundle.shouldStart() ).andReturn( shouldStart ).anyTimes();
+        expect( bundle.shouldUpdate() ).andReturn( false ).anyTimes();
+        replay( bundle );
+        return bundle;
+    }
+
+}
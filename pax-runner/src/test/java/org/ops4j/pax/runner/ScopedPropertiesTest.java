@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed  under the  Apache License,  Version 2.0  (the "License");
+ * you may not use  this file  except in  compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed  under the  License is distributed on an "AS IS" BASIS,
+ * WITHOUT  WARRANTIES OR CONDITIONS  OF ANY KIND, either  express  or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ScopedPropertiesTest
+{
+
+    // test that enumeration and writes use the properties of the current scope
+    @Test
+    public void enumerateScope()
+        throws IOException
+    {
+        final Properties shared = new Properties();
+        shared.setProperty( "shared", "shared value" );
+        final ScopedProperties scoped = new ScopedProperties( shared );
+        assertEquals( "Shared names", Collections.singleton( "shared" ), scoped.stringPropertyNames() );
+
+        scoped.enter();
+        try
+        {
+            scoped.setProperty( "scan", "scan value" );
+            scoped.put( "other", "other value" );
+            assertEquals( "Shared property", "shared value", scoped.getProperty( "shared" ) );
+            assertEquals( "Size", 2, scoped.size() );
+            assertFalse( "Empty", scoped.isEmpty() );
+            assertTrue( "Key set", scoped.keySet().contains( "scan" ) );
+            assertTrue( "Value", scoped.containsValue( "other value" ) );
+            assertTrue( "Names", scoped.stringPropertyNames().contains( "other" ) );
+            assertTrue( "Enumerated names", Collections.list( scoped.propertyNames() ).contains( "scan" ) );
+            final ByteArrayOutputStream stored = new ByteArrayOutputStream();
+            scoped.store( stored, null );
+            assertTrue( "Stored", stored.toString( "ISO-8859-1" ).contains( "scan=scan value" ) );
+            assertEquals( "Changes", 2, scoped.changes().size() );
+        }
+        finally
+        {
+            scoped.leave();
+        }
+        assertEquals( "Shared names after scope", Collections.singleton( "shared" ), scoped.stringPropertyNames() );
+        assertNull( "Scan property after scope", scoped.getProperty( "scan" ) );
+    }
+
+    // test that a thread started during a scan does not use the scope of the scan, neither before nor after leave
+    @Test
+    public void threadStartedInScope()
+        throws InterruptedException
+    {
+        final Properties shared = new Properties();
+        shared.setProperty( "shared", "shared value" );
+        final ScopedProperties scoped = new ScopedProperties( shared );
+        final CountDownLatch left = new CountDownLatch( 1 );
+        final AtomicReference<String> duringScan = new AtomicReference<String>();
+        final AtomicReference<String> afterLeave = new AtomicReference<String>();
+        final AtomicReference<String> sharedAfterLeave = new AtomicReference<String>();
+
+        scoped.enter();
+        scoped.setProperty( "scan", "scan value" );
+        final Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                duringScan.set( scoped.getProperty( "scan", "not set" ) );
+                try
+                {
+                    left.await();
+                }
+                catch( InterruptedException ignore )
+                {
+                    return;
+                }
+                afterLeave.set( scoped.getProperty( "scan", "not set" ) );
+                sharedAfterLeave.set( scoped.getProperty( "shared" ) );
+            }
+        };
+        thread.start();
+        scoped.leave();
+        left.countDown();
+        thread.join( 10000 );
+
+        assertEquals( "During scan", "not set", duringScan.get() );
+        assertEquals( "After leave", "not set", afterLeave.get() );
+        assertEquals( "Shared after leave", "shared value", sharedAfterLeave.get() );
+    }
+
+}